@@ -0,0 +1,16 @@
+package com.p11.books.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Enables Spring's caching, backed by Caffeine through
+ * {@code spring.cache.caffeine.spec}. The caching advice runs outside the
+ * transaction advice, so a cache hit opens no transaction and borrows no
+ * connection, and evictions happen only after the transaction has committed.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+}
@@ -0,0 +1,37 @@
+package com.p11.books.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p11.books.dto.BookPage;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Serializes {@link BookPage} responses with the masking ObjectMapper. The
+ * JSON converter writes them straight to the response stream, as it does
+ * every other body; only the mapper differs.
+ */
+@Configuration
+public class MaskedResponseConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper maskingObjectMapper;
+
+    public MaskedResponseConfig(@Qualifier("maskingObjectMapper") ObjectMapper maskingObjectMapper) {
+        this.maskingObjectMapper = maskingObjectMapper;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter instanceof MappingJackson2HttpMessageConverter jackson) {
+                jackson.registerObjectMappersForType(BookPage.class,
+                        mappers -> mappers.put(MediaType.APPLICATION_JSON, maskingObjectMapper));
+            }
+        }
+    }
+}
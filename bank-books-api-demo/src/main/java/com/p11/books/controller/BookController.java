@@ -1,15 +1,27 @@
 package com.p11.books.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.p11.books.dto.BookDto;
+import com.p11.books.dto.BookPage;
+import com.p11.books.repository.BookRepository;
 import com.p11.books.service.BookService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -19,9 +31,12 @@ import java.util.List;
 public class BookController {
 
     private final BookService bookService;
+    private final ObjectMapper maskingObjectMapper;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService,
+                          @Qualifier("maskingObjectMapper") ObjectMapper maskingObjectMapper) {
         this.bookService = bookService;
+        this.maskingObjectMapper = maskingObjectMapper;
     }
 
     @PostMapping
@@ -35,14 +50,43 @@ public class BookController {
         return ResponseEntity.status(HttpStatus.CREATED).body(bookService.create(bookDto));
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Create up to " + BookService.MAX_BATCH_SIZE + " books in one transaction")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Books created"),
+            @ApiResponse(responseCode = "400", description = "Invalid input or batch size")
+    })
+    public ResponseEntity<List<BookDto>> createAll(
+            @RequestBody @Size(min = 1, max = BookService.MAX_BATCH_SIZE) List<@Valid BookDto> bookDtos) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(bookService.createAll(bookDtos));
+    }
+
+    @PutMapping("/batch")
+    @Operation(summary = "Update up to " + BookService.MAX_BATCH_SIZE + " books in one transaction")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Books updated"),
+            @ApiResponse(responseCode = "400", description = "Invalid input, batch size, or a missing or repeated id"),
+            @ApiResponse(responseCode = "404", description = "A book was not found; nothing is updated")
+    })
+    public ResponseEntity<List<BookDto>> updateAll(
+            @RequestBody @Size(min = 1, max = BookService.MAX_BATCH_SIZE) List<@Valid BookDto> bookDtos) {
+        return ResponseEntity.ok(bookService.updateAll(bookDtos));
+    }
+
+    /** Writes the cached, already masked JSON bytes as they are. */
     @GetMapping("/{id}")
-    @Operation(summary = "Get book by ID")
+    @Operation(summary = "Get book by ID with sensitive fields masked")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Book found"),
+            @ApiResponse(responseCode = "200", description = "Book found",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = BookDto.class))),
             @ApiResponse(responseCode = "404", description = "Book not found")
     })
-    public ResponseEntity<BookDto> findById(@PathVariable("id") Long id) {
-        return ResponseEntity.ok(bookService.findById(id));
+    public ResponseEntity<byte[]> findById(@PathVariable("id") Long id) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(bookService.findMaskedJsonById(id));
     }
 
     @GetMapping
@@ -51,6 +95,50 @@ public class BookController {
         return ResponseEntity.ok(bookService.findAll());
     }
 
+    /**
+     * Keyset pagination: pass the previous page's {@code nextCursor} to get the
+     * next one. Every page is a seek on the id index, however deep the client
+     * pages. The page is serialized with the masking mapper.
+     */
+    @GetMapping("/page")
+    @Operation(summary = "Get a page of books with sensitive fields masked")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Page returned"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    public ResponseEntity<BookPage> findPage(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "" + BookService.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(bookService.findPage(cursor, size));
+    }
+
+    /**
+     * All books as NDJSON, one masked object per line, written while the rows
+     * are read so the response never holds the whole table. Output is flushed
+     * after every fetch batch.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all books as NDJSON with sensitive fields masked")
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        ObjectWriter writer = maskingObjectMapper.writerFor(BookDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = writer.createGenerator(out)) {
+                gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                gen.setRootValueSeparator(null);
+                long[] written = new long[1];
+                bookService.streamAll(book -> {
+                    writer.writeValue(gen, book);
+                    gen.writeRaw('\n');
+                    if (++written[0] % BookRepository.STREAM_FETCH_SIZE == 0) {
+                        gen.flush();
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update a book")
     @ApiResponses({
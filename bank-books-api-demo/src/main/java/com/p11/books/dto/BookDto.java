@@ -24,10 +24,12 @@ public class BookDto {
     private String author;
 
     @Email(message = "Invalid email format")
+    @Size(max = 255)
     @Mask(style = MaskStyle.PARTIAL)
     @Schema(description = "Author contact email")
     private String email;
 
+    @Size(max = 255)
     @Mask(style = MaskStyle.PARTIAL)
     @Schema(description = "Author contact phone")
     private String phoneNumber;
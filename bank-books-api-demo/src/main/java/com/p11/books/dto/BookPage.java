@@ -0,0 +1,23 @@
+package com.p11.books.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "One page of books, in id order")
+public class BookPage {
+
+    @Schema(description = "Books on this page, sensitive fields masked")
+    private final List<BookDto> items;
+
+    @Schema(description = "Opaque token for the next page; null on the last page")
+    private final String nextCursor;
+
+    public BookPage(List<BookDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<BookDto> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+}
@@ -1,13 +1,19 @@
 package com.p11.books.entity;
 
+import com.p11.masking.jpa.EncryptedStringConverter;
 import jakarta.persistence.*;
 
 @Entity
 @Table(name = "books")
 public class Book {
 
+    /**
+     * Sequence-generated so Hibernate can batch inserts, which IDENTITY
+     * prevents; the pooled optimizer reserves 50 ids per sequence call.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -16,10 +22,16 @@ public class Book {
     @Column(nullable = false)
     private String author;
 
-    @Column
+    /**
+     * Encrypted at rest. A 255-character value is at most 765 UTF-8 bytes,
+     * 793 with nonce and tag, so its Base64 ciphertext takes 1060 characters.
+     */
+    @Convert(converter = EncryptedStringConverter.class)
+    @Column(length = 1060)
     private String email;
 
-    @Column
+    @Convert(converter = EncryptedStringConverter.class)
+    @Column(length = 1060)
     private String phoneNumber;
 
     @Column
@@ -1,9 +1,39 @@
 package com.p11.books.repository;
 
 import com.p11.books.entity.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
+
+    /**
+     * Up to {@code limit} books with an id greater than {@code id}, in id
+     * order: a seek on the primary key index, whose cost does not depend on
+     * how many rows precede it.
+     */
+    List<Book> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    /** Rows fetched per JDBC round trip by {@link #streamAll()}. */
+    int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * All books in id order, read lazily through a JDBC cursor. Must be
+     * consumed and closed inside a transaction.
+     */
+    @Query("select b from Book b order by b.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<Book> streamAll();
 }
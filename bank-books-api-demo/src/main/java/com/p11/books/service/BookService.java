@@ -1,16 +1,42 @@
 package com.p11.books.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.p11.books.dto.BookDto;
+import com.p11.books.dto.BookPage;
 import com.p11.books.entity.Book;
 import com.p11.books.exception.BookNotFoundException;
+import com.p11.books.exception.InvalidBatchException;
+import com.p11.books.exception.InvalidCursorException;
 import com.p11.books.mapper.BookMapper;
 import com.p11.books.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -18,12 +44,36 @@ public class BookService {
 
     private static final Logger log = LoggerFactory.getLogger(BookService.class);
 
+    /** Masked JSON of single books by id, filled by {@link #findMaskedJsonById(Long)}. */
+    public static final String MASKED_BOOKS_CACHE = "maskedBooks";
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    /**
+     * Entities written per flush by the batch operations. Each flush is sent
+     * in JDBC batches of {@code hibernate.jdbc.batch_size}, then the
+     * persistence context is cleared so it does not grow with the request.
+     */
+    static final int FLUSH_INTERVAL = 1_000;
+
     private final BookRepository bookRepository;
     private final BookMapper bookMapper;
+    private final ObjectMapper maskingObjectMapper;
+    private final CacheManager cacheManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
-    public BookService(BookRepository bookRepository, BookMapper bookMapper) {
+    public BookService(BookRepository bookRepository, BookMapper bookMapper,
+                       @Qualifier("maskingObjectMapper") ObjectMapper maskingObjectMapper,
+                       CacheManager cacheManager) {
         this.bookRepository = bookRepository;
         this.bookMapper = bookMapper;
+        this.maskingObjectMapper = maskingObjectMapper;
+        this.cacheManager = cacheManager;
     }
 
     public BookDto create(BookDto bookDto) {
@@ -35,6 +85,113 @@ public class BookService {
         return result;
     }
 
+    /**
+     * The book as masked JSON, read through the {@value #MASKED_BOOKS_CACHE}
+     * cache: a hit costs no query, no mapping and no serialization. Entries are
+     * evicted by size and age, and by {@link #update}, {@link #updateAll} and
+     * {@link #delete}. A masking configuration reload reaches cached books
+     * only as they expire.
+     * <p>
+     * A miss that reads a book just before a write commits would put the old
+     * JSON back if the write evicted first. Writes therefore evict by key
+     * after they commit, and {@code sync = true} makes the load an atomic
+     * Caffeine compute: an eviction of a key that is being loaded waits for
+     * the load and then removes what it stored. Clearing the whole cache gives
+     * no such guarantee, so batch updates evict their ids one by one.
+     */
+    @Cacheable(cacheNames = MASKED_BOOKS_CACHE, key = "#id", sync = true)
+    @Transactional(readOnly = true)
+    public byte[] findMaskedJsonById(Long id) {
+        BookDto book = findById(id);
+        try {
+            return maskingObjectMapper.writeValueAsBytes(book);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize book " + id, e);
+        }
+    }
+
+    /**
+     * Inserts all books in one transaction. Unlike {@link #create(BookDto)},
+     * only a single summary line is logged for the whole batch.
+     */
+    public List<BookDto> createAll(List<BookDto> bookDtos) {
+        log.info("Creating {} books, first: {}", bookDtos.size(), bookDtos.get(0));
+        List<BookDto> result = new ArrayList<>(bookDtos.size());
+        for (int from = 0; from < bookDtos.size(); from += FLUSH_INTERVAL) {
+            List<Book> books = bookDtos.subList(from, Math.min(from + FLUSH_INTERVAL, bookDtos.size())).stream()
+                    .map(bookMapper::toEntity)
+                    .toList();
+            for (Book saved : bookRepository.saveAll(books)) {
+                result.add(bookMapper.toDto(saved));
+            }
+            flushAndClear();
+        }
+        log.info("Created {} books", result.size());
+        return result;
+    }
+
+    /**
+     * Updates all books in one transaction, loading each chunk with a single
+     * query. Fails as a whole with {@link InvalidBatchException}, before any
+     * query, if an id is null or repeated, and with {@link BookNotFoundException}
+     * if any book does not exist. Evicts each updated book from the
+     * masked-book cache once the transaction commits, and nothing on rollback;
+     * see {@link #findMaskedJsonById(Long)}.
+     */
+    public List<BookDto> updateAll(List<BookDto> bookDtos) {
+        requireDistinctIds(bookDtos);
+        log.info("Updating {} books, first: {}", bookDtos.size(), bookDtos.get(0));
+        List<BookDto> result = new ArrayList<>(bookDtos.size());
+        for (int from = 0; from < bookDtos.size(); from += FLUSH_INTERVAL) {
+            List<BookDto> chunk = bookDtos.subList(from, Math.min(from + FLUSH_INTERVAL, bookDtos.size()));
+            Map<Long, Book> books = bookRepository.findAllById(chunk.stream().map(BookDto::getId).toList()).stream()
+                    .collect(Collectors.toMap(Book::getId, Function.identity()));
+            for (BookDto dto : chunk) {
+                Book book = books.get(dto.getId());
+                if (book == null) {
+                    throw new BookNotFoundException(dto.getId());
+                }
+                bookMapper.updateEntity(book, dto);
+                result.add(bookMapper.toDto(book));
+            }
+            flushAndClear();
+        }
+        evictAfterCommit(bookDtos.stream().map(BookDto::getId).toList());
+        log.info("Updated {} books", result.size());
+        return result;
+    }
+
+    /** Evicts {@code ids} from the masked-book cache once the current transaction commits. */
+    private void evictAfterCommit(List<Long> ids) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Cache maskedBooks = cacheManager.getCache(MASKED_BOOKS_CACHE);
+                if (maskedBooks != null) {
+                    ids.forEach(maskedBooks::evict);
+                }
+            }
+        });
+    }
+
+    private static void requireDistinctIds(List<BookDto> bookDtos) {
+        Set<Long> ids = new HashSet<>(bookDtos.size() * 2);
+        for (int i = 0; i < bookDtos.size(); i++) {
+            Long id = bookDtos.get(i).getId();
+            if (id == null) {
+                throw new InvalidBatchException("Book at index " + i + " has no id");
+            }
+            if (!ids.add(id)) {
+                throw new InvalidBatchException("Book id " + id + " appears more than once");
+            }
+        }
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
     @Transactional(readOnly = true)
     public BookDto findById(Long id) {
         log.debug("Fetching book with id: {}", id);
@@ -51,6 +208,69 @@ public class BookService {
                 .toList();
     }
 
+    /**
+     * One page of books after {@code cursor} (from the first book when it is
+     * null), with {@code size} clamped to 1..{@link #MAX_PAGE_SIZE}. One extra
+     * row is read to tell whether another page follows, so the last page
+     * carries no cursor.
+     */
+    @Transactional(readOnly = true)
+    public BookPage findPage(String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long after = cursor == null || cursor.isEmpty() ? 0 : decodeCursor(cursor);
+        log.debug("Fetching {} books after id {}", limit, after);
+        List<Book> books = bookRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit + 1));
+        boolean more = books.size() > limit;
+        List<BookDto> items = books.stream()
+                .limit(limit)
+                .map(bookMapper::toDto)
+                .toList();
+        return new BookPage(items, more ? encodeCursor(items.get(limit - 1).getId()) : null);
+    }
+
+    static String encodeCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static long decodeCursor(String cursor) {
+        try {
+            long id = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+            if (id < 0) {
+                throw new InvalidCursorException(cursor);
+            }
+            return id;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    /**
+     * Hands every book to {@code sink} while it is read from the database, so
+     * memory use does not grow with the table. Each entity is detached once
+     * passed on. Returns the number of books.
+     */
+    @Transactional(readOnly = true)
+    public long streamAll(BookSink sink) throws IOException {
+        log.debug("Streaming all books");
+        long count = 0;
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            for (Iterator<Book> it = books.iterator(); it.hasNext(); count++) {
+                Book book = it.next();
+                sink.accept(bookMapper.toDto(book));
+                entityManager.detach(book);
+            }
+        }
+        return count;
+    }
+
+    /** Receives the books of {@link #streamAll(BookSink)}, typically writing them to a response. */
+    @FunctionalInterface
+    public interface BookSink {
+        void accept(BookDto book) throws IOException;
+    }
+
+    @CacheEvict(cacheNames = MASKED_BOOKS_CACHE, key = "#id")
     public BookDto update(Long id, BookDto bookDto) {
         log.info("Updating book id={}: {}", id, bookDto);   // <-- masked in logs
         Book book = bookRepository.findById(id)
@@ -59,6 +279,7 @@ public class BookService {
         return bookMapper.toDto(bookRepository.save(book));
     }
 
+    @CacheEvict(cacheNames = MASKED_BOOKS_CACHE, key = "#id")
     public void delete(Long id) {
         log.info("Deleting book with id: {}", id);
         if (!bookRepository.existsById(id)) {
@@ -1,21 +1,30 @@
 package com.p11.books.integration;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.p11.books.dto.BookDto;
+import com.p11.books.entity.Book;
 import com.p11.books.repository.BookRepository;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
+@ActiveProfiles("dev")
 @AutoConfigureMockMvc
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 @TestPropertySource(properties = {
@@ -71,6 +80,55 @@ class BookControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("POST /api/v1/books - returns 400 for a phone number longer than 255 characters")
+    void createBook_returns400_forOversizedPhoneNumber() throws Exception {
+        BookDto dto = new BookDto(null, "Clean Code", "Robert Martin",
+                "robert@example.com", "1".repeat(256), "Prentice Hall");
+
+        mockMvc.perform(post("/api/v1/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/books/batch - creates all books and returns 201")
+    void createAll_returns201() throws Exception {
+        List<BookDto> dtos = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            dtos.add(new BookDto(null, "Book " + i, "Author", "a" + i + "@example.com", "+254700000000", "P"));
+        }
+
+        mockMvc.perform(post("/api/v1/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dtos)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(120)))
+                .andExpect(jsonPath("$[0].id").isNumber())
+                .andExpect(jsonPath("$[119].title").value("Book 119"));
+
+        assertThat(bookRepository.count()).isEqualTo(120);
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/books/batch - returns 400 for an empty batch or an invalid book")
+    void createAll_returns400_forInvalidInput() throws Exception {
+        mockMvc.perform(post("/api/v1/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        List<BookDto> dtos = List.of(new BookDto(null, "Ok", "Author", null, null, null),
+                new BookDto(null, "", "", null, null, null));
+        mockMvc.perform(post("/api/v1/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dtos)))
+                .andExpect(status().isBadRequest());
+
+        assertThat(bookRepository.count()).isZero();
+    }
+
     // -----------------------------------------------------------------------
     // READ
     // -----------------------------------------------------------------------
@@ -86,6 +144,49 @@ class BookControllerIntegrationTest {
                 .andExpect(jsonPath("$.title").value("Test Book"));
     }
 
+    @Test
+    @DisplayName("GET /api/v1/books/{id} - returns the book masked")
+    void findById_returnsMaskedBook() throws Exception {
+        Long id = createTestBook();
+
+        mockMvc.perform(get("/api/v1/books/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.email", not("test@example.com")))
+                .andExpect(jsonPath("$.phoneNumber", not("+254700000000")));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/books/{id} - serves repeated reads from the cache")
+    void findById_servesCachedBytesWithoutTheDatabase() throws Exception {
+        Long id = createTestBook();
+        String first = mockMvc.perform(get("/api/v1/books/{id}", id))
+                .andReturn().getResponse().getContentAsString();
+
+        bookRepository.deleteById(id);   // behind the service's back: the cache is not told
+
+        mockMvc.perform(get("/api/v1/books/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(content().string(first));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/books/{id} - reflects updates and deletes made through the API")
+    void findById_isEvictedByUpdateAndDelete() throws Exception {
+        Long id = createTestBook();
+        mockMvc.perform(get("/api/v1/books/{id}", id)).andExpect(jsonPath("$.title").value("Test Book"));
+
+        BookDto update = new BookDto(null, "Renamed", "Test Author", "test@example.com", null, null);
+        mockMvc.perform(put("/api/v1/books/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/books/{id}", id)).andExpect(jsonPath("$.title").value("Renamed"));
+
+        mockMvc.perform(delete("/api/v1/books/{id}", id)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/v1/books/{id}", id)).andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("GET /api/v1/books/{id} - returns 404 for missing book")
     void findById_returns404() throws Exception {
@@ -103,6 +204,71 @@ class BookControllerIntegrationTest {
                 .andExpect(jsonPath("$", hasSize(greaterThanOrEqualTo(1))));
     }
 
+    @Test
+    @DisplayName("GET /api/v1/books/stream - streams masked books as NDJSON")
+    void streamAll_returnsMaskedNdjson() throws Exception {
+        createTestBook();
+        createTestBook();
+
+        String[] lines = streamBooks();
+
+        assertThat(lines).hasSize(2).allSatisfy(line -> assertThat(line)
+                .contains("\"title\":\"Test Book\"")
+                .doesNotContain("test@example.com", "+254700000000"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/books/stream - streams more rows than one fetch batch in id order")
+    void streamAll_spansFetchBatches() throws Exception {
+        int total = BookRepository.STREAM_FETCH_SIZE * 2 + 1;
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            books.add(new Book("Book " + i, "Author", "author" + i + "@example.com", "+254700000000", "P"));
+        }
+        bookRepository.saveAll(books);
+
+        String[] lines = streamBooks();
+
+        assertThat(lines).hasSize(total);
+        assertThat(lines[0]).contains("\"title\":\"Book 0\"");
+        assertThat(lines[total - 1]).contains("\"title\":\"Book " + (total - 1) + "\"");
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/books/page - walks all books by cursor, masked")
+    void findPage_walksAllPagesMasked() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            createTestBook();
+        }
+
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/api/v1/books/page").param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items", hasSize(lessThanOrEqualTo(2))))
+                    .andExpect(jsonPath("$.items[0].email", not("test@example.com")))
+                    .andExpect(jsonPath("$.items[0].phoneNumber", not("+254700000000")))
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            page.get("items").forEach(item -> ids.add(item.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertThat(ids).hasSize(5).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/books/page - returns 400 for a malformed cursor")
+    void findPage_returns400_forMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/books/page").param("cursor", "%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
     // -----------------------------------------------------------------------
     // UPDATE
     // -----------------------------------------------------------------------
@@ -133,6 +299,65 @@ class BookControllerIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("PUT /api/v1/books/batch - updates all books")
+    void updateAll_updatesBooks() throws Exception {
+        Long first = createTestBook();
+        Long second = createTestBook();
+        List<BookDto> updates = List.of(
+                new BookDto(first, "First", "Author", "first@example.com", null, "P"),
+                new BookDto(second, "Second", "Author", "second@example.com", null, "P"));
+
+        mockMvc.perform(put("/api/v1/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updates)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].title", contains("First", "Second")));
+
+        assertThat(bookRepository.findById(second).orElseThrow().getTitle()).isEqualTo("Second");
+    }
+
+    @Test
+    @DisplayName("PUT /api/v1/books/batch - returns 404 and updates nothing when a book is missing")
+    void updateAll_returns404_andRollsBack() throws Exception {
+        Long id = createTestBook();
+        List<BookDto> updates = List.of(
+                new BookDto(id, "Changed", "Author", null, null, null),
+                new BookDto(999999L, "Missing", "Author", null, null, null));
+
+        mockMvc.perform(put("/api/v1/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updates)))
+                .andExpect(status().isNotFound());
+
+        assertThat(bookRepository.findById(id).orElseThrow().getTitle()).isEqualTo("Test Book");
+    }
+
+    @Test
+    @DisplayName("PUT /api/v1/books/batch - returns 400 for a missing or repeated id")
+    void updateAll_returns400_forMissingOrDuplicateIds() throws Exception {
+        Long id = createTestBook();
+        List<BookDto> duplicate = List.of(
+                new BookDto(id, "First", "Author", null, null, null),
+                new BookDto(id, "Second", "Author", null, null, null));
+        List<BookDto> missing = List.of(
+                new BookDto(id, "First", "Author", null, null, null),
+                new BookDto(null, "Second", "Author", null, null, null));
+
+        mockMvc.perform(put("/api/v1/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(duplicate)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("appears more than once")));
+        mockMvc.perform(put("/api/v1/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(missing)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("index 1 has no id")));
+
+        assertThat(bookRepository.findById(id).orElseThrow().getTitle()).isEqualTo("Test Book");
+    }
+
     // -----------------------------------------------------------------------
     // DELETE
     // -----------------------------------------------------------------------
@@ -160,6 +385,18 @@ class BookControllerIntegrationTest {
     // Helper
     // -----------------------------------------------------------------------
 
+    private String[] streamBooks() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/books/stream").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+        String body = result.getResponse().getContentAsString();
+        assertThat(body).endsWith("\n");
+        return body.lines().toArray(String[]::new);
+    }
+
     private Long createTestBook() throws Exception {
         BookDto dto = new BookDto(null, "Test Book", "Test Author",
                 "test@example.com", "+254700000000", "Test Publisher");
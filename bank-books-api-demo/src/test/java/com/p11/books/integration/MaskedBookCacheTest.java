@@ -0,0 +1,106 @@
+package com.p11.books.integration;
+
+import com.p11.books.dto.BookDto;
+import com.p11.books.entity.Book;
+import com.p11.books.mapper.BookMapper;
+import com.p11.books.repository.BookRepository;
+import com.p11.books.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Races a cache miss against a write: the miss reads the book before the write
+ * commits and only stores its JSON afterwards. The stale JSON must not
+ * survive the write's eviction.
+ */
+@SpringBootTest
+@ActiveProfiles("dev")
+class MaskedBookCacheTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @SpyBean
+    private BookMapper bookMapper;
+
+    private final CountDownLatch loading = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile Thread loader;
+
+    @BeforeEach
+    void holdTheLoaderAfterItHasReadTheBook() {
+        bookRepository.deleteAll();
+        doAnswer(invocation -> {
+            if (Thread.currentThread() == loader) {
+                loading.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return invocation.callRealMethod();
+        }).when(bookMapper).toDto(any(Book.class));
+    }
+
+    @AfterEach
+    void releaseTheLoader() {
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("update() evicts JSON that a concurrent miss stores after the commit")
+    void updateWinsOverAConcurrentMiss() throws Exception {
+        Long id = bookRepository.save(new Book("Old", "Author", null, null, null)).getId();
+
+        String cached = raceAgainst(id, () -> bookService.update(id, new BookDto(null, "New", "Author", null, null, null)));
+
+        assertThat(cached).contains("\"title\":\"New\"");
+    }
+
+    @Test
+    @DisplayName("updateAll() evicts JSON that a concurrent miss stores after the commit")
+    void updateAllWinsOverAConcurrentMiss() throws Exception {
+        Long id = bookRepository.save(new Book("Old", "Author", null, null, null)).getId();
+
+        String cached = raceAgainst(id,
+                () -> bookService.updateAll(List.of(new BookDto(id, "New", "Author", null, null, null))));
+
+        assertThat(cached).contains("\"title\":\"New\"");
+    }
+
+    private String raceAgainst(Long id, Runnable write) throws Exception {
+        CompletableFuture<byte[]> miss = CompletableFuture.supplyAsync(() -> {
+            loader = Thread.currentThread();
+            return bookService.findMaskedJsonById(id);
+        });
+        assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(write);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!bookRepository.findById(id).orElseThrow().getTitle().equals("New") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        assertThat(new String(miss.get(10, TimeUnit.SECONDS), StandardCharsets.UTF_8)).contains("\"title\":\"Old\"");
+        writer.get(10, TimeUnit.SECONDS);
+        loader = null;
+        return new String(bookService.findMaskedJsonById(id), StandardCharsets.UTF_8);
+    }
+}
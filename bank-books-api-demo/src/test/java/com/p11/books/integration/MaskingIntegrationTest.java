@@ -7,16 +7,22 @@ import ch.qos.logback.core.read.ListAppender;
 import com.p11.books.dto.BookDto;
 import com.p11.books.repository.BookRepository;
 import com.p11.books.service.BookService;
+import com.p11.masking.core.FieldEncryptor;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -25,9 +31,11 @@ import static org.assertj.core.api.Assertions.assertThat;
  * <ol>
  *   <li>Sensitive fields (email, phoneNumber) are MASKED in log output.</li>
  *   <li>The same fields are stored UNMASKED in the database.</li>
+ *   <li>They are encrypted in their columns and decrypted on load.</li>
  * </ol>
  */
 @SpringBootTest
+@ActiveProfiles("dev")
 @TestPropertySource(properties = {
         "p11.masking.enabled=true",
         "p11.masking.fields=email,phoneNumber",
@@ -45,6 +53,15 @@ class MaskingIntegrationTest {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FieldEncryptor encryptor;
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
     private ListAppender<ILoggingEvent> listAppender;
     private Logger serviceLogger;
 
@@ -96,6 +113,26 @@ class MaskingIntegrationTest {
                 .contains("*");
     }
 
+    @Test
+    @DisplayName("A batch create logs one masked summary instead of one line per book")
+    void batchCreateLogsOneMaskedSummary() {
+        List<BookDto> dtos = IntStream.range(0, 25)
+                .mapToObj(i -> new BookDto(null, "Book " + i, "Author", i + EMAIL, PHONE, "Pub"))
+                .toList();
+
+        bookService.createAll(dtos);
+
+        List<String> creating = listAppender.list.stream()
+                .map(ILoggingEvent::getFormattedMessage)
+                .filter(msg -> msg.startsWith("Creating"))
+                .toList();
+        assertThat(creating).singleElement().asString()
+                .startsWith("Creating 25 books")
+                .doesNotContain(EMAIL, PHONE)
+                .contains("*");
+        assertThat(bookRepository.findAll()).extracting(book -> book.getEmail()).contains("0" + EMAIL);
+    }
+
     @Test
     @DisplayName("Database must store unmasked values")
     void databaseStoresUnmaskedValues() {
@@ -114,6 +151,32 @@ class MaskingIntegrationTest {
                 .isEqualTo(PHONE);
     }
 
+    @Test
+    @DisplayName("Database columns must hold encrypted email and phoneNumber")
+    void databaseColumnsAreEncrypted() {
+        BookDto saved = bookService.create(new BookDto(null, "Refactoring", "Fowler", EMAIL, PHONE, "Addison"));
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "select email, phone_number, publisher from books where id = ?", saved.getId());
+
+        assertThat(row.get("EMAIL")).asString().isNotEmpty().doesNotContain(EMAIL);
+        assertThat(row.get("PHONE_NUMBER")).asString().isNotEmpty().doesNotContain(PHONE);
+        assertThat(row.get("PUBLISHER")).isEqualTo("Addison");
+        assertThat(encryptor.decrypt((String) row.get("EMAIL"))).isEqualTo(EMAIL);
+        assertThat(beanFactory.getBeanDefinition("entityManagerFactory").getDependsOn())
+                .as("The encryptor must be installed before JPA starts")
+                .contains("maskingFieldEncryptor");
+    }
+
+    @Test
+    @DisplayName("Encrypted columns hold the longest allowed value in 3-byte characters")
+    void encryptedColumnsFitTheLongestMultiByteValue() {
+        String phone = "\u20ac".repeat(255);
+        BookDto saved = bookService.create(new BookDto(null, "Refactoring", "Fowler", EMAIL, phone, "Addison"));
+
+        assertThat(bookRepository.findById(saved.getId()).orElseThrow().getPhoneNumber()).isEqualTo(phone);
+    }
+
     @Test
     @DisplayName("Original DTO object is not modified after logging")
     void originalDtoIsNotModified() {
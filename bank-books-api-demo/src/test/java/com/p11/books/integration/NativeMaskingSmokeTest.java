@@ -0,0 +1,81 @@
+package com.p11.books.integration;
+
+import com.p11.books.dto.BookDto;
+import com.p11.books.repository.BookRepository;
+import com.p11.masking.core.MaskingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * End-to-end check of the masking paths that depend on reflection and
+ * resource lookup, kept small so that the {@code native} profile can run it
+ * inside a native test image: the console encoder and converter named in
+ * {@code logback-spring.xml}, and masked JSON for a {@code @Mask} DTO.
+ * Runs on the JVM with the rest of the suite as well.
+ */
+@SpringBootTest
+@ActiveProfiles("dev")
+@AutoConfigureMockMvc
+@ExtendWith(OutputCaptureExtension.class)
+class NativeMaskingSmokeTest {
+
+    private static final String EMAIL = "grace@example.com";
+    private static final String PHONE = "+254700123456";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MaskingService maskingService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void clearDb() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Console log lines mask the DTO's email and phone number")
+    void consoleLogsAreMasked(CapturedOutput output) throws Exception {
+        mockMvc.perform(post("/api/v1/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"title":"Compilers","author":"Aho","email":"%s","phoneNumber":"%s"}
+                                """.formatted(EMAIL, PHONE)))
+                .andExpect(status().isCreated());
+
+        assertThat(output.getOut())
+                .contains("Creating book")
+                .doesNotContain(EMAIL)
+                .doesNotContain(PHONE);
+    }
+
+    @Test
+    @DisplayName("Masked JSON hides the DTO's email and phone number")
+    void maskedJsonIsMasked() {
+        BookDto dto = new BookDto(1L, "Compilers", "Aho", EMAIL, PHONE, "Addison");
+
+        String json = maskingService.toMaskedJson(dto);
+
+        assertThat(json)
+                .contains("\"title\":\"Compilers\"")
+                .doesNotContain(EMAIL)
+                .doesNotContain(PHONE);
+    }
+}
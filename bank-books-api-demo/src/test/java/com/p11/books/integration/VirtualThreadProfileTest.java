@@ -0,0 +1,85 @@
+package com.p11.books.integration;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.p11.books.dto.BookDto;
+import com.p11.books.service.BookService;
+import org.apache.catalina.connector.Connector;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the demo under the {@code virtual} profile and verifies that requests
+ * are handled on virtual threads with their logs and responses still masked.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"dev", "virtual"})
+class VirtualThreadProfileTest {
+
+    private static final String EMAIL = "alice@example.com";
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    private ListAppender<ILoggingEvent> listAppender;
+    private Logger serviceLogger;
+
+    @BeforeEach
+    void attachAppender() {
+        serviceLogger = (Logger) LoggerFactory.getLogger(BookService.class);
+        listAppender = new ListAppender<>();
+        listAppender.start();
+        serviceLogger.addAppender(listAppender);
+        serviceLogger.setLevel(Level.INFO);
+    }
+
+    @AfterEach
+    void detachAppender() {
+        serviceLogger.detachAppender(listAppender);
+    }
+
+    @Test
+    @DisplayName("Tomcat hands requests to virtual threads")
+    void tomcatUsesVirtualThreads() {
+        Connector connector = ((TomcatWebServer) context.getWebServer()).getTomcat().getConnector();
+
+        assertThat(connector.getProtocolHandler().getExecutor()).isInstanceOf(VirtualThreadExecutor.class);
+    }
+
+    @Test
+    @DisplayName("Logs and responses written on virtual threads are masked")
+    void masksOnVirtualThreads() {
+        BookDto created = rest.postForObject("/api/v1/books",
+                new BookDto(null, "Refactoring", "Fowler", EMAIL, "+254712345678", "Addison"), BookDto.class);
+
+        ResponseEntity<String> response = rest.getForEntity("/api/v1/books/" + created.getId(), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).doesNotContain(EMAIL).contains("alic");
+        ILoggingEvent createLog = listAppender.list.stream()
+                .filter(e -> e.getMessage().startsWith("Creating book"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(createLog.getThreadName()).startsWith("tomcat-handler-");
+        assertThat(createLog.getFormattedMessage()).doesNotContain(EMAIL);
+    }
+}
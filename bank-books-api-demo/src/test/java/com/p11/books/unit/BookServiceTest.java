@@ -1,8 +1,12 @@
 package com.p11.books.unit;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.p11.books.dto.BookDto;
+import com.p11.books.dto.BookPage;
 import com.p11.books.entity.Book;
 import com.p11.books.exception.BookNotFoundException;
+import com.p11.books.exception.InvalidBatchException;
+import com.p11.books.exception.InvalidCursorException;
 import com.p11.books.mapper.BookMapper;
 import com.p11.books.repository.BookRepository;
 import com.p11.books.service.BookService;
@@ -12,12 +16,16 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,7 +41,7 @@ class BookServiceTest {
     @BeforeEach
     void setUp() {
         bookMapper = new BookMapper();
-        bookService = new BookService(bookRepository, bookMapper);
+        bookService = new BookService(bookRepository, bookMapper, new ObjectMapper(), new NoOpCacheManager());
     }
 
     @Test
@@ -128,4 +136,63 @@ class BookServiceTest {
         assertThatThrownBy(() -> bookService.delete(99L))
                 .isInstanceOf(BookNotFoundException.class);
     }
+
+    @Test
+    @DisplayName("findPage() returns a cursor only when another page follows")
+    void findPage_returnsCursorWhenMoreRowsFollow() {
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(books(1, 2, 3));
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(3))).thenReturn(books(3));
+
+        BookPage first = bookService.findPage(null, 2);
+        BookPage last = bookService.findPage(first.getNextCursor(), 2);
+
+        assertThat(first.getItems()).extracting(BookDto::getId).containsExactly(1L, 2L);
+        assertThat(first.getNextCursor()).isNotBlank().doesNotContain("2");
+        assertThat(last.getItems()).extracting(BookDto::getId).containsExactly(3L);
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("findPage() clamps the page size")
+    void findPage_clampsSize() {
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(List.of());
+
+        bookService.findPage(null, 0);
+        bookService.findPage(null, 10_000);
+
+        verify(bookRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+        verify(bookRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(BookService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    @DisplayName("findPage() rejects a malformed cursor")
+    void findPage_rejectsMalformedCursor() {
+        assertThatThrownBy(() -> bookService.findPage("not a cursor!", 10))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> bookService.findPage("YWJj", 10))   // "abc"
+                .isInstanceOf(InvalidCursorException.class);
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    @DisplayName("updateAll() rejects missing and repeated ids before querying")
+    void updateAll_rejectsMissingOrDuplicateIds() {
+        BookDto first = new BookDto(1L, "A", "Au", null, null, null);
+
+        assertThatThrownBy(() -> bookService.updateAll(List.of(first, new BookDto(1L, "B", "Au", null, null, null))))
+                .isInstanceOf(InvalidBatchException.class)
+                .hasMessageContaining("1 appears more than once");
+        assertThatThrownBy(() -> bookService.updateAll(List.of(first, new BookDto(null, "B", "Au", null, null, null))))
+                .isInstanceOf(InvalidBatchException.class)
+                .hasMessageContaining("index 1");
+        verifyNoInteractions(bookRepository);
+    }
+
+    private static List<Book> books(long... ids) {
+        return LongStream.of(ids).mapToObj(id -> {
+            Book book = new Book("Title " + id, "Author", "a" + id + "@test.com", "0700", "P");
+            book.setId(id);
+            return book;
+        }).toList();
+    }
 }
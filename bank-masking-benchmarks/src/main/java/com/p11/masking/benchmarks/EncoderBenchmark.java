@@ -0,0 +1,83 @@
+package com.p11.masking.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.p11.masking.benchmarks.fixture.BookDto;
+import com.p11.masking.logback.MaskingMessageConverter;
+import com.p11.masking.logback.MaskingPatternLayoutEncoder;
+import com.p11.masking.logback.MaskingTurboFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One log event with a {@link BookDto} parameter, from logging call to encoded
+ * bytes: the TurboFilter path (masked JSON String, formatted message, encoded
+ * line) against {@link MaskingPatternLayoutEncoder}, which writes the masked
+ * JSON directly into its byte buffer. Events are built per invocation since
+ * both the event and its arguments cache their rendered forms.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EncoderBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n";
+
+    private Logger logger;
+    private MaskingTurboFilter filter;
+    private PatternLayoutEncoder standard;
+    private MaskingPatternLayoutEncoder masking;
+    private BookDto book;
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = new LoggerContext();
+        logger = context.getLogger("com.p11.books.service.BookService");
+        logger.setLevel(Level.INFO);
+        context.putObject(MaskingMessageConverter.SERVICE_KEY, Fixtures.maskingService());
+
+        filter = new MaskingTurboFilter(Fixtures.maskingService());
+        filter.start();
+
+        standard = new PatternLayoutEncoder();
+        standard.setContext(context);
+        standard.setPattern(PATTERN);
+        standard.start();
+
+        masking = new MaskingPatternLayoutEncoder();
+        masking.setContext(context);
+        masking.setPattern(PATTERN);
+        masking.start();
+
+        book = BookDto.sample();
+    }
+
+    @Benchmark
+    public byte[] turboFilterThenPatternLayout() {
+        Object[] args = {book};
+        filter.decide(null, logger, Level.INFO, "Creating book: {}", args, null);
+        return standard.encode(new LoggingEvent("fqcn", logger, Level.INFO, "Creating book: {}", null, args));
+    }
+
+    @Benchmark
+    public byte[] maskingEncoder() {
+        Object[] args = {book};
+        return masking.encode(new LoggingEvent("fqcn", logger, Level.INFO, "Creating book: {}", null, args));
+    }
+}
@@ -0,0 +1,134 @@
+package com.p11.masking.benchmarks;
+
+import com.p11.masking.core.FieldEncryptor;
+import com.p11.masking.jpa.EncryptedStringConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of {@link EncryptedStringConverter} for a book's two encrypted
+ * columns (email and phone number), written and read. The {@code naive}
+ * variants are the usual hand-written converter that gets a {@code Cipher}
+ * and a {@code SecureRandom} on every call. {@code bulkRead} decrypts the
+ * columns of 100 rows through {@link FieldEncryptor#decryptAll}; divide by 100
+ * for the per-row figure.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EncryptedConverterBenchmark {
+
+    private static final String EMAIL = "ngugi.wa.thiongo@example.com";
+    private static final String PHONE = "+254712345678";
+    private static final int BULK_ROWS = 100;
+
+    private final EncryptedStringConverter converter = new EncryptedStringConverter();
+    private SecretKeySpec key;
+    private String encryptedEmail;
+    private String encryptedPhone;
+    private List<String> bulk;
+    private List<String> bulkSource;
+
+    @Setup
+    public void setUp() {
+        byte[] raw = new byte[32];
+        new SecureRandom().nextBytes(raw);
+        key = new SecretKeySpec(raw, "AES");
+        FieldEncryptor encryptor = new FieldEncryptor(raw);
+        FieldEncryptor.install(encryptor);
+        encryptedEmail = encryptor.encrypt(EMAIL);
+        encryptedPhone = encryptor.encrypt(PHONE);
+        bulkSource = new ArrayList<>();
+        for (int i = 0; i < BULK_ROWS; i++) {
+            bulkSource.add(encryptedEmail);
+            bulkSource.add(encryptedPhone);
+        }
+        bulk = new ArrayList<>(bulkSource);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetBulk() {
+        for (int i = 0; i < bulkSource.size(); i++) {
+            bulk.set(i, bulkSource.get(i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        FieldEncryptor.install(null);
+    }
+
+    @Benchmark
+    public void write(Blackhole bh) {
+        bh.consume(converter.convertToDatabaseColumn(EMAIL));
+        bh.consume(converter.convertToDatabaseColumn(PHONE));
+    }
+
+    @Benchmark
+    public void read(Blackhole bh) {
+        bh.consume(converter.convertToEntityAttribute(encryptedEmail));
+        bh.consume(converter.convertToEntityAttribute(encryptedPhone));
+    }
+
+    @Benchmark
+    public List<String> bulkRead() {
+        FieldEncryptor.installed().decryptAll(bulk);
+        return bulk;
+    }
+
+    @Benchmark
+    public void naiveWrite(Blackhole bh) throws GeneralSecurityException {
+        bh.consume(naiveEncrypt(EMAIL));
+        bh.consume(naiveEncrypt(PHONE));
+    }
+
+    @Benchmark
+    public void naiveRead(Blackhole bh) throws GeneralSecurityException {
+        bh.consume(naiveDecrypt(encryptedEmail));
+        bh.consume(naiveDecrypt(encryptedPhone));
+    }
+
+    private String naiveEncrypt(String value) throws GeneralSecurityException {
+        byte[] nonce = new byte[12];
+        new SecureRandom().nextBytes(nonce);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, nonce));
+        byte[] ciphertext = cipher.doFinal(value.getBytes(StandardCharsets.UTF_8));
+        byte[] out = Arrays.copyOf(nonce, 12 + ciphertext.length);
+        System.arraycopy(ciphertext, 0, out, 12, ciphertext.length);
+        return Base64.getEncoder().encodeToString(out);
+    }
+
+    private String naiveDecrypt(String value) throws GeneralSecurityException {
+        byte[] in = Base64.getDecoder().decode(value);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(128, in, 0, 12));
+        return new String(cipher.doFinal(in, 12, in.length - 12), StandardCharsets.UTF_8);
+    }
+}
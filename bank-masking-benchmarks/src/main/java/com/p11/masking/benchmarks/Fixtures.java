@@ -0,0 +1,75 @@
+package com.p11.masking.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.core.MaskingMetrics;
+import com.p11.masking.core.MaskingService;
+import com.p11.masking.jackson.GeneratedMaskingSerializer;
+import com.p11.masking.jackson.MaskingBeanSerializerModifier;
+import com.p11.masking.jackson.VirtualThreadRecyclerPool;
+
+import java.util.List;
+
+/**
+ * Builds the starter's components the same way {@code MaskingAutoConfiguration}
+ * does, without a Spring context.
+ */
+final class Fixtures {
+
+    private Fixtures() {}
+
+    static MaskingProperties properties() {
+        MaskingProperties properties = new MaskingProperties();
+        properties.setFields(List.of("email", "phoneNumber", "ssn", "creditCardNumber", "ownerEmail"));
+        return properties;
+    }
+
+    static ObjectMapper maskingMapper(MaskingProperties properties) {
+        SimpleModule module = new SimpleModule("MaskingModule");
+        module.setSerializerModifier(modifier(properties));
+        return withRecyclerPool(plainMapper().registerModule(module));
+    }
+
+    /** The masking mapper in {@code DERIVED} mode: a copy of {@code application} plus the masking module. */
+    static ObjectMapper derivedMapper(ObjectMapper application, MaskingProperties properties) {
+        SimpleModule module = new SimpleModule("MaskingModule");
+        module.setSerializerModifier(modifier(properties));
+        return withRecyclerPool(application.copy().registerModule(module));
+    }
+
+    /** {@link #maskingMapper} plus the serializers generated by bank-masking-processor. */
+    static ObjectMapper generatedMapper(MaskingProperties properties) {
+        SimpleModule module = new SimpleModule("MaskingModule");
+        module.setSerializerModifier(modifier(properties));
+        GeneratedMaskingSerializer.registerAll(module, properties, MaskingMetrics.NOOP,
+                Fixtures.class.getClassLoader());
+        return withRecyclerPool(plainMapper().registerModule(module));
+    }
+
+    /**
+     * The modifier for settings that do not change after startup, as the
+     * auto-configuration builds it when nothing can reload them.
+     */
+    static MaskingBeanSerializerModifier modifier(MaskingProperties properties) {
+        return new MaskingBeanSerializerModifier(properties, MaskingMetrics.NOOP, false);
+    }
+
+    static ObjectMapper plainMapper() {
+        return new ObjectMapper()
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
+                .registerModule(new JavaTimeModule());
+    }
+
+    private static ObjectMapper withRecyclerPool(ObjectMapper mapper) {
+        VirtualThreadRecyclerPool.install(mapper);
+        return mapper;
+    }
+
+    static MaskingService maskingService() {
+        MaskingProperties properties = properties();
+        return new MaskingService(properties, maskingMapper(properties));
+    }
+}
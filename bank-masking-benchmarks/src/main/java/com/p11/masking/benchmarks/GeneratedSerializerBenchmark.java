@@ -0,0 +1,92 @@
+package com.p11.masking.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p11.masking.benchmarks.fixture.BookDto;
+import com.p11.masking.jackson.GeneratedMaskingSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link GeneratedMaskingSerializer} for {@link BookDto} against the
+ * runtime path (bean serializer with {@code MaskingPropertyWriter}s), steady
+ * state and the first write through a fresh mapper, which includes building
+ * the serializer: introspection for the runtime path, a lookup for the
+ * generated one.
+ */
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeneratedSerializerBenchmark {
+
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    private ObjectMapper runtimeMapper;
+    private ObjectMapper generatedMapper;
+    private BookDto book;
+
+    @Setup
+    public void setUp() {
+        runtimeMapper = Fixtures.maskingMapper(Fixtures.properties());
+        generatedMapper = Fixtures.generatedMapper(Fixtures.properties());
+        book = BookDto.sample();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public void runtime() throws IOException {
+        runtimeMapper.writeValue(sink, book);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public void generated() throws IOException {
+        generatedMapper.writeValue(sink, book);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 20)
+    @Measurement(iterations = 50)
+    public void runtimeFirstUse(FreshMappers fresh) throws IOException {
+        fresh.runtime.writeValue(sink, book);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 20)
+    @Measurement(iterations = 50)
+    public void generatedFirstUse(FreshMappers fresh) throws IOException {
+        fresh.generated.writeValue(sink, book);
+    }
+
+    /** Mappers with empty serializer caches, built outside the measured call. */
+    @State(Scope.Thread)
+    public static class FreshMappers {
+
+        ObjectMapper runtime;
+        ObjectMapper generated;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            runtime = Fixtures.maskingMapper(Fixtures.properties());
+            generated = Fixtures.generatedMapper(Fixtures.properties());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.p11.masking.benchmarks;
+
+import com.p11.masking.core.MaskStyle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MaskStyle#apply(String, char)} on large values against the scratch
+ * {@code char[]} path it still uses below {@code MaskStyle.LARGE_VALUE}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LargeValueBenchmark {
+
+    @Param({"FULL", "PARTIAL", "SHOW_LAST"})
+    public MaskStyle style;
+
+    @Param({"64", "256", "1024", "4096", "65536"})
+    public int length;
+
+    private String value;
+
+    @Setup
+    public void setUp() {
+        value = "0123456789".repeat(length / 10 + 1).substring(0, length);
+    }
+
+    @Benchmark
+    public String apply() {
+        return style.apply(value, '*');
+    }
+
+    @Benchmark
+    public String scratchArray() {
+        char[] out = new char[length];
+        int written = style.maskInto(value, 0, length, '*', out, 0);
+        return new String(out, 0, written);
+    }
+}
@@ -0,0 +1,78 @@
+package com.p11.masking.benchmarks;
+
+import com.p11.masking.core.MaskStyle;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorSpecies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LargeValueBenchmark}'s scratch {@code char[]} path with the masked
+ * region filled in {@code jdk.incubator.vector} lanes instead of by
+ * {@code Arrays.fill}, which C2 already vectorizes. Needs the incubator
+ * module, so it is only compiled with the {@code vector} profile:
+ * {@code mvn -pl bank-masking-benchmarks -Pvector package}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class LargeValueVectorBenchmark {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+    @Param({"FULL", "PARTIAL", "SHOW_LAST"})
+    public MaskStyle style;
+
+    @Param({"64", "256", "1024", "4096", "65536"})
+    public int length;
+
+    private String value;
+    private int prefix;
+    private int suffix;
+
+    @Setup
+    public void setUp() {
+        value = "0123456789".repeat(length / 10 + 1).substring(0, length);
+        // Mirrors MaskStyle's visible prefix and suffix.
+        prefix = style == MaskStyle.PARTIAL ? Math.max(1, length / 4) : 0;
+        suffix = style == MaskStyle.SHOW_LAST ? 4 : 0;
+    }
+
+    @Benchmark
+    public String scratchArray() {
+        char[] out = new char[length];
+        int written = style.maskInto(value, 0, length, '*', out, 0);
+        return new String(out, 0, written);
+    }
+
+    @Benchmark
+    public String vectorFill() {
+        char[] out = new char[length];
+        value.getChars(0, prefix, out, 0);
+        value.getChars(length - suffix, length, out, length - suffix);
+        ShortVector mask = ShortVector.broadcast(SPECIES, (short) '*');
+        int end = length - suffix;
+        int i = prefix;
+        for (int bound = prefix + SPECIES.loopBound(end - prefix); i < bound; i += SPECIES.length()) {
+            mask.intoCharArray(out, i);
+        }
+        for (; i < end; i++) {
+            out[i] = '*';
+        }
+        return new String(out);
+    }
+}
@@ -0,0 +1,69 @@
+package com.p11.masking.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p11.masking.benchmarks.fixture.BookDto;
+import com.p11.masking.benchmarks.fixture.Catalog;
+import com.p11.masking.config.MapperMode;
+import com.p11.masking.config.MaskingProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of the masking mapper per {@link MapperMode}: building it and
+ * writing the fixtures through it once, next to an application mapper that is
+ * already in use. Run with {@code -prof gc} for the bytes allocated per
+ * mapper.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 50)
+@Measurement(iterations = 200)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperModeBenchmark {
+
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    private MaskingProperties properties;
+    private ObjectMapper application;
+    private BookDto book;
+    private Catalog catalog;
+
+    @Setup
+    public void setUp() throws IOException {
+        properties = Fixtures.properties();
+        book = BookDto.sample();
+        catalog = Catalog.withBooks(3);
+        application = Fixtures.plainMapper();
+        application.writeValue(sink, book);
+        application.writeValue(sink, catalog);
+    }
+
+    @Benchmark
+    public ObjectMapper standalone() throws IOException {
+        return firstUse(Fixtures.maskingMapper(properties));
+    }
+
+    @Benchmark
+    public ObjectMapper derived() throws IOException {
+        return firstUse(Fixtures.derivedMapper(application, properties));
+    }
+
+    private ObjectMapper firstUse(ObjectMapper mapper) throws IOException {
+        mapper.writeValue(sink, book);
+        mapper.writeValue(sink, catalog);
+        return mapper;
+    }
+}
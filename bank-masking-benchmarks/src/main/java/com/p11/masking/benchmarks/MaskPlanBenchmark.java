@@ -0,0 +1,71 @@
+package com.p11.masking.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.p11.masking.benchmarks.fixture.BookDto;
+import com.p11.masking.benchmarks.fixture.PerCallResolvingModifier;
+import com.p11.masking.config.MaskingProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes {@link BookDto} through writers that hold a precomputed mask plan
+ * versus writers that resolve style and mask character on every value.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MaskPlanBenchmark {
+
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    private ObjectMapper planned;
+    private ObjectMapper perCall;
+    private BookDto book;
+
+    @Setup
+    public void setUp() {
+        MaskingProperties properties = new MaskingProperties();
+        properties.setFields(List.of("email", "phoneNumber", "ssn", "creditCardNumber"));
+
+        planned = mapper(Fixtures.modifier(properties));
+        perCall = mapper(new PerCallResolvingModifier(properties));
+        book = BookDto.sample();
+    }
+
+    @Benchmark
+    public void precomputedPlan() throws IOException {
+        planned.writeValue(sink, book);
+    }
+
+    @Benchmark
+    public void perCallResolution() throws IOException {
+        perCall.writeValue(sink, book);
+    }
+
+    private static ObjectMapper mapper(BeanSerializerModifier modifier) {
+        SimpleModule module = new SimpleModule();
+        module.setSerializerModifier(modifier);
+        return new ObjectMapper()
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
+                .registerModule(module);
+    }
+}
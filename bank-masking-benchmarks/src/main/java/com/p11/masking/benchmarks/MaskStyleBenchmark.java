@@ -0,0 +1,59 @@
+package com.p11.masking.benchmarks;
+
+import com.p11.masking.core.MaskStyle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MaskStyle} across value lengths, for the String form and the
+ * caller-supplied buffer form.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MaskStyleBenchmark {
+
+    @Param({"FULL", "PARTIAL", "SHOW_LAST"})
+    public MaskStyle style;
+
+    @Param({"8", "16", "64", "256", "4096"})
+    public int length;
+
+    private String value;
+    private char[] dest;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('0' + i % 10));
+        }
+        value = sb.toString();
+        dest = new char[style.maskedLength(length)];
+    }
+
+    @Benchmark
+    public String apply() {
+        return style.apply(value, '*');
+    }
+
+    @Benchmark
+    public char[] maskInto() {
+        style.maskInto(value, 0, length, '*', dest, 0);
+        return dest;
+    }
+}
@@ -0,0 +1,78 @@
+package com.p11.masking.benchmarks;
+
+import com.p11.masking.core.MaskPlan;
+import com.p11.masking.core.MaskStyle;
+import com.p11.masking.core.PiiScanner;
+import com.p11.masking.core.PiiType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * {@link PiiScanner} cost per character of log text, against the equivalent
+ * chain of {@code java.util.regex} replacements (without checksum validation).
+ * Every text is exactly {@value #CHARS} characters, so scores read as ns/char.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PiiScannerBenchmark {
+
+    static final int CHARS = 1024;
+
+    private static final Pattern CARD = Pattern.compile("\\b(?:\\d[ -]?){12,18}\\d\\b");
+    private static final Pattern IBAN = Pattern.compile("\\b[A-Z]{2}\\d{2}(?: ?[A-Z0-9]{4}){2,7}(?: ?[A-Z0-9]{1,4})?\\b");
+    private static final Pattern EMAIL = Pattern.compile("[A-Za-z0-9._%+-]+@[A-Za-z0-9-]+(?:\\.[A-Za-z0-9-]+)*\\.[A-Za-z]{2,}");
+    private static final Pattern PHONE = Pattern.compile("\\+(?:\\d[ ().-]{0,2}){7,14}\\d\\b");
+
+    /** clean: ordinary log prose; dense: one detectable value in every sentence. */
+    @Param({"clean", "dense"})
+    public String text;
+
+    private String input;
+    private PiiScanner scanner;
+
+    @Setup
+    public void setUp() {
+        String sentence = "clean".equals(text)
+                ? "Order 58213 for customer 7731 moved to state SHIPPED at 2024-01-15 10:30:00 (batch B-17). "
+                : "Charged 4111 1111 1111 1111 for ngugi@example.com, refund to DE89370400440532013000, call +254712345678. ";
+        StringBuilder sb = new StringBuilder(CHARS + sentence.length());
+        while (sb.length() < CHARS) {
+            sb.append(sentence);
+        }
+        input = sb.substring(0, CHARS);
+        scanner = new PiiScanner(MaskPlan.of(MaskStyle.PARTIAL, '*'), EnumSet.allOf(PiiType.class));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHARS)
+    public String scanner() {
+        return scanner.mask(input);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHARS)
+    public String regexChain() {
+        String out = CARD.matcher(input).replaceAll("****");
+        out = IBAN.matcher(out).replaceAll("****");
+        out = EMAIL.matcher(out).replaceAll("****");
+        return PHONE.matcher(out).replaceAll("****");
+    }
+}
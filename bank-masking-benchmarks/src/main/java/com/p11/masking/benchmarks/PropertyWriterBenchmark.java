@@ -0,0 +1,56 @@
+package com.p11.masking.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p11.masking.benchmarks.fixture.BookDto;
+import com.p11.masking.jackson.MaskingPropertyWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link MaskingPropertyWriter} over Jackson's plain
+ * {@code BeanPropertyWriter}: the same {@link BookDto} serialized by a mapper
+ * with and without the masking module.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PropertyWriterBenchmark {
+
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    private ObjectMapper maskingMapper;
+    private ObjectMapper plainMapper;
+    private BookDto book;
+
+    @Setup
+    public void setUp() {
+        maskingMapper = Fixtures.maskingMapper(Fixtures.properties());
+        plainMapper = Fixtures.plainMapper();
+        book = BookDto.sample();
+    }
+
+    @Benchmark
+    public void maskingPropertyWriter() throws IOException {
+        maskingMapper.writeValue(sink, book);
+    }
+
+    @Benchmark
+    public void plainBeanPropertyWriter() throws IOException {
+        plainMapper.writeValue(sink, book);
+    }
+}
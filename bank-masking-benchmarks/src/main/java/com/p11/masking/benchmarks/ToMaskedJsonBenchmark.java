@@ -0,0 +1,65 @@
+package com.p11.masking.benchmarks;
+
+import com.p11.masking.benchmarks.fixture.BookDto;
+import com.p11.masking.benchmarks.fixture.Catalog;
+import com.p11.masking.core.MaskingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MaskingService#toMaskedJson(Object)} on a single {@link BookDto} and on
+ * {@link Catalog} graphs of increasing size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ToMaskedJsonBenchmark {
+
+    private MaskingService maskingService;
+    private BookDto book;
+
+    @Setup
+    public void setUp() {
+        maskingService = Fixtures.maskingService();
+        book = BookDto.sample();
+    }
+
+    @Benchmark
+    public String bookDto() {
+        return maskingService.toMaskedJson(book);
+    }
+
+    @Benchmark
+    public String catalog(Catalogs catalogs) {
+        return maskingService.toMaskedJson(catalogs.catalog);
+    }
+
+    /** The catalog sizes, kept apart so that only {@link #catalog} runs once per size. */
+    @State(Scope.Benchmark)
+    public static class Catalogs {
+
+        @Param({"10", "100", "1000"})
+        public int catalogSize;
+
+        Catalog catalog;
+
+        @Setup
+        public void setUp() {
+            catalog = Catalog.withBooks(catalogSize);
+        }
+    }
+}
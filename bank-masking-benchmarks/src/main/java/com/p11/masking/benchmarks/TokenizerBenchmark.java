@@ -0,0 +1,59 @@
+package com.p11.masking.benchmarks;
+
+import com.p11.masking.core.TokenCache;
+import com.p11.masking.core.Tokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Tokenizer} on a working set of recurring account numbers, with the
+ * result cache enabled and disabled, in hex and format-preserving form.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenizerBenchmark {
+
+    @Param({"0", "10000"})
+    public int cacheSize;
+
+    @Param({"false", "true"})
+    public boolean formatPreserving;
+
+    private Tokenizer tokenizer;
+    private String[] values;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        tokenizer = new Tokenizer("benchmark-key-0123456789".getBytes(StandardCharsets.UTF_8), 16, formatPreserving,
+                "tok_", new TokenCache(cacheSize, Duration.ofMinutes(10)));
+        values = new String[1024];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = String.format("GB29NWBK6016%010d", i * 7919L);
+        }
+    }
+
+    @Benchmark
+    public String tokenize() {
+        String value = values[next];
+        next = (next + 1) & (values.length - 1);
+        return tokenizer.tokenize(value);
+    }
+}
@@ -0,0 +1,64 @@
+package com.p11.masking.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import com.p11.masking.benchmarks.fixture.BookDto;
+import com.p11.masking.logback.MaskingTurboFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MaskingTurboFilter#decide} for log calls with 0, 1 and N object
+ * parameters. The filter rewrites the parameter array in place, so each
+ * invocation works on a fresh copy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TurboFilterBenchmark {
+
+    @Param({"0", "1", "4"})
+    public int paramCount;
+
+    private MaskingTurboFilter filter;
+    private Logger logger;
+    private Object[] params;
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = new LoggerContext();
+        logger = context.getLogger("bench");
+        logger.setLevel(Level.INFO);
+
+        filter = new MaskingTurboFilter(Fixtures.maskingService());
+        filter.start();
+
+        params = new Object[paramCount];
+        for (int i = 0; i < paramCount; i++) {
+            params[i] = BookDto.sample();
+        }
+    }
+
+    @Benchmark
+    public Object[] decide() {
+        Object[] args = params.clone();
+        FilterReply reply = filter.decide(null, logger, Level.INFO, "Book: {}", args, null);
+        return reply == FilterReply.NEUTRAL ? args : null;
+    }
+}
@@ -0,0 +1,109 @@
+package com.p11.masking.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.p11.masking.benchmarks.fixture.BookDto;
+import com.p11.masking.core.MaskingService;
+import com.p11.masking.logback.MaskingMessageConverter;
+import com.p11.masking.logback.MaskingPatternLayoutEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 10,000 concurrent simulated requests, each logging its {@link BookDto}
+ * through {@link MaskingPatternLayoutEncoder}, waiting 10 ms on a stand-in for
+ * a database call and rendering the masked response. {@code platform} runs
+ * them on a fixed pool of 200 threads, Tomcat's default maximum;
+ * {@code virtual} gives each request its own virtual thread, as
+ * {@code spring.threads.virtual.enabled} does. The score is the time until
+ * every request has completed.
+ * <p>
+ * Everything runs in process: there is no HTTP server, socket or connector,
+ * and the database call is a {@code Thread.sleep}. It measures the masking
+ * path under thread-per-request scheduling, not an end-to-end HTTP load.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualThreadLoadBenchmark {
+
+    private static final int REQUESTS = 10_000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final long DATABASE_MILLIS = 10;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private ExecutorService executor;
+    private Logger logger;
+    private MaskingPatternLayoutEncoder encoder;
+    private MaskingService service;
+    private BookDto book;
+
+    @Setup
+    public void setUp() {
+        executor = threads.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+
+        service = Fixtures.maskingService();
+        LoggerContext context = new LoggerContext();
+        logger = context.getLogger("com.p11.books.service.BookService");
+        logger.setLevel(Level.INFO);
+        context.putObject(MaskingMessageConverter.SERVICE_KEY, service);
+        encoder = new MaskingPatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n");
+        encoder.start();
+
+        book = BookDto.sample();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Benchmark
+    public long serveRequests() throws Exception {
+        List<Callable<Integer>> requests = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.add(this::request);
+        }
+        long bytes = 0;
+        for (Future<Integer> response : executor.invokeAll(requests)) {
+            bytes += response.get();
+        }
+        return bytes;
+    }
+
+    private int request() throws InterruptedException {
+        byte[] line = encoder.encode(
+                new LoggingEvent("fqcn", logger, Level.INFO, "Fetching book: {}", null, new Object[] {book}));
+        Thread.sleep(DATABASE_MILLIS);
+        return line.length + service.toMaskedJson(book).length();
+    }
+}
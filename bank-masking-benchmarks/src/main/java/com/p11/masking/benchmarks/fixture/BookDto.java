@@ -0,0 +1,54 @@
+package com.p11.masking.benchmarks.fixture;
+
+import com.p11.masking.annotation.Mask;
+import com.p11.masking.core.MaskStyle;
+
+/**
+ * Same shape and masking annotations as {@code com.p11.books.dto.BookDto} in the
+ * demo module, without the validation and OpenAPI annotations (the demo is
+ * packaged as an executable jar and cannot be used as a library).
+ */
+public class BookDto {
+
+    private Long id;
+    private String title;
+    private String author;
+
+    @Mask(style = MaskStyle.PARTIAL)
+    private String email;
+
+    @Mask(style = MaskStyle.PARTIAL)
+    private String phoneNumber;
+
+    private String publisher;
+
+    public BookDto() {}
+
+    public BookDto(Long id, String title, String author,
+                   String email, String phoneNumber, String publisher) {
+        this.id = id;
+        this.title = title;
+        this.author = author;
+        this.email = email;
+        this.phoneNumber = phoneNumber;
+        this.publisher = publisher;
+    }
+
+    public static BookDto sample() {
+        return new BookDto(42L, "The River Between", "Ngugi Wa Thiongo",
+                "ngugi@example.com", "+254712345678", "LongHorn");
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getAuthor() { return author; }
+    public void setAuthor(String author) { this.author = author; }
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+    public String getPhoneNumber() { return phoneNumber; }
+    public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
+    public String getPublisher() { return publisher; }
+    public void setPublisher(String publisher) { this.publisher = publisher; }
+}
@@ -0,0 +1,43 @@
+package com.p11.masking.benchmarks.fixture;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A larger object graph: a catalog of books plus owner contact details and
+ * free-form attributes, used to measure masking cost as the graph grows.
+ */
+public class Catalog {
+
+    private String name;
+    private String ownerEmail;
+    private String ssn;
+    private List<BookDto> books;
+    private Map<String, String> attributes;
+
+    public Catalog() {}
+
+    public static Catalog withBooks(int count) {
+        Catalog catalog = new Catalog();
+        catalog.name = "Nairobi Central";
+        catalog.ownerEmail = "owner@library.example.com";
+        catalog.ssn = "123-45-6789";
+        catalog.books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            catalog.books.add(new BookDto((long) i, "Title " + i, "Author " + i,
+                    "author" + i + "@example.com", "+2547" + String.format("%08d", i), "Publisher"));
+        }
+        catalog.attributes = new LinkedHashMap<>();
+        catalog.attributes.put("region", "KE-30");
+        catalog.attributes.put("tier", "gold");
+        return catalog;
+    }
+
+    public String getName() { return name; }
+    public String getOwnerEmail() { return ownerEmail; }
+    public String getSsn() { return ssn; }
+    public List<BookDto> getBooks() { return books; }
+    public Map<String, String> getAttributes() { return attributes; }
+}
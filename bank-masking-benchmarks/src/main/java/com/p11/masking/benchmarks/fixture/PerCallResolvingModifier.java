@@ -0,0 +1,83 @@
+package com.p11.masking.benchmarks.fixture;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.p11.masking.annotation.Mask;
+import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.core.MaskStyle;
+
+import java.util.List;
+
+/**
+ * Baseline for comparison: masks the same properties as
+ * {@code MaskingBeanSerializerModifier}, but resolves style and mask character
+ * from the annotation and {@link MaskingProperties} on every value, the way the
+ * writer worked before mask plans were introduced.
+ */
+public class PerCallResolvingModifier extends BeanSerializerModifier {
+
+    private final MaskingProperties properties;
+
+    public PerCallResolvingModifier(MaskingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public List<BeanPropertyWriter> changeProperties(SerializationConfig config,
+                                                      BeanDescription beanDesc,
+                                                      List<BeanPropertyWriter> beanProperties) {
+        for (int i = 0; i < beanProperties.size(); i++) {
+            BeanPropertyWriter writer = beanProperties.get(i);
+            if (writer.getAnnotation(Mask.class) != null
+                    || properties.isSensitiveField(writer.getName())) {
+                beanProperties.set(i, new Writer(writer, properties));
+            }
+        }
+        return beanProperties;
+    }
+
+    static final class Writer extends BeanPropertyWriter {
+
+        private final MaskingProperties properties;
+        private final Mask maskAnnotation;
+
+        Writer(BeanPropertyWriter base, MaskingProperties properties) {
+            super(base);
+            this.properties = properties;
+            this.maskAnnotation = base.getAnnotation(Mask.class);
+        }
+
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov)
+                throws Exception {
+            Object rawValue = get(bean);
+            if (rawValue == null) {
+                if (!_suppressNulls) {
+                    gen.writeFieldName(_name.getValue());
+                    gen.writeNull();
+                }
+                return;
+            }
+            gen.writeStringField(_name.getValue(), applyMask(rawValue.toString()));
+        }
+
+        private String applyMask(String value) {
+            MaskStyle style;
+            char maskChar;
+            if (maskAnnotation != null) {
+                style = maskAnnotation.style();
+                maskChar = (maskAnnotation.maskChar() == '\0')
+                        ? properties.getMaskCharacter()
+                        : maskAnnotation.maskChar();
+            } else {
+                style = properties.getMaskStyle();
+                maskChar = properties.getMaskCharacter();
+            }
+            return style.apply(value, maskChar);
+        }
+    }
+}
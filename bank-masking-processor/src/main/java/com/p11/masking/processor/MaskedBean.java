@@ -0,0 +1,197 @@
+package com.p11.masking.processor;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The serialization model of one class with {@code @Mask} fields, derived the
+ * way Jackson's default introspection would derive it: properties are the
+ * fields in declaration order that are public or have a public getter whose
+ * name maps to the field, read through the getter when there is one.
+ * <p>
+ * Anything whose Jackson output this model cannot reproduce with certainty is
+ * rejected with a reason and left to the runtime path: Jackson annotations,
+ * superclasses, type parameters, records, transient fields and getters
+ * without a backing field, whose position in Jackson's property order is
+ * not fixed by the source.
+ */
+final class MaskedBean {
+
+    static final String MASK = "com.p11.masking.annotation.Mask";
+
+    private static final String JACKSON_PACKAGE = "com.fasterxml.jackson.";
+
+    final TypeElement type;
+    final List<Property> properties;
+
+    private MaskedBean(TypeElement type, List<Property> properties) {
+        this.type = type;
+        this.properties = properties;
+    }
+
+    /** One serialized property; {@code style} is {@code null} when it carries no {@code @Mask}. */
+    record Property(String name, String accessor, TypeMirror type, String style, char maskChar) {}
+
+    /** Thrown when a class cannot be handled; the message says why. */
+    static final class Unsupported extends Exception {
+        Unsupported(String reason) {
+            super(reason, null, false, false);
+        }
+    }
+
+    static MaskedBean analyze(TypeElement type, Elements elements) throws Unsupported {
+        checkType(type);
+        Map<String, ExecutableElement> getters = new LinkedHashMap<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            checkNoJacksonAnnotations(method);
+            String name = getterProperty(method);
+            if (name != null && getters.put(name, method) != null) {
+                throw new Unsupported("property '" + name + "' has more than one getter");
+            }
+        }
+        List<Property> properties = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            checkNoJacksonAnnotations(field);
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            String name = field.getSimpleName().toString();
+            if (field.getModifiers().contains(Modifier.TRANSIENT)) {
+                throw new Unsupported("field '" + name + "' is transient");
+            }
+            AnnotationMirror mask = findMask(field);
+            ExecutableElement getter = getters.remove(name);
+            Property property;
+            if (getter != null) {
+                property = property(name, getter.getSimpleName() + "()", getter.getReturnType(), mask, elements);
+            } else if (field.getModifiers().contains(Modifier.PUBLIC)) {
+                property = property(name, name, field.asType(), mask, elements);
+            } else if (mask != null) {
+                throw new Unsupported("@Mask field '" + name + "' is neither public nor has a public getter");
+            } else {
+                continue;
+            }
+            properties.add(property);
+        }
+        if (!getters.isEmpty()) {
+            throw new Unsupported("getter-only properties " + getters.keySet());
+        }
+        return new MaskedBean(type, properties);
+    }
+
+    private static void checkType(TypeElement type) throws Unsupported {
+        if (type.getKind() != ElementKind.CLASS) {
+            throw new Unsupported("only classes are supported, not " + type.getKind());
+        }
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new Unsupported("the class is abstract");
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            throw new Unsupported("the class has type parameters");
+        }
+        if (!(type.getSuperclass() instanceof DeclaredType superclass)
+                || !((TypeElement) superclass.asElement()).getQualifiedName().contentEquals("java.lang.Object")) {
+            throw new Unsupported("the class extends " + type.getSuperclass());
+        }
+        for (Element e = type; e instanceof TypeElement t; e = e.getEnclosingElement()) {
+            if (t.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new Unsupported("the class or an enclosing class is private");
+            }
+            if (t.getNestingKind() == NestingKind.LOCAL || t.getNestingKind() == NestingKind.ANONYMOUS) {
+                throw new Unsupported("the class is local or anonymous");
+            }
+        }
+        checkNoJacksonAnnotations(type);
+    }
+
+    private static void checkNoJacksonAnnotations(Element element) throws Unsupported {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            String name = ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+            if (name.startsWith(JACKSON_PACKAGE)) {
+                throw new Unsupported(element.getSimpleName() + " carries @" + name);
+            }
+        }
+    }
+
+    /** The property a public no-argument getter exposes, following Jackson's default naming; otherwise null. */
+    private static String getterProperty(ExecutableElement method) {
+        if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)
+                || !method.getParameters().isEmpty() || !method.getTypeParameters().isEmpty()
+                || method.getReturnType().getKind() == TypeKind.VOID) {
+            return null;
+        }
+        String name = method.getSimpleName().toString();
+        if (name.startsWith("get") && name.length() > 3) {
+            return mangle(name.substring(3));
+        }
+        if (name.startsWith("is") && name.length() > 2 && isBoolean(method.getReturnType())) {
+            return mangle(name.substring(2));
+        }
+        return null;
+    }
+
+    private static boolean isBoolean(TypeMirror type) {
+        return type.getKind() == TypeKind.BOOLEAN || type.toString().equals("java.lang.Boolean");
+    }
+
+    /** Jackson's default (legacy) mangling: lower-case the leading run of upper-case characters. */
+    static String mangle(String basename) {
+        StringBuilder sb = null;
+        for (int i = 0; i < basename.length(); i++) {
+            char upper = basename.charAt(i);
+            char lower = Character.toLowerCase(upper);
+            if (upper == lower) {
+                break;
+            }
+            if (sb == null) {
+                sb = new StringBuilder(basename);
+            }
+            sb.setCharAt(i, lower);
+        }
+        return sb == null ? basename : sb.toString();
+    }
+
+    private static AnnotationMirror findMask(Element element) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(MASK)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private static Property property(String name, String accessor, TypeMirror type, AnnotationMirror mask,
+                                     Elements elements) {
+        if (mask == null) {
+            return new Property(name, accessor, type, null, '\0');
+        }
+        String style = null;
+        char maskChar = '\0';
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : elements.getElementValuesWithDefaults(mask).entrySet()) {
+            Object value = entry.getValue().getValue();
+            switch (entry.getKey().getSimpleName().toString()) {
+                case "style" -> style = ((VariableElement) value).getSimpleName().toString();
+                case "maskChar" -> maskChar = (Character) value;
+                default -> { }
+            }
+        }
+        return new Property(name, accessor, type, style, maskChar);
+    }
+}
@@ -0,0 +1,188 @@
+package com.p11.masking.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates a {@code GeneratedMaskingSerializer} subclass next to every class
+ * with {@code @Mask} fields and lists the generated classes in
+ * {@code META-INF/services}, from where the starter registers them on the
+ * masking {@code ObjectMapper}. The generated code reads each property with a
+ * direct field access or getter call, so serializing such a class involves no
+ * introspection and no reflection.
+ * <p>
+ * Classes the processor cannot model exactly as Jackson would (see
+ * {@link MaskedBean}) are reported as a note and keep using the runtime
+ * {@code MaskingBeanSerializerModifier}.
+ */
+@SupportedAnnotationTypes(MaskedBean.MASK)
+public class MaskingSerializerProcessor extends AbstractProcessor {
+
+    static final String SERVICE_FILE = "META-INF/services/com.p11.masking.jackson.GeneratedMaskingSerializer";
+
+    static final String SUFFIX = "_MaskingSerializer";
+
+    private final Set<String> generated = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServiceFile();
+            return false;
+        }
+        TypeElement mask = processingEnv.getElementUtils().getTypeElement(MaskedBean.MASK);
+        if (mask == null) {
+            return false;
+        }
+        Set<TypeElement> owners = new LinkedHashSet<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(mask)) {
+            if (element.getKind() == ElementKind.FIELD && element.getEnclosingElement() instanceof TypeElement owner) {
+                owners.add(owner);
+            }
+        }
+        for (TypeElement owner : owners) {
+            try {
+                MaskedBean bean = MaskedBean.analyze(owner, processingEnv.getElementUtils());
+                generated.add(writeSerializer(bean));
+            } catch (MaskedBean.Unsupported e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "No masking serializer generated for " + owner.getQualifiedName() + ": " + e.getMessage()
+                                + "; it is serialized through runtime introspection.", owner);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Could not write the masking serializer for " + owner.getQualifiedName() + ": " + e, owner);
+            }
+        }
+        return false;
+    }
+
+    private String writeSerializer(MaskedBean bean) throws IOException {
+        TypeElement type = bean.type;
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String simpleName = serializerName(type);
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        String target = type.getQualifiedName().toString();
+
+        StringBuilder names = new StringBuilder();
+        StringBuilder styles = new StringBuilder();
+        StringBuilder chars = new StringBuilder();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < bean.properties.size(); i++) {
+            MaskedBean.Property property = bean.properties.get(i);
+            String separator = i == 0 ? "" : ", ";
+            names.append(separator).append('"').append(property.name()).append('"');
+            styles.append(separator).append(property.style() == null ? "null" : "MaskStyle." + property.style());
+            chars.append(separator).append(String.format("'\\u%04x'", (int) property.maskChar()));
+            body.append("        write(").append(i).append(", ").append(cast(property.type()))
+                    .append("value.").append(property.accessor()).append(", plans, gen, provider);\n");
+        }
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+        try (Writer out = file.openWriter()) {
+            if (!packageName.isEmpty()) {
+                out.write("package " + packageName + ";\n\n");
+            }
+            out.write("""
+                    import com.fasterxml.jackson.core.JsonGenerator;
+                    import com.fasterxml.jackson.databind.SerializerProvider;
+                    import com.p11.masking.core.MaskPlan;
+                    import com.p11.masking.core.MaskStyle;
+                    import com.p11.masking.jackson.GeneratedMaskingSerializer;
+
+                    import java.io.IOException;
+
+                    """);
+            out.write("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")\n");
+            out.write("public final class " + simpleName + " extends GeneratedMaskingSerializer<" + target + "> {\n\n");
+            out.write("    public " + simpleName + "() {\n");
+            out.write("        super(" + target + ".class,\n");
+            out.write("                new String[] {" + names + "},\n");
+            out.write("                new MaskStyle[] {" + styles + "},\n");
+            out.write("                new char[] {" + chars + "});\n");
+            out.write("    }\n\n");
+            out.write("    @Override\n");
+            out.write("    protected void serializeProperties(" + target + " value, MaskPlan[] plans, JsonGenerator gen,\n");
+            out.write("                                       SerializerProvider provider) throws IOException {\n");
+            out.write(body.toString());
+            out.write("    }\n");
+            out.write("}\n");
+        }
+        return qualifiedName;
+    }
+
+    /** {@code Outer_Inner_MaskingSerializer} for a nested {@code Outer.Inner}. */
+    private static String serializerName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element e = type.getEnclosingElement(); !(e instanceof PackageElement); e = e.getEnclosingElement()) {
+            name.insert(0, e.getSimpleName() + "_");
+        }
+        return name.append(SUFFIX).toString();
+    }
+
+    /**
+     * Primitives without a dedicated {@code write} overload are boxed
+     * explicitly so the call resolves to the {@code Object} one.
+     */
+    private static String cast(TypeMirror type) {
+        return switch (type.getKind()) {
+            case CHAR, SHORT, BYTE -> "(Object) ";
+            default -> "";
+        };
+    }
+
+    /**
+     * Writes the service file, keeping entries from an earlier, possibly
+     * incremental, compilation into the same output directory.
+     */
+    private void writeServiceFile() {
+        if (generated.isEmpty()) {
+            return;
+        }
+        Filer filer = processingEnv.getFiler();
+        Set<String> entries = new TreeSet<>();
+        try {
+            FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (BufferedReader reader = new BufferedReader(existing.openReader(true))) {
+                reader.lines().map(String::trim).filter(line -> !line.isEmpty()).forEach(entries::add);
+            }
+        } catch (IOException e) {
+            // No earlier file.
+        }
+        entries.addAll(generated);
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Writer out = file.openWriter()) {
+                for (String entry : entries) {
+                    out.write(entry);
+                    out.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not write " + SERVICE_FILE + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.p11.masking.aot;
+
+import com.p11.masking.annotation.Mask;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.ReflectionHints;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Registers Jackson binding hints for every class in the application's
+ * auto-configuration packages that has a {@link Mask} field, declared or
+ * inherited. Such classes are often only ever handed to a logger, so nothing
+ * in the bean factory makes them reachable for native-image reflection, yet
+ * the masking {@code ObjectMapper} introspects their fields, annotations and
+ * accessors at runtime.
+ * <p>
+ * Classes masked only through {@code p11.masking.fields} cannot be found
+ * this way; register those with {@code @RegisterReflectionForBinding}.
+ */
+public class MaskedTypesAotProcessor implements BeanFactoryInitializationAotProcessor {
+
+    @Override
+    public BeanFactoryInitializationAotContribution processAheadOfTime(ConfigurableListableBeanFactory beanFactory) {
+        if (!AutoConfigurationPackages.has(beanFactory)) {
+            return null;
+        }
+        Set<Class<?>> types = findMaskedTypes(AutoConfigurationPackages.get(beanFactory),
+                beanFactory.getBeanClassLoader());
+        if (types.isEmpty()) {
+            return null;
+        }
+        return (generationContext, code) -> {
+            ReflectionHints reflection = generationContext.getRuntimeHints().reflection();
+            new BindingReflectionHintsRegistrar().registerReflectionHints(reflection, types.toArray(Type[]::new));
+            reflection.registerType(Mask.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        };
+    }
+
+    static Set<Class<?>> findMaskedTypes(Collection<String> packages, ClassLoader classLoader) {
+        ClassLoader loader = classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader();
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return beanDefinition.getMetadata().isIndependent();
+            }
+        };
+        scanner.setResourceLoader(new DefaultResourceLoader(loader));
+        scanner.addIncludeFilter((reader, factory) -> !reader.getClassMetadata().isInterface()
+                && !reader.getClassMetadata().isAnnotation());
+
+        Set<Class<?>> types = new LinkedHashSet<>();
+        for (String basePackage : packages) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                Class<?> type = load(candidate.getBeanClassName(), loader);
+                if (type != null && hasMaskField(type)) {
+                    types.add(type);
+                }
+            }
+        }
+        return types;
+    }
+
+    /** Loads without initializing, so scanning runs no static initializers. */
+    private static Class<?> load(String className, ClassLoader loader) {
+        try {
+            return ClassUtils.forName(className, loader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static boolean hasMaskField(Class<?> type) {
+        try {
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (field.isAnnotationPresent(Mask.class)) {
+                        return true;
+                    }
+                }
+            }
+        } catch (LinkageError e) {
+            // A field type is missing from the classpath; the class cannot be serialized anyway.
+        }
+        return false;
+    }
+}
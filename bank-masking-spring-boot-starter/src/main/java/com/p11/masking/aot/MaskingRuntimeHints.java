@@ -0,0 +1,77 @@
+package com.p11.masking.aot;
+
+import com.p11.masking.jackson.GeneratedMaskingSerializer;
+import com.p11.masking.logback.AsyncMaskingAppender;
+import com.p11.masking.logback.MaskingMessageConverter;
+import com.p11.masking.logback.MaskingPatternLayoutEncoder;
+import com.p11.masking.logback.MaskingTurboFilter;
+import com.p11.masking.logback.OverflowPolicy;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.util.ClassUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Native-image hints for the parts of the starter that are reached by name
+ * rather than through bean definitions: the Logback components a
+ * {@code logback-spring.xml} refers to, which Joran instantiates and
+ * configures reflectively, and the serializers generated by
+ * {@code bank-masking-processor}, which are found through
+ * {@link java.util.ServiceLoader}.
+ */
+public class MaskingRuntimeHints implements RuntimeHintsRegistrar {
+
+    static final String SERVICE_FILE = "META-INF/services/" + GeneratedMaskingSerializer.class.getName();
+
+    private static final List<Class<?>> LOGBACK_COMPONENTS = List.of(
+            MaskingMessageConverter.class, MaskingPatternLayoutEncoder.class,
+            AsyncMaskingAppender.class, MaskingTurboFilter.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> component : LOGBACK_COMPONENTS) {
+            hints.reflection().registerType(component,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        // Joran converts <overflowPolicy> text through the enum's valueOf.
+        hints.reflection().registerType(OverflowPolicy.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        hints.resources().registerPattern(SERVICE_FILE);
+        for (String serializer : generatedSerializers(classLoader)) {
+            hints.reflection().registerType(TypeReference.of(serializer), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+    }
+
+    /** The class names listed in every copy of the service file visible to {@code classLoader}. */
+    static Set<String> generatedSerializers(ClassLoader classLoader) {
+        ClassLoader loader = classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader();
+        Set<String> names = new TreeSet<>();
+        try {
+            Enumeration<URL> files = loader.getResources(SERVICE_FILE);
+            while (files.hasMoreElements()) {
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(files.nextElement().openStream(), StandardCharsets.UTF_8))) {
+                    reader.lines()
+                            .map(line -> line.replaceFirst("#.*", "").trim())
+                            .filter(line -> !line.isEmpty())
+                            .forEach(names::add);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + SERVICE_FILE, e);
+        }
+        return names;
+    }
+}
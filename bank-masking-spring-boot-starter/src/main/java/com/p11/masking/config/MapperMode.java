@@ -0,0 +1,24 @@
+package com.p11.masking.config;
+
+/**
+ * How {@link MaskingAutoConfiguration} builds the {@code maskingObjectMapper}.
+ */
+public enum MapperMode {
+
+    /**
+     * A mapper of its own with only {@code JavaTimeModule} registered, so log
+     * output does not depend on the application's Jackson settings.
+     */
+    STANDALONE,
+
+    /**
+     * A {@code copy()} of the application's {@code ObjectMapper} plus the
+     * masking module. It inherits the application's modules, features and
+     * naming strategy and shares its {@code TypeFactory} and configuration,
+     * instead of building a second set. Serializers generated by
+     * bank-masking-processor are not used, so the application's serializer
+     * modifiers, filters and views apply. Falls back to {@link #STANDALONE}
+     * when the application has no {@code ObjectMapper}.
+     */
+    DERIVED
+}
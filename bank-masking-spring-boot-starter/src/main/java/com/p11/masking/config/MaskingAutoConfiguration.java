@@ -1,22 +1,51 @@
 package com.p11.masking.config;
 
+import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
+import com.fasterxml.jackson.core.Version;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.PackageVersion;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.p11.masking.aot.MaskingRuntimeHints;
+import com.p11.masking.core.FieldEncryptor;
+import com.p11.masking.core.MaskingMetrics;
 import com.p11.masking.core.MaskingService;
+import com.p11.masking.core.Tokenizer;
+import com.p11.masking.jackson.GeneratedMaskingSerializer;
 import com.p11.masking.jackson.MaskingBeanSerializerModifier;
+import com.p11.masking.jackson.VirtualThreadRecyclerPool;
+import com.p11.masking.logback.AsyncMaskingAppender;
+import com.p11.masking.logback.MaskingMessageConverter;
 import com.p11.masking.logback.MaskingTurboFilter;
+import com.p11.masking.metrics.MicrometerMaskingMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
 import org.slf4j.ILoggerFactory;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.AbstractDependsOnBeanFactoryPostProcessor;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.util.ClassUtils;
 
-@AutoConfiguration
+import java.io.IOException;
+import java.nio.file.Path;
+
+@AutoConfiguration(afterName = {
+        "org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration",
+        "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration",
+        "org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration"
+})
 @ConditionalOnProperty(
         prefix = "p11.masking",
         name = "enabled",
@@ -24,27 +53,180 @@ import org.springframework.context.annotation.Bean;
         matchIfMissing = true
 )
 @EnableConfigurationProperties(MaskingProperties.class)
+@ImportRuntimeHints(MaskingRuntimeHints.class)
 public class MaskingAutoConfiguration {
 
+    /** Spring Cloud Context rebinds configuration properties on an EnvironmentChangeEvent. */
+    private static final boolean REBINDER_PRESENT = ClassUtils.isPresent(
+            "org.springframework.cloud.context.properties.ConfigurationPropertiesRebinder",
+            MaskingAutoConfiguration.class.getClassLoader());
+
+    /**
+     * Jackson 2.16+: jackson-core has recycler pools and jackson-databind hands
+     * its recyclers back to them. Older versions keep their thread-local buffer
+     * recycling; Spring Boot 3.2 still manages 2.15. {@link Version#compareTo}
+     * orders by group and artifact first, so the bound carries databind's own.
+     */
+    private static final boolean RECYCLER_POOLS_PRESENT = ClassUtils.isPresent(
+            "com.fasterxml.jackson.core.util.RecyclerPool", MaskingAutoConfiguration.class.getClassLoader())
+            && PackageVersion.VERSION.compareTo(new Version(2, 16, 0, null,
+                    PackageVersion.VERSION.getGroupId(), PackageVersion.VERSION.getArtifactId())) >= 0;
+
+    /**
+     * The standalone masking mapper; see {@link MapperMode}. Ordering after
+     * {@code JacksonAutoConfiguration} keeps this bean from suppressing Boot's
+     * primary {@code ObjectMapper}, which serves the API responses.
+     */
     @Bean(name = "maskingObjectMapper")
     @ConditionalOnMissingBean(name = "maskingObjectMapper")
-    public ObjectMapper maskingObjectMapper(MaskingProperties properties) {
+    public ObjectMapper maskingObjectMapper(MaskingProperties properties,
+                                            ObjectProvider<MaskingMetrics> metrics) {
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
+        return withMasking(mapper, properties, metrics, true);
+    }
 
+    /**
+     * Registers the masking module on {@code mapper}. Serializers generated by
+     * bank-masking-processor are only added when {@code generatedSerializers}
+     * is set: on a copy of the application's mapper they would bypass its
+     * {@code BeanSerializerModifier}s, {@code @JsonFilter}s and views.
+     */
+    static ObjectMapper withMasking(ObjectMapper mapper, MaskingProperties properties,
+                                    ObjectProvider<MaskingMetrics> metrics, boolean generatedSerializers) {
+        if (RECYCLER_POOLS_PRESENT) {
+            VirtualThreadRecyclerPool.install(mapper);
+        }
+
+        MaskingMetrics maskingMetrics = metrics.getIfAvailable(() -> MaskingMetrics.NOOP);
         SimpleModule maskingModule = new SimpleModule("MaskingModule");
-        maskingModule.setSerializerModifier(new MaskingBeanSerializerModifier(properties));
+        maskingModule.setSerializerModifier(
+                new MaskingBeanSerializerModifier(properties, maskingMetrics, isReloadable(properties)));
+        if (generatedSerializers) {
+            // Serializers generated by bank-masking-processor take precedence over the modifier,
+            // as far as the mapper's settings match what they assume.
+            GeneratedMaskingSerializer.registerAll(maskingModule, mapper, properties, maskingMetrics,
+                    ClassUtils.getDefaultClassLoader());
+        }
         mapper.registerModule(maskingModule);
 
         return mapper;
     }
 
+    private static boolean isReloadable(MaskingProperties properties) {
+        Boolean enabled = properties.getReload().getEnabled();
+        return enabled != null ? enabled : properties.getReload().getFile() != null || REBINDER_PRESENT;
+    }
+
+    /**
+     * Ends a failed rebind of {@link MaskingProperties}, which Spring Cloud
+     * starts with {@code destroy()} and only ends when binding succeeds.
+     */
+    @Bean
+    static MaskingPropertiesBindHandlerAdvisor maskingPropertiesBindHandlerAdvisor() {
+        return new MaskingPropertiesBindHandlerAdvisor();
+    }
+
+    /**
+     * Derives the {@code maskingObjectMapper} from the application's
+     * {@link ObjectMapper} when {@code p11.masking.mapper-mode=derived}. Member
+     * classes are registered before the enclosing class's beans, so the
+     * standalone mapper above backs off.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "p11.masking", name = "mapper-mode", havingValue = "derived")
+    @ConditionalOnBean(ObjectMapper.class)
+    static class DerivedMapperConfiguration {
+
+        @Bean(name = "maskingObjectMapper")
+        @ConditionalOnMissingBean(name = "maskingObjectMapper")
+        public ObjectMapper maskingObjectMapper(ObjectMapper applicationMapper,
+                                                MaskingProperties properties,
+                                                ObjectProvider<MaskingMetrics> metrics) {
+            return withMasking(applicationMapper.copy(), properties, metrics, false);
+        }
+    }
+
+    /**
+     * Gives every {@link Tokenizer} bean to this context's
+     * {@link MaskingProperties} and installs every {@link FieldEncryptor} bean,
+     * whether defined here or by the application, when it is created.
+     */
+    @Bean
+    static MaskingInstallPostProcessor maskingInstallPostProcessor() {
+        return new MaskingInstallPostProcessor();
+    }
+
+    /**
+     * The {@link Tokenizer} used by {@code MaskStyle.TOKENIZE}, created when
+     * {@code p11.masking.tokenization.key} is set. It is handed to the
+     * properties by {@link MaskingInstallPostProcessor}.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "p11.masking.tokenization", name = "key")
+    @ConditionalOnMissingBean
+    public Tokenizer maskingTokenizer(MaskingProperties properties) {
+        return Tokenizer.of(properties.getTokenization());
+    }
+
+    /**
+     * The {@link FieldEncryptor} used by {@code EncryptedStringConverter},
+     * created when {@code p11.masking.encryption.key} is set. It is installed
+     * by {@link MaskingInstallPostProcessor}.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "p11.masking.encryption", name = "key")
+    @ConditionalOnMissingBean
+    public FieldEncryptor maskingFieldEncryptor(MaskingProperties properties) {
+        return FieldEncryptor.of(properties.getEncryption());
+    }
+
+    /**
+     * Creates, and so installs, any {@link FieldEncryptor} bean before JPA
+     * starts, so no entity is ever converted without it.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "jakarta.persistence.EntityManagerFactory")
+    static class EntityManagerFactoryDependencyConfiguration {
+
+        @Bean
+        static EntityManagerFactoryDependsOnFieldEncryptor entityManagerFactoryDependsOnFieldEncryptor() {
+            return new EntityManagerFactoryDependsOnFieldEncryptor();
+        }
+    }
+
+    static class EntityManagerFactoryDependsOnFieldEncryptor extends AbstractDependsOnBeanFactoryPostProcessor {
+
+        EntityManagerFactoryDependsOnFieldEncryptor() {
+            super(EntityManagerFactory.class, FieldEncryptor.class);
+        }
+    }
+
+    /**
+     * Creates, and so hands over, any {@link Tokenizer} bean before the
+     * {@link MaskingService}, so nothing logged through it is masked without
+     * the tokenizer.
+     */
+    @Bean
+    static MaskingServiceDependsOnTokenizer maskingServiceDependsOnTokenizer() {
+        return new MaskingServiceDependsOnTokenizer();
+    }
+
+    static class MaskingServiceDependsOnTokenizer extends AbstractDependsOnBeanFactoryPostProcessor {
+
+        MaskingServiceDependsOnTokenizer() {
+            super(MaskingService.class, Tokenizer.class);
+        }
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public MaskingService maskingService(
             MaskingProperties properties,
-            @Qualifier("maskingObjectMapper") ObjectMapper maskingObjectMapper) {
-        return new MaskingService(properties, maskingObjectMapper);
+            @Qualifier("maskingObjectMapper") ObjectMapper maskingObjectMapper,
+            ObjectProvider<MaskingMetrics> metrics) {
+        return new MaskingService(properties, maskingObjectMapper,
+                metrics.getIfAvailable(() -> MaskingMetrics.NOOP));
     }
 
     @Bean
@@ -56,8 +238,78 @@ public class MaskingAutoConfiguration {
         ILoggerFactory factory = LoggerFactory.getILoggerFactory();
         if (factory instanceof LoggerContext loggerContext) {
             loggerContext.addTurboFilter(filter);
+            loggerContext.putObject(MaskingMessageConverter.SERVICE_KEY, maskingService);
         }
 
         return filter;
     }
+
+    /**
+     * Wraps the root logger's appenders in an {@link AsyncMaskingAppender} so
+     * masking and formatting run on a dedicated thread. Opt-in via
+     * {@code p11.masking.async.enabled=true}.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "p11.masking.async", name = "enabled", havingValue = "true")
+    static class AsyncMaskingConfiguration {
+
+        @Bean(destroyMethod = "unwrap")
+        public AsyncMaskingAppender asyncMaskingAppender(MaskingProperties properties,
+                                                         MaskingService maskingService,
+                                                         ObjectProvider<MaskingMetrics> metrics) {
+            MaskingProperties.Async async = properties.getAsync();
+            AsyncMaskingAppender appender = new AsyncMaskingAppender();
+            appender.setName("MaskingAsyncAppender");
+            appender.setMaskingService(maskingService);
+            appender.setBufferSize(async.getBufferSize());
+            appender.setOverflowPolicy(async.getOverflowPolicy());
+            appender.setIncludeCallerData(async.isIncludeCallerData());
+            appender.setMaxFlushTime(async.getMaxFlushTime());
+
+            if (LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext) {
+                appender.setContext(loggerContext);
+                appender.wrapAppendersOf(loggerContext.getLogger(Logger.ROOT_LOGGER_NAME));
+            }
+            appender.start();
+
+            metrics.getIfAvailable(() -> MaskingMetrics.NOOP).bindAsyncQueue(
+                    appender::getQueueDepth, appender.getCapacity(),
+                    appender::getDroppedCount, appender::getRedactedCount);
+            return appender;
+        }
+    }
+
+    /**
+     * Watches {@code p11.masking.reload.file} and republishes the masking
+     * settings when it changes.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "p11.masking.reload", name = "file")
+    static class ConfigReloadConfiguration {
+
+        @Bean(destroyMethod = "stop")
+        public MaskingConfigReloader maskingConfigReloader(ConfigurableEnvironment environment,
+                                                           MaskingProperties properties) throws IOException {
+            MaskingConfigReloader reloader = new MaskingConfigReloader(
+                    environment, properties, Path.of(properties.getReload().getFile()));
+            reloader.start();
+            return reloader;
+        }
+    }
+
+    /**
+     * Registers Micrometer meters for masking cost, only when Micrometer is on the
+     * classpath and the application has a {@link MeterRegistry}.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnBean(MeterRegistry.class)
+    static class MaskingMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public MaskingMetrics maskingMetrics(MeterRegistry meterRegistry) {
+            return new MicrometerMaskingMetrics(meterRegistry);
+        }
+    }
 }
@@ -0,0 +1,138 @@
+package com.p11.masking.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.PropertySourcesPlaceholdersResolver;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Reloads {@link MaskingProperties} from a properties or YAML file whenever it
+ * changes. {@code p11.masking} is bound into a fresh instance from a private
+ * list of property sources, the file first and then the environment's own, so
+ * the file overrides the application's settings without being added to the
+ * environment. The result is published with
+ * {@link MaskingProperties#apply(MaskingProperties)}, so serializers pick up
+ * the change without being rebuilt. A file that fails to load leaves the
+ * current configuration in place.
+ */
+public class MaskingConfigReloader {
+
+    private static final Logger log = LoggerFactory.getLogger(MaskingConfigReloader.class);
+
+    static final String PROPERTY_SOURCE_NAME = "p11MaskingReloadFile";
+
+    private final ConfigurableEnvironment environment;
+    private final MaskingProperties properties;
+    private final Path file;
+
+    private WatchService watcher;
+    private Thread worker;
+
+    public MaskingConfigReloader(ConfigurableEnvironment environment, MaskingProperties properties, Path file) {
+        this.environment = environment;
+        this.properties = properties;
+        this.file = file.toAbsolutePath().normalize();
+    }
+
+    /** Applies the file once, if it exists, and starts watching its directory. */
+    public synchronized void start() throws IOException {
+        if (watcher != null) {
+            return;
+        }
+        if (Files.isRegularFile(file)) {
+            reload();
+        }
+        watcher = file.getFileSystem().newWatchService();
+        file.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        worker = new Thread(this::watch, "masking-config-reloader");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public synchronized void stop() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            log.debug("Closing the watch service for {} failed", file, e);
+        }
+        watcher = null;
+        worker.interrupt();
+    }
+
+    /** Re-reads the file and publishes the resulting configuration. */
+    public synchronized void reload() throws IOException {
+        PropertySourceLoader loader = isYaml(file) ? new YamlPropertySourceLoader() : new PropertiesPropertySourceLoader();
+        CompositePropertySource source = new CompositePropertySource(PROPERTY_SOURCE_NAME);
+        for (PropertySource<?> document : loader.load(PROPERTY_SOURCE_NAME, new FileSystemResource(file))) {
+            source.addPropertySource(document);
+        }
+        MutablePropertySources sources = new MutablePropertySources();
+        sources.addFirst(source);
+        for (PropertySource<?> existing : environment.getPropertySources()) {
+            sources.addLast(existing);
+        }
+        Binder binder = new Binder(ConfigurationPropertySources.from(sources),
+                new PropertySourcesPlaceholdersResolver(sources), ApplicationConversionService.getSharedInstance());
+        MaskingProperties fresh = new MaskingProperties();
+        binder.bind("p11.masking", Bindable.ofInstance(fresh));
+        properties.apply(fresh);
+        log.info("Reloaded masking configuration from {}", file);
+    }
+
+    private void watch() {
+        WatchService service = watcher;
+        while (true) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            boolean changed = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.context() instanceof Path name && name.equals(file.getFileName())) {
+                    changed = true;
+                }
+            }
+            if (changed) {
+                try {
+                    reload();
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Could not reload masking configuration from {}: {}", file, e.getMessage());
+                }
+            }
+            if (!key.reset()) {
+                return;
+            }
+        }
+    }
+
+    private static boolean isYaml(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".yml") || name.endsWith(".yaml");
+    }
+}
@@ -0,0 +1,50 @@
+package com.p11.masking.config;
+
+import com.p11.masking.core.FieldEncryptor;
+import com.p11.masking.core.Tokenizer;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+
+/**
+ * Hands the collaborators of the masking paths over as soon as their beans
+ * are initialised. A {@link Tokenizer} is given to the context's own
+ * {@link MaskingProperties}, so two contexts in one JVM each tokenize with
+ * their own key. A {@link FieldEncryptor} is installed process-wide, because
+ * JPA instantiates its converter itself, and uninstalled when the bean is
+ * destroyed. Working from the bean lifecycle covers beans the application
+ * defines itself, and does not depend on which other bean happens to be
+ * created first.
+ */
+class MaskingInstallPostProcessor implements DestructionAwareBeanPostProcessor, BeanFactoryAware {
+
+    private BeanFactory beanFactory;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Tokenizer tokenizer) {
+            beanFactory.getBeanProvider(MaskingProperties.class).ifUnique(
+                    properties -> properties.useTokenizer(tokenizer));
+        } else if (bean instanceof FieldEncryptor encryptor) {
+            FieldEncryptor.install(encryptor);
+        }
+        return bean;
+    }
+
+    @Override
+    public void postProcessBeforeDestruction(Object bean, String beanName) {
+        if (bean instanceof FieldEncryptor encryptor) {
+            encryptor.uninstall();
+        }
+    }
+
+    @Override
+    public boolean requiresDestruction(Object bean) {
+        return bean instanceof FieldEncryptor;
+    }
+}
@@ -1,23 +1,145 @@
 package com.p11.masking.config;
 
+import com.p11.masking.core.FieldEncryptor;
 import com.p11.masking.core.MaskStyle;
+import com.p11.masking.core.PiiType;
+import com.p11.masking.core.Tokenizer;
+import com.p11.masking.logback.AsyncMaskingAppender;
+import com.p11.masking.logback.OverflowPolicy;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
-import java.util.HashSet;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
+/**
+ * Masking settings. The masking paths do not read these fields directly but
+ * the {@link MaskingSnapshot} returned by {@link #snapshot()}, which every
+ * setter replaces with a freshly compiled one.
+ * <p>
+ * When the properties are rebound as a whole, by Spring Cloud's rebinder on an
+ * {@code EnvironmentChangeEvent} or by {@link #apply(MaskingProperties)},
+ * the setters only stage their values and a single snapshot is published once
+ * binding completes. Readers therefore never observe a half-applied change.
+ * A rebind whose binding fails leaves the previous snapshot in effect.
+ * The {@code mapperMode}, {@code async}, {@code tokenization},
+ * {@code encryption}, {@code reload} and {@code webflux} settings are read
+ * once at startup and are not part of the snapshot. The {@link Tokenizer} is
+ * not a bound setting: it is handed over with {@link #useTokenizer(Tokenizer)}
+ * and kept across rebinds.
+ */
 @ConfigurationProperties(prefix = "p11.masking")
-public class MaskingProperties {
+public class MaskingProperties implements InitializingBean, DisposableBean {
 
     private boolean enabled = true;
 
-    private Set<String> fields = new HashSet<>();
+    private Set<String> fields = Collections.emptySet();
+
+    private SensitiveFieldIndex fieldIndex = SensitiveFieldIndex.EMPTY;
 
     private MaskStyle maskStyle = MaskStyle.PARTIAL;
 
     private char maskCharacter = '*';
 
+    private MapperMode mapperMode = MapperMode.STANDALONE;
+
+    private final Async async = new Async();
+
+    private final Scan scan = new Scan(this::changed);
+
+    private final Tokenization tokenization = new Tokenization();
+
+    private final Encryption encryption = new Encryption();
+
+    private final Reload reload = new Reload();
+
+    private final WebFlux webflux = new WebFlux();
+
+    private volatile Tokenizer tokenizer;
+
+    private volatile MaskingSnapshot snapshot;
+
+    private boolean staging;
+
+    public MaskingProperties() {
+        this.snapshot = MaskingSnapshot.of(this);
+    }
+
+    /** The settings currently in effect. */
+    public MaskingSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Copies the snapshot-backed settings of {@code source} into this instance
+     * and publishes them as one snapshot.
+     */
+    public synchronized void apply(MaskingProperties source) {
+        staging = true;
+        try {
+            this.enabled = source.enabled;
+            this.fields = source.fields;
+            this.fieldIndex = source.fieldIndex;
+            this.maskStyle = source.maskStyle;
+            this.maskCharacter = source.maskCharacter;
+            this.scan.setEnabled(source.scan.isEnabled());
+            this.scan.setTypes(source.scan.getTypes());
+        } finally {
+            afterPropertiesSet();
+        }
+    }
+
+    /** The tokenizer {@code MaskStyle.TOKENIZE} uses under these settings, or null. */
+    public Tokenizer tokenizer() {
+        return tokenizer;
+    }
+
+    /**
+     * Makes {@code tokenizer} the one {@code MaskStyle.TOKENIZE} uses under
+     * these settings and publishes a snapshot carrying it; null masks like
+     * {@code FULL}. Other instances, and so other application contexts, are
+     * not affected.
+     */
+    public synchronized void useTokenizer(Tokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+        changed();
+    }
+
+    /** Ends a rebind started by {@link #destroy()} and publishes the result. */
+    @Override
+    public synchronized void afterPropertiesSet() {
+        staging = false;
+        snapshot = MaskingSnapshot.of(this);
+    }
+
+    /**
+     * Called before the bean is rebound; from here until
+     * {@link #afterPropertiesSet()} setters no longer publish.
+     */
+    @Override
+    public synchronized void destroy() {
+        staging = true;
+    }
+
+    /**
+     * Ends a rebind whose binding failed. The snapshot published before the
+     * rebind stays in effect, and setters publish again.
+     */
+    synchronized void abortRebind() {
+        staging = false;
+    }
+
+    private synchronized void changed() {
+        if (!staging) {
+            snapshot = MaskingSnapshot.of(this);
+        }
+    }
+
     // Getters & Setters
 
     public boolean isEnabled() {
@@ -26,6 +148,7 @@ public class MaskingProperties {
 
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
+        changed();
     }
 
     public Set<String> getFields() {
@@ -34,16 +157,27 @@ public class MaskingProperties {
 
     public void setFields(List<String> fields) {
         if (fields != null) {
-            this.fields = new HashSet<>(fields);
+            this.fields = Collections.unmodifiableSet(new LinkedHashSet<>(fields));
+            this.fieldIndex = SensitiveFieldIndex.of(this.fields);
+            changed();
         }
     }
 
+    /**
+     * The configured field names compiled into a case-insensitive lookup
+     * structure. Rebuilt whenever {@link #setFields(List)} is called.
+     */
+    public SensitiveFieldIndex getFieldIndex() {
+        return fieldIndex;
+    }
+
     public MaskStyle getMaskStyle() {
         return maskStyle;
     }
 
     public void setMaskStyle(MaskStyle maskStyle) {
         this.maskStyle = maskStyle;
+        changed();
     }
 
     public char getMaskCharacter() {
@@ -52,6 +186,39 @@ public class MaskingProperties {
 
     public void setMaskCharacter(char maskCharacter) {
         this.maskCharacter = maskCharacter;
+        changed();
+    }
+
+    public MapperMode getMapperMode() {
+        return mapperMode;
+    }
+
+    public void setMapperMode(MapperMode mapperMode) {
+        this.mapperMode = mapperMode;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public Scan getScan() {
+        return scan;
+    }
+
+    public Tokenization getTokenization() {
+        return tokenization;
+    }
+
+    public Encryption getEncryption() {
+        return encryption;
+    }
+
+    public Reload getReload() {
+        return reload;
+    }
+
+    public WebFlux getWebflux() {
+        return webflux;
     }
 
     /**
@@ -59,9 +226,245 @@ public class MaskingProperties {
      * as sensitive (case-insensitive comparison).
      */
     public boolean isSensitiveField(String fieldName) {
-        if (fieldName == null) {
-            return false;
+        return fieldIndex.contains(fieldName);
+    }
+
+    /**
+     * Settings for {@link MaskingWebFluxAutoConfiguration}, which masks JSON
+     * written by reactive endpoints.
+     */
+    public static class WebFlux {
+
+        /** Whether WebFlux server responses are encoded with the masking mapper. */
+        private boolean maskResponses = false;
+
+        public boolean isMaskResponses() {
+            return maskResponses;
+        }
+
+        public void setMaskResponses(boolean maskResponses) {
+            this.maskResponses = maskResponses;
+        }
+    }
+
+    /**
+     * Settings for {@link MaskingConfigReloader}, which republishes the masking
+     * settings whenever a watched file changes.
+     */
+    public static class Reload {
+
+        /** Properties or YAML file with {@code p11.masking.*} entries; watching is off when unset. */
+        private String file;
+
+        /**
+         * Whether the masking settings may change after startup. Unset, this is
+         * true when {@code file} is set or Spring Cloud Context is present.
+         * When false, only properties that are annotated or named in
+         * {@code fields} at startup go through the masking writer.
+         */
+        private Boolean enabled;
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Settings for {@link MaskStyle#TOKENIZE}. Tokenization is active only when
+     * a key is set; supply it from a secret store or environment variable, never
+     * from a committed file.
+     */
+    public static class Tokenization {
+
+        private String key;
+
+        private int tokenLength = 16;
+
+        private boolean formatPreserving = false;
+
+        private String prefix = "tok_";
+
+        private int cacheSize = 10_000;
+
+        private Duration cacheTtl = Duration.ofMinutes(10);
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public boolean hasKey() {
+            return key != null && !key.isEmpty();
+        }
+
+        public int getTokenLength() {
+            return tokenLength;
+        }
+
+        public void setTokenLength(int tokenLength) {
+            this.tokenLength = tokenLength;
+        }
+
+        public boolean isFormatPreserving() {
+            return formatPreserving;
+        }
+
+        public void setFormatPreserving(boolean formatPreserving) {
+            this.formatPreserving = formatPreserving;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public void setPrefix(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+
+        public Duration getCacheTtl() {
+            return cacheTtl;
+        }
+
+        public void setCacheTtl(Duration cacheTtl) {
+            this.cacheTtl = cacheTtl;
+        }
+    }
+
+    /**
+     * Settings for {@link FieldEncryptor}, which encrypts columns mapped with
+     * {@code EncryptedStringConverter}. Like the tokenization key, the key
+     * belongs in a secret store or environment variable.
+     */
+    public static class Encryption {
+
+        /** Base64-encoded 128, 192 or 256-bit AES key; encryption is off when unset. */
+        private String key;
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Settings for the free-text scanner that masks personal data found in
+     * formatted log messages.
+     */
+    public static class Scan {
+
+        private final Runnable onChange;
+
+        private boolean enabled = true;
+
+        private Set<PiiType> types = EnumSet.allOf(PiiType.class);
+
+        public Scan() {
+            this(() -> { });
+        }
+
+        Scan(Runnable onChange) {
+            this.onChange = onChange;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            onChange.run();
+        }
+
+        public Set<PiiType> getTypes() {
+            return types;
+        }
+
+        public void setTypes(Set<PiiType> types) {
+            this.types = types == null || types.isEmpty() ? EnumSet.noneOf(PiiType.class) : EnumSet.copyOf(types);
+            onChange.run();
+        }
+    }
+
+    /**
+     * Settings for {@link AsyncMaskingAppender}, which masks and formats log
+     * events on a dedicated thread instead of the logging thread.
+     */
+    public static class Async {
+
+        private boolean enabled = false;
+
+        private int bufferSize = AsyncMaskingAppender.DEFAULT_BUFFER_SIZE;
+
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+        private boolean includeCallerData = false;
+
+        private int maxFlushTime = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public boolean isIncludeCallerData() {
+            return includeCallerData;
+        }
+
+        public void setIncludeCallerData(boolean includeCallerData) {
+            this.includeCallerData = includeCallerData;
+        }
+
+        public int getMaxFlushTime() {
+            return maxFlushTime;
+        }
+
+        public void setMaxFlushTime(int maxFlushTime) {
+            this.maxFlushTime = maxFlushTime;
         }
-        return fields.stream().anyMatch(f -> f.equalsIgnoreCase(fieldName));
     }
 }
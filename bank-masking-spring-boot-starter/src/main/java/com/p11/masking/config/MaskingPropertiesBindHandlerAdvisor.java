@@ -0,0 +1,33 @@
+package com.p11.masking.config;
+
+import org.springframework.boot.context.properties.ConfigurationPropertiesBindHandlerAdvisor;
+import org.springframework.boot.context.properties.bind.AbstractBindHandler;
+import org.springframework.boot.context.properties.bind.BindContext;
+import org.springframework.boot.context.properties.bind.BindHandler;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+
+/**
+ * Ends a rebind of {@link MaskingProperties} that fails part way. A rebind
+ * starts with {@link MaskingProperties#destroy()} and normally ends with
+ * {@link MaskingProperties#afterPropertiesSet()}, which is never called when
+ * binding throws; without this the setters would stay staged for good.
+ */
+class MaskingPropertiesBindHandlerAdvisor implements ConfigurationPropertiesBindHandlerAdvisor {
+
+    @Override
+    public BindHandler apply(BindHandler bindHandler) {
+        return new AbstractBindHandler(bindHandler) {
+
+            @Override
+            public Object onFailure(ConfigurationPropertyName name, Bindable<?> target, BindContext context,
+                                    Exception error) throws Exception {
+                if (context.getDepth() == 0 && target.getValue() != null
+                        && target.getValue().get() instanceof MaskingProperties properties) {
+                    properties.abortRebind();
+                }
+                return super.onFailure(name, target, context, error);
+            }
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package com.p11.masking.config;
+
+import com.p11.masking.annotation.Mask;
+import com.p11.masking.core.MaskPlan;
+import com.p11.masking.core.MaskStyle;
+import com.p11.masking.core.PiiScanner;
+import com.p11.masking.core.PiiType;
+import com.p11.masking.core.Tokenizer;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Immutable, compiled view of {@link MaskingProperties} at one point in time.
+ * The masking paths read the current snapshot once per operation through
+ * {@link MaskingProperties#snapshot()} and use it throughout, so a reload
+ * is seen either entirely or not at all and the read path takes no lock.
+ * Anything derived from the settings, such as the default {@link MaskPlan} or
+ * the {@link PiiScanner}, is built here once per snapshot. The snapshot also
+ * carries the {@link Tokenizer} given to the properties, so every plan it
+ * resolves tokenizes with the key of its own application context.
+ */
+public final class MaskingSnapshot {
+
+    private final boolean enabled;
+    private final SensitiveFieldIndex fieldIndex;
+    private final MaskStyle maskStyle;
+    private final char maskCharacter;
+    private final boolean scanEnabled;
+    private final Tokenizer tokenizer;
+    private final MaskPlan defaultPlan;
+    private final PiiScanner scanner;
+
+    private MaskingSnapshot(boolean enabled, SensitiveFieldIndex fieldIndex, MaskStyle maskStyle,
+                            char maskCharacter, boolean scanEnabled, Set<PiiType> scanTypes,
+                            Tokenizer tokenizer) {
+        this.enabled = enabled;
+        this.fieldIndex = fieldIndex;
+        this.maskStyle = maskStyle;
+        this.maskCharacter = maskCharacter;
+        this.scanEnabled = scanEnabled;
+        this.tokenizer = tokenizer;
+        this.defaultPlan = MaskPlan.of(maskStyle, maskCharacter, tokenizer);
+        this.scanner = new PiiScanner(defaultPlan, scanTypes.isEmpty()
+                ? EnumSet.noneOf(PiiType.class) : EnumSet.copyOf(scanTypes));
+    }
+
+    static MaskingSnapshot of(MaskingProperties properties) {
+        return new MaskingSnapshot(properties.isEnabled(), properties.getFieldIndex(),
+                properties.getMaskStyle(), properties.getMaskCharacter(),
+                properties.getScan().isEnabled(), properties.getScan().getTypes(), properties.tokenizer());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public SensitiveFieldIndex getFieldIndex() {
+        return fieldIndex;
+    }
+
+    public boolean isSensitiveField(String fieldName) {
+        return fieldIndex.contains(fieldName);
+    }
+
+    public MaskStyle getMaskStyle() {
+        return maskStyle;
+    }
+
+    public char getMaskCharacter() {
+        return maskCharacter;
+    }
+
+    /** Whether free-text scanning is on; implies nothing about {@link #isEnabled()}. */
+    public boolean isScanEnabled() {
+        return scanEnabled;
+    }
+
+    /** The globally configured style and character. */
+    public MaskPlan getDefaultPlan() {
+        return defaultPlan;
+    }
+
+    /**
+     * The plan for a property carrying {@code annotation}, or the default plan
+     * when it is {@code null}.
+     */
+    public MaskPlan plan(Mask annotation) {
+        if (annotation == null) {
+            return defaultPlan;
+        }
+        return plan(annotation.style(), annotation.maskChar());
+    }
+
+    /**
+     * The plan for {@code style} and {@code maskChar}, with {@code '\0'}
+     * standing for the configured mask character.
+     */
+    public MaskPlan plan(MaskStyle style, char maskChar) {
+        return MaskPlan.of(style, maskChar == '\0' ? maskCharacter : maskChar, tokenizer);
+    }
+
+    /** The tokenizer for {@link MaskStyle#TOKENIZE}, or null. */
+    public Tokenizer getTokenizer() {
+        return tokenizer;
+    }
+
+    public PiiScanner getScanner() {
+        return scanner;
+    }
+}
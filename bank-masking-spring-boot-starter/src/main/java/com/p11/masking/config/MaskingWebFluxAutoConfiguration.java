@@ -0,0 +1,58 @@
+package com.p11.masking.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p11.masking.webflux.MaskingJackson2JsonEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+
+/**
+ * Reactive counterpart of the masking mapper: a {@link MaskingJackson2JsonEncoder}
+ * for WebFlux applications, which handlers can use to write masked streams.
+ * With {@code p11.masking.webflux.mask-responses=true} it also replaces the
+ * server's default JSON encoder, so every JSON response body is masked; client
+ * codecs ({@code WebClient}) keep the plain one.
+ */
+@AutoConfiguration(after = MaskingAutoConfiguration.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnClass({Jackson2JsonEncoder.class, CodecCustomizer.class})
+@ConditionalOnBean(name = "maskingObjectMapper")
+public class MaskingWebFluxAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public MaskingJackson2JsonEncoder maskingJackson2JsonEncoder(
+            @Qualifier("maskingObjectMapper") ObjectMapper maskingObjectMapper) {
+        return new MaskingJackson2JsonEncoder(maskingObjectMapper);
+    }
+
+    /**
+     * Installs the masking encoder as the server's JSON encoder. Ordered after
+     * Boot's own Jackson customizer, which would otherwise put back an encoder
+     * over the application's mapper.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "p11.masking.webflux", name = "mask-responses", havingValue = "true")
+    static class MaskedResponsesConfiguration {
+
+        @Bean
+        @Order(10)
+        public CodecCustomizer maskingCodecCustomizer(MaskingJackson2JsonEncoder encoder) {
+            return configurer -> {
+                if (configurer instanceof ServerCodecConfigurer) {
+                    configurer.defaultCodecs().jackson2JsonEncoder(encoder);
+                }
+            };
+        }
+    }
+}
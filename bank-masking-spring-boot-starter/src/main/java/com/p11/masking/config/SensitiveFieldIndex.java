@@ -0,0 +1,81 @@
+package com.p11.masking.config;
+
+import java.util.Collection;
+
+/**
+ * Immutable, case-insensitive lookup of sensitive field names.
+ * <p>
+ * Names are stored in an open-addressing table keyed by a case-folded hash, so
+ * {@link #contains(String)} is O(1) on average and allocation-free regardless of
+ * how many field names are configured. Matching follows
+ * {@link String#equalsIgnoreCase(String)} semantics.
+ */
+public final class SensitiveFieldIndex {
+
+    public static final SensitiveFieldIndex EMPTY = new SensitiveFieldIndex(new String[1], 0);
+
+    private final String[] table;
+    private final int mask;
+    private final int size;
+
+    private SensitiveFieldIndex(String[] table, int size) {
+        this.table = table;
+        this.mask = table.length - 1;
+        this.size = size;
+    }
+
+    public static SensitiveFieldIndex of(Collection<String> names) {
+        if (names == null || names.isEmpty()) {
+            return EMPTY;
+        }
+        // Keep the load factor at or below 0.5 so probe sequences stay short.
+        int capacity = Integer.highestOneBit(Math.max(2, names.size()) * 2 - 1) << 1;
+        String[] table = new String[capacity];
+        int size = 0;
+        for (String name : names) {
+            if (name == null || name.isEmpty()) {
+                continue;
+            }
+            int slot = foldedHash(name) & (capacity - 1);
+            while (table[slot] != null && !table[slot].equalsIgnoreCase(name)) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            if (table[slot] == null) {
+                table[slot] = name;
+                size++;
+            }
+        }
+        return size == 0 ? EMPTY : new SensitiveFieldIndex(table, size);
+    }
+
+    public boolean contains(String name) {
+        if (name == null || size == 0) {
+            return false;
+        }
+        int slot = foldedHash(name) & mask;
+        String candidate;
+        while ((candidate = table[slot]) != null) {
+            if (candidate.length() == name.length() && candidate.equalsIgnoreCase(name)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static int foldedHash(String name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,197 @@
+package com.p11.masking.core;
+
+import com.p11.masking.config.MaskingProperties;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * AES-GCM encryption of individual column values, used by
+ * {@code EncryptedStringConverter} to keep sensitive fields encrypted at rest.
+ * A value is stored as Base64 of {@code nonce || ciphertext || tag} with a
+ * 96-bit nonce and a 128-bit tag, so tampering is detected on decryption.
+ * <p>
+ * Every encryption draws a fresh random nonce; GCM loses confidentiality and
+ * integrity if a nonce is ever repeated under the same key. With random
+ * nonces a key should protect at most 2<sup>32</sup> values. The initialised
+ * {@link Cipher}, a DRBG and the nonce and plaintext buffers are kept together
+ * in workers reused through an {@link ObjectPool}, so a value costs one
+ * {@code Cipher.init} but no provider lookup, and concurrent threads never
+ * share a random generator.
+ * <p>
+ * JPA instantiates attribute converters itself, so the active encryptor is
+ * installed process-wide with {@link #install(FieldEncryptor)}; the
+ * auto-configuration does this for every {@code FieldEncryptor} bean, its own
+ * when {@code p11.masking.encryption.key} is set or one the application defines.
+ */
+public final class FieldEncryptor {
+
+    private static final String ALGORITHM = "AES/GCM/NoPadding";
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_LENGTH = 16;
+
+    /** Workers whose plaintext buffer grew beyond this are dropped after use. */
+    private static final int MAX_RETAINED_BUFFER = 16 * 1024;
+
+    private static volatile FieldEncryptor installed;
+
+    private final SecretKeySpec key;
+    private final ObjectPool<Worker> workers;
+
+    /** @param key a 128, 192 or 256-bit AES key */
+    public FieldEncryptor(byte[] key) {
+        if (key == null || (key.length != 16 && key.length != 24 && key.length != 32)) {
+            throw new IllegalArgumentException("Encryption key must be 16, 24 or 32 bytes, was "
+                    + (key == null ? 0 : key.length));
+        }
+        this.key = new SecretKeySpec(key, "AES");
+        this.workers = new ObjectPool<>(Worker::new, worker -> worker.plain.length <= MAX_RETAINED_BUFFER);
+        workers.release(workers.acquire());
+    }
+
+    /** Reads the Base64-encoded key of {@code settings}. */
+    public static FieldEncryptor of(MaskingProperties.Encryption settings) {
+        byte[] key;
+        try {
+            key = Base64.getDecoder().decode(settings.getKey());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("p11.masking.encryption.key must be Base64", e);
+        }
+        return new FieldEncryptor(key);
+    }
+
+    /** Makes {@code encryptor} the one used by {@code EncryptedStringConverter}; null uninstalls. */
+    public static void install(FieldEncryptor encryptor) {
+        synchronized (FieldEncryptor.class) {
+            installed = encryptor;
+        }
+    }
+
+    /** Uninstalls this encryptor if it is the installed one. */
+    public void uninstall() {
+        synchronized (FieldEncryptor.class) {
+            if (installed == this) {
+                installed = null;
+            }
+        }
+    }
+
+    /** The installed encryptor, or null. */
+    public static FieldEncryptor installed() {
+        return installed;
+    }
+
+    /** Encrypts {@code value}; null stays null. */
+    public String encrypt(String value) {
+        if (value == null) {
+            return null;
+        }
+        Worker worker = workers.acquire();
+        try {
+            return worker.encrypt(key, value);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot encrypt with " + ALGORITHM, e);
+        } finally {
+            workers.release(worker);
+        }
+    }
+
+    /**
+     * Decrypts a value produced by {@link #encrypt}; null stays null. Throws
+     * {@link IllegalArgumentException} when {@code value} was not encrypted
+     * with this key or has been altered.
+     */
+    public String decrypt(String value) {
+        if (value == null) {
+            return null;
+        }
+        Worker worker = workers.acquire();
+        try {
+            return worker.decrypt(key, value);
+        } finally {
+            workers.release(worker);
+        }
+    }
+
+    /**
+     * Decrypts {@code values} in place; nulls stay null. For callers that read
+     * encrypted columns without the converter, e.g. through a native query or
+     * a scalar projection.
+     */
+    public void decryptAll(List<String> values) {
+        Worker worker = workers.acquire();
+        try {
+            for (int i = 0; i < values.size(); i++) {
+                String value = values.get(i);
+                if (value != null) {
+                    values.set(i, worker.decrypt(key, value));
+                }
+            }
+        } finally {
+            workers.release(worker);
+        }
+    }
+
+    /** A cipher with its random generator and buffers, used by one thread at a time. */
+    private static final class Worker {
+
+        private final Cipher cipher;
+        private final SecureRandom random;
+        private final byte[] nonce = new byte[NONCE_LENGTH];
+        private byte[] plain = new byte[256];
+
+        Worker() {
+            try {
+                cipher = Cipher.getInstance(ALGORITHM);
+                random = SecureRandom.getInstance("DRBG");
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+            }
+        }
+
+        String encrypt(SecretKeySpec key, String value) throws GeneralSecurityException {
+            byte[] input = value.getBytes(StandardCharsets.UTF_8);
+            random.nextBytes(nonce);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, nonce));
+            byte[] out = new byte[NONCE_LENGTH + input.length + TAG_LENGTH];
+            System.arraycopy(nonce, 0, out, 0, NONCE_LENGTH);
+            cipher.doFinal(input, 0, input.length, out, NONCE_LENGTH);
+            return Base64.getEncoder().encodeToString(out);
+        }
+
+        String decrypt(SecretKeySpec key, String value) {
+            byte[] in;
+            try {
+                in = Base64.getDecoder().decode(value);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Value is not encrypted", e);
+            }
+            if (in.length < NONCE_LENGTH + TAG_LENGTH) {
+                throw new IllegalArgumentException("Value is not encrypted");
+            }
+            int length = in.length - NONCE_LENGTH - TAG_LENGTH;
+            if (plain.length < length) {
+                plain = new byte[Math.max(length, plain.length * 2)];
+            }
+            try {
+                cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, in, 0, NONCE_LENGTH));
+                int written = cipher.doFinal(in, NONCE_LENGTH, in.length - NONCE_LENGTH, plain, 0);
+                String result = new String(plain, 0, written, StandardCharsets.UTF_8);
+                Arrays.fill(plain, 0, written, (byte) 0);
+                return result;
+            } catch (AEADBadTagException e) {
+                throw new IllegalArgumentException("Value was not encrypted with this key or has been altered", e);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot decrypt with " + ALGORITHM, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.p11.masking.core;
+
+import com.p11.masking.annotation.Mask;
+import com.p11.masking.config.MaskingProperties;
+
+/**
+ * Immutable, pre-resolved masking decision for one property: the style to apply,
+ * the effective mask character and, for {@link MaskStyle#TOKENIZE}, the
+ * {@link Tokenizer} of the configuration it was resolved from. Built once when
+ * a serializer is created so the per-value path does not have to consult
+ * {@link Mask} or {@link MaskingProperties} again.
+ */
+public final class MaskPlan {
+
+    private final MaskStyle style;
+    private final char maskChar;
+    private final Tokenizer tokenizer;
+
+    private MaskPlan(MaskStyle style, char maskChar, Tokenizer tokenizer) {
+        this.style = style;
+        this.maskChar = maskChar;
+        this.tokenizer = style == MaskStyle.TOKENIZE ? tokenizer : null;
+    }
+
+    public static MaskPlan of(MaskStyle style, char maskChar) {
+        return new MaskPlan(style, maskChar, null);
+    }
+
+    /** A plan whose {@link MaskStyle#TOKENIZE} uses {@code tokenizer}; other styles ignore it. */
+    public static MaskPlan of(MaskStyle style, char maskChar, Tokenizer tokenizer) {
+        return new MaskPlan(style, maskChar, tokenizer);
+    }
+
+    /**
+     * Resolves the plan for a property: the annotation wins when present, with
+     * {@code '\0'} falling back to the configured mask character; otherwise the
+     * globally configured style and character are used.
+     */
+    public static MaskPlan resolve(Mask annotation, MaskingProperties properties) {
+        return properties.snapshot().plan(annotation);
+    }
+
+    public MaskStyle getStyle() {
+        return style;
+    }
+
+    public char getMaskChar() {
+        return maskChar;
+    }
+
+    /** The tokenizer used for {@link MaskStyle#TOKENIZE}, or null when values are masked like FULL. */
+    public Tokenizer getTokenizer() {
+        return tokenizer;
+    }
+
+    public String apply(String value) {
+        if (tokenizer == null || value == null || value.isEmpty()) {
+            return style.apply(value, maskChar);
+        }
+        return tokenizer.tokenize(value);
+    }
+
+    public int maskedLength(int length) {
+        return style.maskedLength(length);
+    }
+
+    public int maskInto(CharSequence value, int offset, int length, char[] dest, int destOffset) {
+        if (tokenizer == null) {
+            return style.maskInto(value, offset, length, maskChar, dest, destOffset);
+        }
+        String token = tokenizer.tokenize(value, offset, length);
+        token.getChars(0, token.length(), dest, destOffset);
+        return token.length();
+    }
+
+    public void appendTo(CharSequence value, int offset, int length, StringBuilder out) {
+        if (tokenizer == null) {
+            style.appendTo(value, offset, length, maskChar, out);
+            return;
+        }
+        out.append(tokenizer.tokenize(value, offset, length));
+    }
+
+    public int maskInPlace(char[] buf, int offset, int length) {
+        if (tokenizer == null) {
+            return style.maskInPlace(buf, offset, length, maskChar);
+        }
+        String token = tokenizer.tokenize(new String(buf, offset, length));
+        token.getChars(0, token.length(), buf, offset);
+        return token.length();
+    }
+
+    @Override
+    public String toString() {
+        return "MaskPlan{style=" + style + ", maskChar='" + maskChar + "'}";
+    }
+}
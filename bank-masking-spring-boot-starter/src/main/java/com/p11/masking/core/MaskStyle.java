@@ -1,45 +1,213 @@
 package com.p11.masking.core;
 
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Masking strategies. Each redacting style is described by how many characters
+ * it leaves visible at the start and at the end of a value; everything in
+ * between is replaced with the mask character. {@link #TOKENIZE} instead
+ * substitutes a keyed token when applied through a {@link MaskPlan} that
+ * carries a {@link Tokenizer}.
+ * <p>
+ * Besides the convenience {@link #apply(String, char)} form, every style can
+ * write straight into a caller-supplied {@code char[]}, {@link StringBuilder}
+ * or {@link Appendable}, so hot paths can mask without creating intermediate
+ * Strings.
+ */
 public enum MaskStyle {
 
     FULL {
         @Override
-        public String apply(String value, char maskChar) {
-            if (value == null || value.isEmpty()) {
-                return value;
-            }
-            return String.valueOf(maskChar).repeat(value.length());
+        int visiblePrefix(int length) {
+            return 0;
+        }
+
+        @Override
+        int visibleSuffix(int length) {
+            return 0;
         }
     },
 
     PARTIAL {
         @Override
-        public String apply(String value, char maskChar) {
-            if (value == null || value.isEmpty()) {
-                return value;
-            }
-            if (value.length() <= 2) {
-                return String.valueOf(maskChar).repeat(value.length());
-            }
-            int visibleChars = Math.max(1, value.length() / 4);
-            String visible = value.substring(0, visibleChars);
-            String masked = String.valueOf(maskChar).repeat(value.length() - visibleChars);
-            return visible + masked;
+        int visiblePrefix(int length) {
+            return length <= 2 ? 0 : Math.max(1, length / 4);
+        }
+
+        @Override
+        int visibleSuffix(int length) {
+            return 0;
         }
     },
 
     SHOW_LAST {
         @Override
-        public String apply(String value, char maskChar) {
-            if (value == null || value.isEmpty()) {
-                return value;
-            }
-            int showCount = Math.min(4, value.length());
-            String masked = String.valueOf(maskChar).repeat(value.length() - showCount);
-            String visible = value.substring(value.length() - showCount);
-            return masked + visible;
+        int visiblePrefix(int length) {
+            return 0;
+        }
+
+        @Override
+        int visibleSuffix(int length) {
+            return Math.min(4, length);
+        }
+    },
+
+    /**
+     * Replaces the value with a keyed, deterministic token, so equal values can
+     * be correlated across log lines. The {@link Tokenizer} is carried by the
+     * {@link MaskPlan} the style is applied through; the mask character is not
+     * used. Applied on its own, or through a plan without a tokenizer, it masks
+     * like {@link #FULL}.
+     */
+    TOKENIZE {
+        @Override
+        int visiblePrefix(int length) {
+            return 0;
+        }
+
+        @Override
+        int visibleSuffix(int length) {
+            return 0;
+        }
+
+        @Override
+        public int maskedLength(int length) {
+            return Math.max(length, Tokenizer.MAX_TOKEN_LENGTH);
         }
     };
 
-    public abstract String apply(String value, char maskChar);
+    /**
+     * From this length on, {@link #apply(String, char)} builds the result in a
+     * {@link StringBuilder}, which stays byte-per-char for Latin-1 text, instead
+     * of a {@code char[]} that {@code new String} then compresses again. Below
+     * it the extra builder object costs more than the copy it saves.
+     */
+    static final int LARGE_VALUE = 256;
+
+    /**
+     * Number of leading characters left in clear text for a value of the given length.
+     */
+    abstract int visiblePrefix(int length);
+
+    /**
+     * Number of trailing characters left in clear text for a value of the given length.
+     */
+    abstract int visibleSuffix(int length);
+
+    /**
+     * Upper bound on the length of the masked output for an input of the given
+     * length; exact for the redacting styles.
+     */
+    public int maskedLength(int length) {
+        return length;
+    }
+
+    /**
+     * Masks {@code value}. Returns the value itself when it is null, empty or left
+     * fully visible by this style; otherwise the result is built from a single
+     * scratch array, or for values of {@link #LARGE_VALUE} characters and more
+     * from a builder sized to the result ({@code String.repeat} when nothing
+     * stays visible).
+     */
+    public String apply(String value, char maskChar) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        int length = value.length();
+        if (visiblePrefix(length) + visibleSuffix(length) >= length) {
+            return value;
+        }
+        if (length >= LARGE_VALUE) {
+            if (visiblePrefix(length) == 0 && visibleSuffix(length) == 0) {
+                return String.valueOf(maskChar).repeat(length);
+            }
+            StringBuilder out = new StringBuilder(length);
+            appendTo(value, 0, length, maskChar, out);
+            return out.toString();
+        }
+        char[] out = new char[maskedLength(length)];
+        int written = maskInto(value, 0, length, maskChar, out, 0);
+        return new String(out, 0, written);
+    }
+
+    /**
+     * Masks {@code length} characters of {@code value} starting at {@code offset}
+     * into {@code dest} at {@code destOffset}. {@code dest} must have room for
+     * {@link #maskedLength(int)} characters.
+     *
+     * @return the number of characters written
+     */
+    public int maskInto(CharSequence value, int offset, int length,
+                        char maskChar, char[] dest, int destOffset) {
+        int prefix = visiblePrefix(length);
+        int suffix = visibleSuffix(length);
+        int end = offset + length;
+        copyChars(value, offset, offset + prefix, dest, destOffset);
+        Arrays.fill(dest, destOffset + prefix, destOffset + length - suffix, maskChar);
+        copyChars(value, end - suffix, end, dest, destOffset + length - suffix);
+        return length;
+    }
+
+    /**
+     * Masks {@code length} characters of {@code buf} starting at {@code offset} in place.
+     * {@code buf} must have room for the larger of {@code length} and
+     * {@link #maskedLength(int)} characters from {@code offset}.
+     *
+     * @return the length of the masked region
+     */
+    public int maskInPlace(char[] buf, int offset, int length, char maskChar) {
+        int prefix = visiblePrefix(length);
+        int suffix = visibleSuffix(length);
+        Arrays.fill(buf, offset + prefix, offset + length - suffix, maskChar);
+        return length;
+    }
+
+    /**
+     * Appends the masked form of {@code length} characters of {@code value},
+     * starting at {@code offset}, to {@code out}.
+     */
+    public void appendTo(CharSequence value, int offset, int length, char maskChar, StringBuilder out) {
+        int prefix = visiblePrefix(length);
+        int suffix = visibleSuffix(length);
+        int end = offset + length;
+        out.append(value, offset, offset + prefix);
+        out.repeat(maskChar, length - prefix - suffix);
+        out.append(value, end - suffix, end);
+    }
+
+    /**
+     * Appends the masked form of {@code length} characters of {@code value},
+     * starting at {@code offset}, to {@code out}.
+     */
+    public void appendTo(CharSequence value, int offset, int length, char maskChar, Appendable out)
+            throws IOException {
+        if (out instanceof StringBuilder sb) {
+            appendTo(value, offset, length, maskChar, sb);
+            return;
+        }
+        int prefix = visiblePrefix(length);
+        int suffix = visibleSuffix(length);
+        int end = offset + length;
+        out.append(value, offset, offset + prefix);
+        for (int i = length - prefix - suffix; i > 0; i--) {
+            out.append(maskChar);
+        }
+        out.append(value, end - suffix, end);
+    }
+
+    static void copyChars(CharSequence src, int from, int to, char[] dest, int destOffset) {
+        if (from >= to) {
+            return;
+        }
+        if (src instanceof String s) {
+            s.getChars(from, to, dest, destOffset);
+        } else if (src instanceof StringBuilder sb) {
+            sb.getChars(from, to, dest, destOffset);
+        } else {
+            for (int i = from; i < to; i++) {
+                dest[destOffset++] = src.charAt(i);
+            }
+        }
+    }
 }
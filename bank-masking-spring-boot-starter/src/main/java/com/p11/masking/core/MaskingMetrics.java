@@ -0,0 +1,45 @@
+package com.p11.masking.core;
+
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Recording hooks for masking cost and throughput. The default {@link #NOOP}
+ * instance records nothing and reports {@link #isRecording()} as false so
+ * callers can skip taking timestamps altogether.
+ */
+public interface MaskingMetrics {
+
+    MaskingMetrics NOOP = new MaskingMetrics() {};
+
+    /**
+     * Whether this instance records anything. Callers use it to avoid
+     * {@link System#nanoTime()} calls when metrics are disabled.
+     */
+    default boolean isRecording() {
+        return false;
+    }
+
+    /** Time spent in one {@code MaskingService.toMaskedJson} call. */
+    default void recordSerialization(long nanos) {}
+
+    /** A masked serialization that failed and fell back to {@code toString()}. */
+    default void recordSerializationFailure() {}
+
+    /** Time spent in {@code MaskingTurboFilter.decide} for a call that had parameters to process. */
+    default void recordDecide(long nanos) {}
+
+    /** One property value written masked with the given style. */
+    default void recordMaskedField(MaskStyle style) {}
+
+    /**
+     * Exposes the state of the asynchronous masking queue. Called once when the
+     * queue is created; the suppliers are read whenever the metrics are sampled.
+     *
+     * @param depth    events waiting for the consumer thread
+     * @param capacity size of the ring buffer
+     * @param dropped  running total of events discarded on overflow
+     * @param redacted running total of events written with redacted parameters on overflow
+     */
+    default void bindAsyncQueue(IntSupplier depth, int capacity, LongSupplier dropped, LongSupplier redacted) {}
+}
@@ -1,52 +1,173 @@
 package com.p11.masking.core;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.config.MaskingSnapshot;
+import com.p11.masking.jackson.MaskingJsonStreamer;
+import com.p11.masking.jackson.SensitiveTypeClassifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+
 public class MaskingService {
 
     private static final Logger log = LoggerFactory.getLogger(MaskingService.class);
 
     private final MaskingProperties properties;
     private final ObjectMapper maskingObjectMapper;
+    private final MaskingJsonStreamer jsonStreamer;
+    private final SensitiveTypeClassifier typeClassifier;
+    private final MaskingMetrics metrics;
 
     public MaskingService(MaskingProperties properties, ObjectMapper maskingObjectMapper) {
+        this(properties, maskingObjectMapper, MaskingMetrics.NOOP);
+    }
+
+    public MaskingService(MaskingProperties properties, ObjectMapper maskingObjectMapper,
+                          MaskingMetrics metrics) {
         this.properties = properties;
         this.maskingObjectMapper = maskingObjectMapper;
+        this.jsonStreamer = new MaskingJsonStreamer(properties);
+        this.typeClassifier = new SensitiveTypeClassifier(maskingObjectMapper, properties);
+        this.metrics = metrics;
     }
 
     public String toMaskedJson(Object object) {
         if (object == null) {
             return "null";
         }
+        long start = metrics.isRecording() ? System.nanoTime() : 0L;
         try {
             return maskingObjectMapper.writeValueAsString(object);
         } catch (Exception e) {
+            metrics.recordSerializationFailure();
             log.warn("MaskingService: failed to serialise object of type {}: {}",
                     object.getClass().getSimpleName(), e.getMessage());
             return object.toString();
+        } finally {
+            if (start != 0L) {
+                metrics.recordSerialization(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Serializes {@code object} as masked UTF-8 JSON straight into {@code out},
+     * without building an intermediate String. Returns false if serialization
+     * failed, in which case {@code out} may hold a partial document that the
+     * caller should discard.
+     */
+    public boolean writeMaskedJson(Object object, OutputStream out) {
+        long start = metrics.isRecording() ? System.nanoTime() : 0L;
+        try {
+            maskingObjectMapper.writeValue(out, object);
+            return true;
+        } catch (Exception e) {
+            metrics.recordSerializationFailure();
+            log.warn("MaskingService: failed to serialise object of type {}: {}",
+                    object == null ? "null" : object.getClass().getSimpleName(), e.getMessage());
+            return false;
+        } finally {
+            if (start != 0L) {
+                metrics.recordSerialization(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Whether instances of {@code type} can carry a sensitive property at any
+     * depth. Computed once per class; the log filter leaves objects of other
+     * types alone.
+     */
+    public boolean canContainSensitiveData(Class<?> type) {
+        return typeClassifier.canContainSensitiveData(type);
+    }
+
+    /**
+     * Streams raw JSON from {@code in} to {@code out}, masking the values of
+     * configured sensitive fields token by token. The document is never held in
+     * memory as a whole. Both streams are left open; {@code out} is flushed.
+     */
+    public void maskJson(InputStream in, OutputStream out) throws IOException {
+        JsonFactory factory = maskingObjectMapper.getFactory();
+        try (JsonParser parser = factory.createParser(in);
+             JsonGenerator gen = factory.createGenerator(out, JsonEncoding.UTF8)) {
+            streamMasked(parser, gen);
         }
     }
 
+    /**
+     * Character-stream variant of {@link #maskJson(InputStream, OutputStream)}.
+     */
+    public void maskJson(Reader in, Writer out) throws IOException {
+        JsonFactory factory = maskingObjectMapper.getFactory();
+        try (JsonParser parser = factory.createParser(in);
+             JsonGenerator gen = factory.createGenerator(out)) {
+            streamMasked(parser, gen);
+        }
+    }
+
+    private void streamMasked(JsonParser parser, JsonGenerator gen) throws IOException {
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        jsonStreamer.copy(parser, gen);
+    }
+
+    /**
+     * Masks card numbers, IBANs, email addresses and phone numbers found in
+     * free text such as a formatted log message. Returns {@code text} itself
+     * when masking or scanning is disabled or nothing was found.
+     */
+    public String maskText(String text) {
+        MaskingSnapshot snapshot = properties.snapshot();
+        if (!snapshot.isEnabled() || !snapshot.isScanEnabled()) {
+            return text;
+        }
+        return snapshot.getScanner().mask(text);
+    }
+
     public String mask(String value) {
-        if (!properties.isEnabled() || value == null) {
+        MaskingSnapshot snapshot = properties.snapshot();
+        if (!snapshot.isEnabled() || value == null) {
             return value;
         }
-        return properties.getMaskStyle().apply(value, properties.getMaskCharacter());
+        return snapshot.getDefaultPlan().apply(value);
     }
 
 
     public String mask(String value, MaskStyle style, char maskChar) {
-        if (!properties.isEnabled() || value == null) {
+        MaskingSnapshot snapshot = properties.snapshot();
+        if (!snapshot.isEnabled() || value == null) {
             return value;
         }
-        char effectiveMaskChar = (maskChar == '\0') ? properties.getMaskCharacter() : maskChar;
-        return style.apply(value, effectiveMaskChar);
+        return snapshot.plan(style, maskChar).apply(value);
+    }
+
+    /** Whether masking is enabled in the configuration currently in effect. */
+    public boolean isEnabled() {
+        return properties.snapshot().isEnabled();
+    }
+
+    /** Whether {@link #maskText(String)} currently scans, i.e. masking and the scanner are both enabled. */
+    public boolean isScanEnabled() {
+        MaskingSnapshot snapshot = properties.snapshot();
+        return snapshot.isEnabled() && snapshot.isScanEnabled();
     }
 
     public MaskingProperties getProperties() {
         return properties;
     }
+
+    public MaskingMetrics getMetrics() {
+        return metrics;
+    }
 }
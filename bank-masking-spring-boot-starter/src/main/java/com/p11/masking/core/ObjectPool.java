@@ -0,0 +1,116 @@
+package com.p11.masking.core;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Reuse of costly scratch objects (encode buffers, initialised MACs) that
+ * works on platform and virtual threads alike. A platform thread keeps one
+ * instance in a {@link ThreadLocal}, the cheapest option for long-lived pooled
+ * threads. The instance is taken out of the thread-local while it is in use,
+ * so a nested acquire on the same thread, e.g. an appender logging while it
+ * encodes, gets a new instance rather than the one its caller is still
+ * using. A virtual thread usually lives for a single task, so a thread-local
+ * instance would be created per task and never reused; virtual threads borrow
+ * from a small shared pool instead. The pool is an array of slots claimed and
+ * returned with compare-and-set, so it never blocks and never pins a carrier.
+ * When every slot is empty a new instance is created; when every slot is full
+ * a returned one is dropped.
+ * <p>
+ * Callers pair {@link #acquire()} with {@link #release(Object)} in a
+ * {@code finally} block and must not use the instance afterwards.
+ *
+ * @param <T> the pooled type
+ */
+public final class ObjectPool<T> {
+
+    private static final int MAX_SLOTS = 64;
+
+    private final Supplier<T> factory;
+    private final Predicate<T> reusable;
+    private final ThreadLocal<T> perThread;
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+
+    /**
+     * @param factory  creates an instance when none is available
+     * @param reusable whether a released instance may be kept, e.g. false for
+     *                 a buffer that grew too large
+     */
+    public ObjectPool(Supplier<T> factory, Predicate<T> reusable) {
+        this(factory, reusable, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    /**
+     * @param size slots in the shared pool, rounded up to a power of two
+     *             (at most 64); twice the processor count by default
+     */
+    public ObjectPool(Supplier<T> factory, Predicate<T> reusable, int size) {
+        this.factory = factory;
+        this.reusable = reusable;
+        this.perThread = new ThreadLocal<>();
+        int slotCount = Math.min(MAX_SLOTS, Integer.highestOneBit(Math.max(1, size - 1)) << 1);
+        this.slots = new AtomicReferenceArray<>(slotCount);
+        this.mask = slotCount - 1;
+    }
+
+    public T acquire() {
+        Thread thread = Thread.currentThread();
+        if (!thread.isVirtual()) {
+            T own = perThread.get();
+            if (own == null) {
+                return factory.get();
+            }
+            perThread.set(null);
+            return own;
+        }
+        int start = probe(thread);
+        for (int i = 0; i <= mask; i++) {
+            int slot = (start + i) & mask;
+            T pooled = slots.get(slot);
+            if (pooled != null && slots.compareAndSet(slot, pooled, null)) {
+                return pooled;
+            }
+        }
+        return factory.get();
+    }
+
+    public void release(T instance) {
+        Thread thread = Thread.currentThread();
+        boolean keep = reusable.test(instance);
+        if (!thread.isVirtual()) {
+            if (keep && perThread.get() == null) {
+                perThread.set(instance);
+            }
+            return;
+        }
+        if (!keep) {
+            return;
+        }
+        int start = probe(thread);
+        for (int i = 0; i <= mask; i++) {
+            int slot = (start + i) & mask;
+            if (slots.get(slot) == null && slots.compareAndSet(slot, null, instance)) {
+                return;
+            }
+        }
+    }
+
+    /** Instances currently held in the shared pool. */
+    public int pooled() {
+        int count = 0;
+        for (int i = 0; i <= mask; i++) {
+            if (slots.get(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Spreads concurrent virtual threads over different starting slots. */
+    private static int probe(Thread thread) {
+        long id = thread.threadId();
+        return (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+    }
+}
@@ -0,0 +1,325 @@
+package com.p11.masking.core;
+
+import java.util.Set;
+
+/**
+ * Finds card numbers, IBANs, email addresses and international phone numbers
+ * in free text and masks them with a {@link MaskPlan}.
+ * <p>
+ * The text is read once, left to right. Each character either starts a
+ * candidate, which is matched by a small hand-written recogniser bounded by the
+ * longest possible token (23 characters for a grouped card number, 42 for a
+ * printed IBAN, 64 back and 255 forward around an {@code @}), or is skipped
+ * after a constant-time check. Candidates are only taken at word boundaries,
+ * and card numbers and IBANs must also pass their checksums, which keeps
+ * order numbers, timestamps and identifiers from being masked.
+ * <p>
+ * Text without a match is returned as the same instance; nothing is allocated.
+ */
+public final class PiiScanner {
+
+    private static final int MIN_CARD_DIGITS = 13;
+    private static final int MAX_CARD_DIGITS = 19;
+    private static final int MIN_IBAN_LENGTH = 15;
+    private static final int MAX_IBAN_LENGTH = 34;
+    private static final int MIN_PHONE_DIGITS = 8;
+    private static final int MAX_PHONE_DIGITS = 15;
+    private static final int MAX_EMAIL_LOCAL = 64;
+    private static final int MAX_EMAIL_DOMAIN = 255;
+
+    private final MaskPlan plan;
+    private final boolean cards;
+    private final boolean ibans;
+    private final boolean emails;
+    private final boolean phones;
+
+    public PiiScanner(MaskPlan plan, Set<PiiType> types) {
+        this.plan = plan;
+        this.cards = types.contains(PiiType.CARD_NUMBER);
+        this.ibans = types.contains(PiiType.IBAN);
+        this.emails = types.contains(PiiType.EMAIL);
+        this.phones = types.contains(PiiType.PHONE_NUMBER);
+    }
+
+    /**
+     * Returns {@code text} with every detected span masked, or {@code text}
+     * itself when nothing was found.
+     */
+    public String mask(String text) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        int n = text.length();
+        StringBuilder out = null;
+        int copied = 0;
+        int i = 0;
+        while (i < n) {
+            char c = text.charAt(i);
+            int start = i;
+            int end = -1;
+            if (c >= '0' && c <= '9') {
+                if (cards && isBoundaryBefore(text, i)) {
+                    end = matchCard(text, i);
+                }
+            } else if (c >= 'A' && c <= 'Z') {
+                if (ibans && isBoundaryBefore(text, i)) {
+                    end = matchIban(text, i);
+                }
+            } else if (c == '+') {
+                if (phones && isBoundaryBefore(text, i)) {
+                    end = matchPhone(text, i);
+                }
+            } else if (c == '@') {
+                if (emails) {
+                    start = emailLocalStart(text, i, copied);
+                    end = start < i ? matchEmailDomain(text, i + 1) : -1;
+                }
+            }
+            if (end < 0) {
+                i++;
+                continue;
+            }
+            if (out == null) {
+                out = new StringBuilder(n + 16);
+            }
+            out.append(text, copied, start);
+            plan.appendTo(text, start, end - start, out);
+            copied = end;
+            i = end;
+        }
+        if (out == null) {
+            return text;
+        }
+        return out.append(text, copied, n).toString();
+    }
+
+    /**
+     * Digits with optional single space or hyphen separators, Luhn-checked.
+     * Returns the exclusive end of the match, or -1.
+     */
+    private static int matchCard(String text, int from) {
+        int n = text.length();
+        int digits = 0;
+        int evenSum = 0;
+        int oddSum = 0;
+        int end = from;
+        int i = from;
+        while (i < n) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_CARD_DIGITS) {
+                    return -1;
+                }
+                int d = c - '0';
+                int doubled = d < 5 ? d * 2 : d * 2 - 9;
+                if ((digits & 1) == 1) {
+                    evenSum += doubled;
+                    oddSum += d;
+                } else {
+                    evenSum += d;
+                    oddSum += doubled;
+                }
+                end = ++i;
+            } else if ((c == ' ' || c == '-') && i + 1 < n && isDigit(text.charAt(i + 1))) {
+                i++;
+            } else {
+                break;
+            }
+        }
+        if (digits < MIN_CARD_DIGITS || !isBoundaryAfter(text, end)) {
+            return -1;
+        }
+        // Luhn doubles every second digit counted from the right: the first digit
+        // is doubled exactly when the total count is even.
+        int sum = (digits & 1) == 0 ? evenSum : oddSum;
+        return sum % 10 == 0 ? end : -1;
+    }
+
+    /**
+     * Two letters, two digits and an alphanumeric BBAN, either contiguous or
+     * printed in groups of four separated by single spaces; mod-97 checked.
+     */
+    private static int matchIban(String text, int from) {
+        int n = text.length();
+        if (from + 4 > n
+                || !isUpper(text.charAt(from + 1))
+                || !isDigit(text.charAt(from + 2))
+                || !isDigit(text.charAt(from + 3))) {
+            return -1;
+        }
+        int length = 0;
+        int group = 0;
+        int end = from;
+        int i = from;
+        while (i < n) {
+            char c = text.charAt(i);
+            if (isDigit(c) || isUpper(c)) {
+                if (++length > MAX_IBAN_LENGTH) {
+                    return -1;
+                }
+                group++;
+                end = ++i;
+            } else if (c == ' ' && group == 4 && i + 1 < n && isIbanChar(text.charAt(i + 1))) {
+                group = 0;
+                i++;
+            } else {
+                break;
+            }
+        }
+        if (length < MIN_IBAN_LENGTH || !isBoundaryAfter(text, end)) {
+            return -1;
+        }
+        return ibanChecksum(text, from, end) == 1 ? end : -1;
+    }
+
+    /** ISO 7064 mod 97-10 over the IBAN with its first four characters moved to the end. */
+    private static int ibanChecksum(String text, int from, int end) {
+        int remainder = 0;
+        int skipped = 0;
+        for (int i = from; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == ' ') {
+                continue;
+            }
+            if (skipped < 4) {
+                skipped++;
+                continue;
+            }
+            remainder = ibanStep(remainder, c);
+        }
+        for (int i = from; i < from + 4; i++) {
+            remainder = ibanStep(remainder, text.charAt(i));
+        }
+        return remainder;
+    }
+
+    private static int ibanStep(int remainder, char c) {
+        if (isDigit(c)) {
+            return (remainder * 10 + (c - '0')) % 97;
+        }
+        return (remainder * 100 + (c - 'A' + 10)) % 97;
+    }
+
+    /**
+     * {@code +} followed by digits, with at most two separator characters in a
+     * row so that {@code +1 (555) 123-4567} matches but prose does not.
+     */
+    private static int matchPhone(String text, int from) {
+        int n = text.length();
+        int digits = 0;
+        int gap = 0;
+        int end = -1;
+        int i = from + 1;
+        while (i < n) {
+            char c = text.charAt(i);
+            if (isDigit(c)) {
+                if (++digits > MAX_PHONE_DIGITS) {
+                    return -1;
+                }
+                gap = 0;
+                end = ++i;
+            } else if (gap < 2 && isPhoneSeparator(c)) {
+                gap++;
+                i++;
+            } else {
+                break;
+            }
+        }
+        if (digits < MIN_PHONE_DIGITS || !isBoundaryAfter(text, end)) {
+            return -1;
+        }
+        return end;
+    }
+
+    /**
+     * Start of the local part that ends just before {@code at}, scanning back
+     * no further than {@code floor} (the end of the previous masked span) or
+     * {@value #MAX_EMAIL_LOCAL} characters. Returns {@code at} when there is none.
+     */
+    private static int emailLocalStart(String text, int at, int floor) {
+        int limit = Math.max(floor, at - MAX_EMAIL_LOCAL);
+        int start = at;
+        while (start > limit && isEmailLocalChar(text.charAt(start - 1))) {
+            start--;
+        }
+        while (start < at && text.charAt(start) == '.') {
+            start++;
+        }
+        return start;
+    }
+
+    /**
+     * Dot-separated labels of letters, digits and hyphens, at least two of
+     * them, the last purely alphabetic and at least two characters long.
+     */
+    private static int matchEmailDomain(String text, int from) {
+        int limit = Math.min(text.length(), from + MAX_EMAIL_DOMAIN);
+        int labels = 0;
+        int end = -1;
+        int lastLabel = -1;
+        int i = from;
+        while (true) {
+            int labelStart = i;
+            while (i < limit && (isAsciiLetterOrDigit(text.charAt(i))
+                    || (text.charAt(i) == '-' && i > labelStart))) {
+                i++;
+            }
+            if (i == labelStart) {
+                break;
+            }
+            labels++;
+            end = i;
+            lastLabel = labelStart;
+            if (i + 1 < limit && text.charAt(i) == '.' && isAsciiLetterOrDigit(text.charAt(i + 1))) {
+                i++;
+            } else {
+                break;
+            }
+        }
+        if (labels < 2 || end - lastLabel < 2) {
+            return -1;
+        }
+        for (int j = lastLabel; j < end; j++) {
+            if (!isAsciiLetter(text.charAt(j))) {
+                return -1;
+            }
+        }
+        return end;
+    }
+
+    private static boolean isBoundaryBefore(String text, int i) {
+        return i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1));
+    }
+
+    private static boolean isBoundaryAfter(String text, int end) {
+        return end >= text.length() || !Character.isLetterOrDigit(text.charAt(end));
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isIbanChar(char c) {
+        return isDigit(c) || isUpper(c);
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || isDigit(c);
+    }
+
+    private static boolean isEmailLocalChar(char c) {
+        return isAsciiLetterOrDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isPhoneSeparator(char c) {
+        return c == ' ' || c == '-' || c == '.' || c == '(' || c == ')';
+    }
+}
@@ -0,0 +1,19 @@
+package com.p11.masking.core;
+
+/**
+ * Kinds of personal data {@link PiiScanner} recognises in free text.
+ */
+public enum PiiType {
+
+    /** 13 to 19 digits, optionally grouped by spaces or hyphens, passing the Luhn check. */
+    CARD_NUMBER,
+
+    /** Country code, check digits and BBAN, optionally printed in groups of four, passing the ISO 7064 mod-97 check. */
+    IBAN,
+
+    /** {@code local@domain.tld} with a dotted domain and an alphabetic top-level label. */
+    EMAIL,
+
+    /** International number: {@code +} followed by 8 to 15 digits, optionally separated by spaces, hyphens, dots or parentheses. */
+    PHONE_NUMBER
+}
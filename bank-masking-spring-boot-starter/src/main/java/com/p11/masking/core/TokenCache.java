@@ -0,0 +1,116 @@
+package com.p11.masking.core;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, expiring value→token cache for {@link Tokenizer}. Entries are spread
+ * over independently locked stripes, each a small access-ordered LRU map, so
+ * concurrent loggers rarely contend and no stripe ever holds more than its
+ * share of {@code maxSize}. Entries older than the TTL are treated as absent
+ * and dropped when next touched. Stripes are guarded by {@link ReentrantLock}
+ * rather than monitors, so a virtual thread waiting for one unmounts instead
+ * of pinning its carrier.
+ */
+public final class TokenCache {
+
+    private static final int MAX_STRIPES = 16;
+
+    private final Stripe[] stripes;
+    private final int mask;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    public TokenCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    /**
+     * @param clock nanosecond time source; tests pass a controllable one
+     */
+    public TokenCache(int maxSize, Duration ttl, LongSupplier clock) {
+        int stripeCount = maxSize <= 0 ? 1 : Math.min(MAX_STRIPES, Integer.highestOneBit(maxSize));
+        int perStripe = maxSize <= 0 ? 0 : (maxSize + stripeCount - 1) / stripeCount;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+        this.mask = stripeCount - 1;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    /** The cached token for {@code value}, or null when absent or expired. */
+    public String get(String value) {
+        Stripe stripe = stripeFor(value);
+        long now = clock.getAsLong();
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.get(value);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.createdAt >= ttlNanos) {
+                stripe.remove(value);
+                return null;
+            }
+            return entry.token;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public void put(String value, String token) {
+        Stripe stripe = stripeFor(value);
+        if (stripe.capacity == 0) {
+            return;
+        }
+        Entry entry = new Entry(token, clock.getAsLong());
+        stripe.lock.lock();
+        try {
+            stripe.put(value, entry);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /** Number of entries currently held, including expired ones not yet dropped. */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(String value) {
+        int h = value.hashCode();
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    private record Entry(String token, long createdAt) {}
+
+    private static final class Stripe extends LinkedHashMap<String, Entry> {
+
+        private final int capacity;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > capacity;
+        }
+    }
+}
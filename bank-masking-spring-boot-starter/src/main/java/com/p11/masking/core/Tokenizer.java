@@ -0,0 +1,184 @@
+package com.p11.masking.core;
+
+import com.p11.masking.config.MaskingProperties;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * Keyed, deterministic replacement of sensitive values for
+ * {@link MaskStyle#TOKENIZE}. The same value always yields the same token
+ * under the same key, so log lines can be correlated without exposing the
+ * value, and tokens cannot be reversed or brute-forced without the key.
+ * <p>
+ * Tokens are HMAC-SHA256 of the UTF-8 value. By default the MAC is truncated
+ * to {@code tokenLength} hex characters behind a prefix ({@code tok_3f9a...}).
+ * In format-preserving mode each digit maps to a digit and each letter to a
+ * letter of the same case, other characters are kept, and the length is
+ * unchanged; short values then have correspondingly few possible tokens.
+ * MAC bytes are mapped to digits and letters by rejection sampling, so every
+ * replacement character is equally likely.
+ * <p>
+ * Initialised {@link Mac} instances are reused through an {@link ObjectPool},
+ * and recent results are held in a {@link TokenCache} so hot values skip the
+ * MAC altogether.
+ * <p>
+ * {@link MaskStyle} is an enum and cannot hold a key, so a tokenizer reaches
+ * {@link MaskStyle#TOKENIZE} through the {@link MaskPlan}s of the
+ * {@code MaskingProperties} it was given to; the auto-configuration gives the
+ * context's tokenizer to the context's properties. Without one, TOKENIZE masks
+ * like {@link MaskStyle#FULL}.
+ */
+public final class Tokenizer {
+
+    /** Shortest key accepted: 128 bits, the least HMAC-SHA256 should be keyed with. */
+    public static final int MIN_KEY_LENGTH = 16;
+
+    /** Longest prefix accepted, so token lengths stay within {@link #MAX_TOKEN_LENGTH}. */
+    public static final int MAX_PREFIX_LENGTH = 16;
+
+    /** Upper bound on the length of a non-format-preserving token, prefix included. */
+    public static final int MAX_TOKEN_LENGTH = MAX_PREFIX_LENGTH + 64;
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final SecretKeySpec key;
+    private final int tokenLength;
+    private final boolean formatPreserving;
+    private final String prefix;
+    private final TokenCache cache;
+    private final ObjectPool<Worker> workers;
+
+    public Tokenizer(byte[] key, int tokenLength, boolean formatPreserving, String prefix, TokenCache cache) {
+        if (key == null || key.length < MIN_KEY_LENGTH) {
+            throw new IllegalArgumentException("Tokenization key must be at least " + MIN_KEY_LENGTH + " bytes, was "
+                    + (key == null ? 0 : key.length));
+        }
+        if (tokenLength < 4 || tokenLength > 64) {
+            throw new IllegalArgumentException("Token length must be between 4 and 64, was " + tokenLength);
+        }
+        if (prefix.length() > MAX_PREFIX_LENGTH) {
+            throw new IllegalArgumentException("Token prefix must be at most " + MAX_PREFIX_LENGTH + " characters");
+        }
+        this.key = new SecretKeySpec(key, ALGORITHM);
+        this.tokenLength = tokenLength;
+        this.formatPreserving = formatPreserving;
+        this.prefix = prefix;
+        this.cache = cache;
+        this.workers = new ObjectPool<>(this::newWorker, worker -> true);
+        newWorker();
+    }
+
+    public static Tokenizer of(MaskingProperties.Tokenization settings) {
+        return new Tokenizer(settings.getKey().getBytes(StandardCharsets.UTF_8),
+                settings.getTokenLength(), settings.isFormatPreserving(), settings.getPrefix(),
+                new TokenCache(settings.getCacheSize(), settings.getCacheTtl()));
+    }
+
+    public String tokenize(String value) {
+        String token = cache.get(value);
+        if (token == null) {
+            token = compute(value);
+            cache.put(value, token);
+        }
+        return token;
+    }
+
+    public String tokenize(CharSequence value, int offset, int length) {
+        String text = (value instanceof String s && offset == 0 && length == s.length())
+                ? s
+                : value.subSequence(offset, offset + length).toString();
+        return tokenize(text);
+    }
+
+    public boolean isFormatPreserving() {
+        return formatPreserving;
+    }
+
+    private String compute(String value) {
+        Worker worker = workers.acquire();
+        try {
+            return compute(value, worker);
+        } finally {
+            workers.release(worker);
+        }
+    }
+
+    private String compute(String value, Worker worker) {
+        byte[] input = value.getBytes(StandardCharsets.UTF_8);
+        if (!formatPreserving) {
+            worker.mac(input, 0);
+            char[] token = new char[prefix.length() + tokenLength];
+            prefix.getChars(0, prefix.length(), token, 0);
+            for (int i = 0; i < tokenLength; i++) {
+                int b = worker.out[i >> 1];
+                token[prefix.length() + i] = HEX_DIGITS[(i & 1) == 0 ? (b >> 4) & 0xF : b & 0xF];
+            }
+            return new String(token);
+        }
+        char[] token = value.toCharArray();
+        int block = 0;
+        int used = MAC_LENGTH;
+        for (int i = 0; i < token.length; i++) {
+            char c = token[i];
+            int radix = (c >= '0' && c <= '9') ? 10 : (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') ? 26 : 0;
+            if (radix == 0) {
+                continue;
+            }
+            // Bytes at or above the largest multiple of radix would favour low digits and letters.
+            int limit = 256 - 256 % radix;
+            int b;
+            do {
+                if (used == MAC_LENGTH) {
+                    worker.mac(input, block++);
+                    used = 0;
+                }
+                b = worker.out[used++] & 0xFF;
+            } while (b >= limit);
+            int r = b % radix;
+            token[i] = radix == 10 ? (char) ('0' + r) : c <= 'Z' ? (char) ('A' + r) : (char) ('a' + r);
+        }
+        return new String(token);
+    }
+
+    private Worker newWorker() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return new Worker(mac);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+        }
+    }
+
+    /** A MAC and its output buffer, used by one thread at a time. */
+    private static final class Worker {
+
+        private final Mac mac;
+        private final byte[] out = new byte[MAC_LENGTH];
+
+        Worker(Mac mac) {
+            this.mac = mac;
+        }
+
+        /** MAC of {@code input} for keystream block {@code block}; block 0 is the plain MAC. */
+        void mac(byte[] input, int block) {
+            mac.update(input);
+            if (block > 0) {
+                mac.update((byte) 0);
+                mac.update((byte) (block >>> 8));
+                mac.update((byte) block);
+            }
+            try {
+                mac.doFinal(out, 0);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
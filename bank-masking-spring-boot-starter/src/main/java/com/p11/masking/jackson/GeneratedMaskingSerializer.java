@@ -0,0 +1,288 @@
+package com.p11.masking.jackson;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.config.MaskingSnapshot;
+import com.p11.masking.core.MaskPlan;
+import com.p11.masking.core.MaskStyle;
+import com.p11.masking.core.MaskingMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.function.Predicate;
+
+/**
+ * Base class of the serializers that {@code bank-masking-processor} generates
+ * at compile time for classes with {@code @Mask} fields. A generated subclass
+ * reads every property through a direct field access or getter call and hands
+ * it to one of the {@code write} methods here, so serializing such a class
+ * needs no introspection and no reflective {@code BeanPropertyWriter.get}.
+ * <p>
+ * The processor lists its serializers in
+ * {@code META-INF/services/com.p11.masking.jackson.GeneratedMaskingSerializer};
+ * {@link #registerAll} adds them to the masking {@code ObjectMapper}. Masking
+ * decisions follow the current {@link MaskingSnapshot} exactly like
+ * {@link MaskingPropertyWriter}: annotated properties use their own style,
+ * others are masked when their name is a configured sensitive field.
+ *
+ * @param <T> the serialized class
+ */
+public abstract class GeneratedMaskingSerializer<T> extends StdSerializer<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneratedMaskingSerializer.class);
+
+    private final SerializedString[] names;
+    private final MaskStyle[] styles;
+    private final char[] maskChars;
+
+    /** Settings of a serializer not yet bound by {@link #registerAll}; never changed. */
+    private static final MaskingProperties UNBOUND = new MaskingProperties();
+
+    private MaskingProperties properties = UNBOUND;
+    private MaskingMetrics metrics = MaskingMetrics.NOOP;
+
+    /** Plans for the last snapshot seen; see {@link MaskingPropertyWriter}. */
+    private Resolved resolved;
+
+    /**
+     * @param names     property names in serialization order
+     * @param styles    the {@code @Mask} style per property, {@code null} when not annotated
+     * @param maskChars the {@code @Mask} character per property, {@code '\0'} for the configured one
+     */
+    protected GeneratedMaskingSerializer(Class<T> type, String[] names, MaskStyle[] styles, char[] maskChars) {
+        super(type);
+        this.names = new SerializedString[names.length];
+        for (int i = 0; i < names.length; i++) {
+            this.names[i] = new SerializedString(names[i]);
+        }
+        this.styles = styles;
+        this.maskChars = maskChars;
+        this.resolved = resolve(properties.snapshot());
+    }
+
+    /**
+     * Loads every generated serializer visible to {@code classLoader}, binds it
+     * to {@code properties} and adds it to {@code module}. Entries that cannot
+     * be loaded, e.g. for classes removed since the last full build, are
+     * skipped. Returns the number of serializers registered.
+     */
+    public static int registerAll(SimpleModule module, MaskingProperties properties,
+                                  MaskingMetrics metrics, ClassLoader classLoader) {
+        return register(module, type -> true, properties, metrics, classLoader);
+    }
+
+    /**
+     * Like {@link #registerAll(SimpleModule, MaskingProperties, MaskingMetrics, ClassLoader)}
+     * for a module that will be registered on {@code mapper}. The generated
+     * serializers name, order and include properties with Jackson's defaults,
+     * so none is registered when {@code mapper} changes those globally, and
+     * none for a class with a mix-in. They also bypass the mapper's
+     * {@code BeanSerializerModifier}s, {@code @JsonFilter}s and views, which
+     * cannot be told apart from Jackson's own here; the auto-configuration
+     * therefore uses this only for its standalone mapper.
+     */
+    public static int registerAll(SimpleModule module, ObjectMapper mapper, MaskingProperties properties,
+                                  MaskingMetrics metrics, ClassLoader classLoader) {
+        if (!matchesDefaults(mapper.getSerializationConfig())) {
+            return 0;
+        }
+        return register(module, type -> mapper.findMixInClassFor(type) == null, properties, metrics, classLoader);
+    }
+
+    private static boolean matchesDefaults(SerializationConfig config) {
+        JsonInclude.Include inclusion = config.getDefaultPropertyInclusion().getValueInclusion();
+        return config.getPropertyNamingStrategy() == null
+                && !config.isEnabled(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                && !config.isEnabled(MapperFeature.USE_STD_BEAN_NAMING)
+                && (inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static int register(SimpleModule module, Predicate<Class<?>> accept, MaskingProperties properties,
+                                MaskingMetrics metrics, ClassLoader classLoader) {
+        int count = 0;
+        Iterator<GeneratedMaskingSerializer> it =
+                ServiceLoader.load(GeneratedMaskingSerializer.class, classLoader).iterator();
+        while (true) {
+            GeneratedMaskingSerializer serializer;
+            try {
+                if (!it.hasNext()) {
+                    break;
+                }
+                serializer = it.next();
+            } catch (ServiceConfigurationError e) {
+                log.warn("Skipping generated masking serializer: {}", e.getMessage());
+                continue;
+            }
+            if (!accept.test(serializer.handledType())) {
+                continue;
+            }
+            serializer.properties = properties;
+            serializer.metrics = metrics;
+            serializer.resolved = serializer.resolve(properties.snapshot());
+            module.addSerializer(serializer.handledType(), serializer);
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public final void serialize(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(value);
+        serializeProperties(value, plans(), gen, provider);
+        gen.writeEndObject();
+    }
+
+    @Override
+    public final void serializeWithType(T value, JsonGenerator gen, SerializerProvider provider,
+                                        TypeSerializer typeSer) throws IOException {
+        WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(value, JsonToken.START_OBJECT));
+        serializeProperties(value, plans(), gen, provider);
+        typeSer.writeTypeSuffix(gen, typeId);
+    }
+
+    /**
+     * Writes every property of {@code value} in order; {@code plans[i]} is the
+     * plan for property {@code i}, or {@code null} to write it unmasked.
+     */
+    protected abstract void serializeProperties(T value, MaskPlan[] plans, JsonGenerator gen,
+                                                SerializerProvider provider) throws IOException;
+
+    /** Whether any property is masked under {@code snapshot}. */
+    public boolean masks(MaskingSnapshot snapshot) {
+        for (MaskPlan plan : plansFor(snapshot)) {
+            if (plan != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Whether any property is masked under the current configuration. */
+    public boolean masks() {
+        return masks(properties.snapshot());
+    }
+
+    private MaskPlan[] plans() {
+        return plansFor(properties.snapshot());
+    }
+
+    private MaskPlan[] plansFor(MaskingSnapshot snapshot) {
+        Resolved current = resolved;
+        if (current.snapshot() != snapshot) {
+            current = resolve(snapshot);
+            resolved = current;
+        }
+        return current.plans();
+    }
+
+    private Resolved resolve(MaskingSnapshot snapshot) {
+        MaskPlan[] plans = new MaskPlan[names.length];
+        if (snapshot.isEnabled()) {
+            for (int i = 0; i < plans.length; i++) {
+                if (styles[i] != null) {
+                    plans[i] = snapshot.plan(styles[i], maskChars[i]);
+                } else if (snapshot.isSensitiveField(names[i].getValue())) {
+                    plans[i] = snapshot.getDefaultPlan();
+                }
+            }
+        }
+        return new Resolved(snapshot, plans);
+    }
+
+    protected final void write(int index, Object value, MaskPlan[] plans, JsonGenerator gen,
+                               SerializerProvider provider) throws IOException {
+        gen.writeFieldName(names[index]);
+        if (value == null) {
+            gen.writeNull();
+        } else if (plans[index] != null) {
+            writeMasked(value, plans[index], gen);
+        } else {
+            provider.defaultSerializeValue(value, gen);
+        }
+    }
+
+    protected final void write(int index, String value, MaskPlan[] plans, JsonGenerator gen,
+                               SerializerProvider provider) throws IOException {
+        gen.writeFieldName(names[index]);
+        if (value == null) {
+            gen.writeNull();
+        } else if (plans[index] != null) {
+            writeMasked(value, plans[index], gen);
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    protected final void write(int index, int value, MaskPlan[] plans, JsonGenerator gen,
+                               SerializerProvider provider) throws IOException {
+        gen.writeFieldName(names[index]);
+        if (plans[index] != null) {
+            writeMasked(value, plans[index], gen);
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    protected final void write(int index, long value, MaskPlan[] plans, JsonGenerator gen,
+                               SerializerProvider provider) throws IOException {
+        gen.writeFieldName(names[index]);
+        if (plans[index] != null) {
+            writeMasked(value, plans[index], gen);
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    protected final void write(int index, double value, MaskPlan[] plans, JsonGenerator gen,
+                               SerializerProvider provider) throws IOException {
+        gen.writeFieldName(names[index]);
+        if (plans[index] != null) {
+            writeMasked(value, plans[index], gen);
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    protected final void write(int index, float value, MaskPlan[] plans, JsonGenerator gen,
+                               SerializerProvider provider) throws IOException {
+        gen.writeFieldName(names[index]);
+        if (plans[index] != null) {
+            writeMasked(value, plans[index], gen);
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    protected final void write(int index, boolean value, MaskPlan[] plans, JsonGenerator gen,
+                               SerializerProvider provider) throws IOException {
+        gen.writeFieldName(names[index]);
+        if (plans[index] != null) {
+            writeMasked(value, plans[index], gen);
+        } else {
+            gen.writeBoolean(value);
+        }
+    }
+
+    private void writeMasked(Object value, MaskPlan plan, JsonGenerator gen) throws IOException {
+        MaskingPropertyWriter.writeMasked(value, plan, gen);
+        metrics.recordMaskedField(plan.getStyle());
+    }
+
+    private record Resolved(MaskingSnapshot snapshot, MaskPlan[] plans) {}
+}
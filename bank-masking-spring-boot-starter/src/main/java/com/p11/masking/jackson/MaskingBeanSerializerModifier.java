@@ -6,35 +6,58 @@ import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
 import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
 import com.p11.masking.annotation.Mask;
 import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.core.MaskingMetrics;
 
 import java.util.List;
 
+/**
+ * Replaces bean properties with {@link MaskingPropertyWriter}s. Whether a
+ * property is masked is decided per value from the current configuration
+ * snapshot, so enabling masking, changing the style or adding a field name
+ * applies to serializers that were built before the change.
+ * <p>
+ * When the settings cannot change after startup, only properties that carry
+ * {@link Mask} or are named in the configured fields are replaced; the others
+ * keep Jackson's own writer and skip the per-value snapshot check.
+ */
 public class MaskingBeanSerializerModifier extends BeanSerializerModifier {
 
     private final MaskingProperties properties;
+    private final MaskingMetrics metrics;
+    private final boolean reloadable;
 
+    /** A reloadable modifier: every property gets a masking writer. */
     public MaskingBeanSerializerModifier(MaskingProperties properties) {
+        this(properties, MaskingMetrics.NOOP);
+    }
+
+    /** A reloadable modifier: every property gets a masking writer. */
+    public MaskingBeanSerializerModifier(MaskingProperties properties, MaskingMetrics metrics) {
+        this(properties, metrics, true);
+    }
+
+    /**
+     * @param reloadable whether any property may become sensitive later, so
+     *                   that every property needs a masking writer
+     */
+    public MaskingBeanSerializerModifier(MaskingProperties properties, MaskingMetrics metrics, boolean reloadable) {
         this.properties = properties;
+        this.metrics = metrics;
+        this.reloadable = reloadable;
     }
 
     @Override
     public List<BeanPropertyWriter> changeProperties(SerializationConfig config,
                                                       BeanDescription beanDesc,
                                                       List<BeanPropertyWriter> beanProperties) {
-        if (!properties.isEnabled()) {
-            return beanProperties;
-        }
         for (int i = 0; i < beanProperties.size(); i++) {
             BeanPropertyWriter writer = beanProperties.get(i);
-            if (isSensitive(writer)) {
-                beanProperties.set(i, new MaskingPropertyWriter(writer, properties));
+            Mask annotation = writer.getAnnotation(Mask.class);
+            if (!reloadable && annotation == null && !properties.snapshot().isSensitiveField(writer.getName())) {
+                continue;
             }
+            beanProperties.set(i, new MaskingPropertyWriter(writer, annotation, properties, metrics));
         }
         return beanProperties;
     }
-
-    private boolean isSensitive(BeanPropertyWriter writer) {
-        return writer.getAnnotation(Mask.class) != null
-                || properties.isSensitiveField(writer.getName());
-    }
 }
@@ -0,0 +1,97 @@
+package com.p11.masking.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.config.MaskingSnapshot;
+import com.p11.masking.config.SensitiveFieldIndex;
+import com.p11.masking.core.MaskPlan;
+
+import java.io.IOException;
+
+/**
+ * Masks raw JSON by copying tokens from a {@link JsonParser} to a
+ * {@link JsonGenerator}. Values of fields whose names are configured in
+ * {@link MaskingProperties#getFields()} are written masked; when such a value is
+ * an object or array, every scalar inside it is masked. No tree or document
+ * String is built, so memory use is bounded by the largest single value rather
+ * than by the document size.
+ */
+public class MaskingJsonStreamer {
+
+    private final MaskingProperties properties;
+
+    public MaskingJsonStreamer(MaskingProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Copies every remaining token of {@code parser} to {@code gen}, masking
+     * sensitive values. Neither side is closed or flushed.
+     */
+    public void copy(JsonParser parser, JsonGenerator gen) throws IOException {
+        MaskingSnapshot snapshot = properties.snapshot();
+        if (!snapshot.isEnabled()) {
+            while (parser.nextToken() != null) {
+                gen.copyCurrentEvent(parser);
+            }
+            return;
+        }
+        SensitiveFieldIndex fieldIndex = snapshot.getFieldIndex();
+        MaskPlan plan = snapshot.getDefaultPlan();
+        char[] buf = new char[64];
+        boolean maskNext = false;
+        int sensitiveDepth = 0;
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            switch (token) {
+                case FIELD_NAME -> {
+                    gen.copyCurrentEvent(parser);
+                    maskNext = fieldIndex.contains(parser.currentName());
+                }
+                case START_OBJECT, START_ARRAY -> {
+                    gen.copyCurrentEvent(parser);
+                    if (sensitiveDepth > 0 || maskNext) {
+                        sensitiveDepth++;
+                    }
+                    maskNext = false;
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    gen.copyCurrentEvent(parser);
+                    if (sensitiveDepth > 0) {
+                        sensitiveDepth--;
+                    }
+                }
+                case VALUE_NULL -> {
+                    gen.writeNull();
+                    maskNext = false;
+                }
+                default -> {
+                    if (maskNext || sensitiveDepth > 0) {
+                        buf = writeMasked(parser, gen, plan, buf);
+                    } else {
+                        gen.copyCurrentEvent(parser);
+                    }
+                    maskNext = false;
+                }
+            }
+        }
+    }
+
+    private static char[] writeMasked(JsonParser parser, JsonGenerator gen, MaskPlan plan, char[] buf)
+            throws IOException {
+        char[] text = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        int required = Math.max(length, plan.maskedLength(length));
+        if (buf.length < required) {
+            buf = new char[Math.max(required, buf.length * 2)];
+        }
+        System.arraycopy(text, offset, buf, 0, length);
+        int written = plan.maskInPlace(buf, 0, length);
+        gen.writeString(buf, 0, written);
+        return buf;
+    }
+}
@@ -5,22 +5,100 @@ import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
 import com.p11.masking.annotation.Mask;
 import com.p11.masking.config.MaskingProperties;
-import com.p11.masking.core.MaskStyle;
+import com.p11.masking.config.MaskingSnapshot;
+import com.p11.masking.core.MaskPlan;
+import com.p11.masking.core.MaskingMetrics;
+import com.p11.masking.core.ObjectPool;
 
+import java.io.IOException;
+
+/**
+ * Writes a property masked when the configuration in effect says so, and as a
+ * plain {@link BeanPropertyWriter} otherwise.
+ * <p>
+ * A writer built from {@link MaskingProperties} resolves its {@link MaskPlan}
+ * from the current {@link MaskingSnapshot} and keeps the result until the
+ * snapshot changes, so a reload reaches serializers Jackson has already cached
+ * without flushing them. The check costs one volatile read and one reference
+ * comparison per value. A writer built from a fixed plan always masks with it.
+ */
 public class MaskingPropertyWriter extends BeanPropertyWriter {
 
+    /** Scratch buffers that grew beyond this many chars are dropped after use. */
+    private static final int MAX_RETAINED_BUFFER = 8 * 1024;
+
+    /** Scratch buffers for masked values, borrowed for one value at a time. */
+    private static final ObjectPool<MaskBuffer> BUFFERS =
+            new ObjectPool<>(MaskBuffer::new, buffer -> buffer.chars.length <= MAX_RETAINED_BUFFER);
+
+    private final Mask annotation;
     private final MaskingProperties properties;
-    private final Mask maskAnnotation;
+    private final MaskingMetrics metrics;
+
+    /**
+     * Plan for the last snapshot seen. Written without synchronization: each
+     * {@code Resolved} is immutable, so a racing thread at worst resolves again.
+     */
+    private Resolved resolved;
+
+    protected MaskingPropertyWriter(BeanPropertyWriter base, MaskPlan plan) {
+        this(base, plan, MaskingMetrics.NOOP);
+    }
 
-    protected MaskingPropertyWriter(BeanPropertyWriter base, MaskingProperties properties) {
+    protected MaskingPropertyWriter(BeanPropertyWriter base, MaskPlan plan, MaskingMetrics metrics) {
         super(base);
+        this.annotation = null;
+        this.properties = null;
+        this.metrics = metrics;
+        this.resolved = new Resolved(null, plan);
+    }
+
+    /**
+     * A writer that masks with {@code annotation}'s settings, or, without one,
+     * whenever its name is a configured sensitive field.
+     */
+    protected MaskingPropertyWriter(BeanPropertyWriter base, Mask annotation,
+                                    MaskingProperties properties, MaskingMetrics metrics) {
+        super(base);
+        this.annotation = annotation;
         this.properties = properties;
-        this.maskAnnotation = base.getAnnotation(Mask.class);
+        this.metrics = metrics;
+        this.resolved = resolve(properties.snapshot());
+    }
+
+    /** The plan in effect now, or {@code null} if the property is currently written unmasked. */
+    public MaskPlan getPlan() {
+        return properties == null ? resolved.plan() : planFor(properties.snapshot());
+    }
+
+    /** Whether this property is masked under {@code snapshot}. */
+    public boolean masks(MaskingSnapshot snapshot) {
+        return properties == null ? resolved.plan() != null : planFor(snapshot) != null;
+    }
+
+    private MaskPlan planFor(MaskingSnapshot snapshot) {
+        Resolved current = resolved;
+        if (current.snapshot() != snapshot) {
+            current = resolve(snapshot);
+            resolved = current;
+        }
+        return current.plan();
+    }
+
+    private Resolved resolve(MaskingSnapshot snapshot) {
+        boolean masked = snapshot.isEnabled()
+                && (annotation != null || snapshot.isSensitiveField(getName()));
+        return new Resolved(snapshot, masked ? snapshot.plan(annotation) : null);
     }
 
     @Override
     public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov)
             throws Exception {
+        MaskPlan plan = getPlan();
+        if (plan == null) {
+            super.serializeAsField(bean, gen, prov);
+            return;
+        }
         Object rawValue = get(bean);
         if (rawValue == null) {
             if (!_suppressNulls) {
@@ -29,12 +107,19 @@ public class MaskingPropertyWriter extends BeanPropertyWriter {
             }
             return;
         }
-        gen.writeStringField(_name.getValue(), applyMask(rawValue.toString()));
+        gen.writeFieldName(_name);
+        writeMasked(rawValue, plan, gen);
+        metrics.recordMaskedField(plan.getStyle());
     }
 
     @Override
     public void serializeAsElement(Object bean, JsonGenerator gen, SerializerProvider prov)
             throws Exception {
+        MaskPlan plan = getPlan();
+        if (plan == null) {
+            super.serializeAsElement(bean, gen, prov);
+            return;
+        }
         Object rawValue = get(bean);
         if (rawValue == null) {
             if (!_suppressNulls) {
@@ -42,22 +127,95 @@ public class MaskingPropertyWriter extends BeanPropertyWriter {
             }
             return;
         }
-        gen.writeString(applyMask(rawValue.toString()));
+        writeMasked(rawValue, plan, gen);
+        metrics.recordMaskedField(plan.getStyle());
+    }
+
+    /**
+     * Masks {@code value} into a pooled scratch buffer and emits it with
+     * {@link JsonGenerator#writeString(char[], int, int)}, which copies the
+     * characters out, so the buffer goes back to the pool straight after.
+     * Character data and integral numbers are copied straight into the buffer;
+     * other types go through {@code toString()}. Shared with
+     * {@link GeneratedMaskingSerializer}.
+     */
+    static void writeMasked(Object value, MaskPlan plan, JsonGenerator gen) throws IOException {
+        MaskBuffer scratch = BUFFERS.acquire();
+        try {
+            int len;
+            char[] buf;
+            if (value instanceof CharSequence cs) {
+                buf = scratch.capacity(plan.maskedLength(cs.length()));
+                len = plan.maskInto(cs, 0, cs.length(), buf, 0);
+            } else if (value instanceof char[] chars) {
+                buf = scratch.capacity(Math.max(chars.length, plan.maskedLength(chars.length)));
+                System.arraycopy(chars, 0, buf, 0, chars.length);
+                len = plan.maskInPlace(buf, 0, chars.length);
+            } else if (value instanceof Long || value instanceof Integer
+                    || value instanceof Short || value instanceof Byte) {
+                long number = ((Number) value).longValue();
+                int digits = digitCount(number);
+                buf = scratch.capacity(Math.max(digits, plan.maskedLength(digits)));
+                writeDigits(number, buf, digits);
+                len = plan.maskInPlace(buf, 0, digits);
+            } else {
+                String text = value.toString();
+                buf = scratch.capacity(plan.maskedLength(text.length()));
+                len = plan.maskInto(text, 0, text.length(), buf, 0);
+            }
+            gen.writeString(buf, 0, len);
+        } finally {
+            BUFFERS.release(scratch);
+        }
+    }
+
+    /** Number of characters in the decimal form of {@code value}, including a leading minus sign. */
+    static int digitCount(long value) {
+        if (value == Long.MIN_VALUE) {
+            return 20;
+        }
+        int count = 1;
+        if (value < 0) {
+            count++;
+            value = -value;
+        }
+        while (value >= 10) {
+            value /= 10;
+            count++;
+        }
+        return count;
+    }
+
+    /** Writes the decimal form of {@code value} into {@code buf[0, digits)}. */
+    static void writeDigits(long value, char[] buf, int digits) {
+        if (value == Long.MIN_VALUE) {
+            Long.toString(value).getChars(0, digits, buf, 0);
+            return;
+        }
+        boolean negative = value < 0;
+        if (negative) {
+            value = -value;
+            buf[0] = '-';
+        }
+        int pos = digits;
+        do {
+            buf[--pos] = (char) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
     }
 
-    private String applyMask(String value) {
-        if (value == null) return null;
-        MaskStyle style;
-        char maskChar;
-        if (maskAnnotation != null) {
-            style = maskAnnotation.style();
-            maskChar = (maskAnnotation.maskChar() == '\0')
-                    ? properties.getMaskCharacter()
-                    : maskAnnotation.maskChar();
-        } else {
-            style = properties.getMaskStyle();
-            maskChar = properties.getMaskCharacter();
+    private record Resolved(MaskingSnapshot snapshot, MaskPlan plan) {}
+
+    /** A growable char buffer, used by one thread at a time. */
+    private static final class MaskBuffer {
+
+        private char[] chars = new char[64];
+
+        char[] capacity(int capacity) {
+            if (chars.length < capacity) {
+                chars = new char[Math.max(capacity, chars.length * 2)];
+            }
+            return chars;
         }
-        return style.apply(value, maskChar);
     }
 }
@@ -0,0 +1,176 @@
+package com.p11.masking.jackson;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.config.MaskingSnapshot;
+
+import java.lang.reflect.Modifier;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAmount;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Decides, once per class, whether serializing an instance through the masking
+ * {@link ObjectMapper} could mask anything, i.e. whether the type can hold a
+ * sensitive property at any depth.
+ * <p>
+ * The answer comes from the serializers the masking mapper itself builds: a
+ * type is sensitive when its bean serializer, or that of any type reachable
+ * through its properties, contains a {@link MaskingPropertyWriter} that masks
+ * under the current configuration snapshot. The root is classified on the
+ * runtime class of the value; a property whose declared type admits subclasses
+ * ({@code Object}, interfaces, abstract and non-final classes, untyped
+ * containers) is treated as sensitive, since Jackson serializes it with the
+ * serializer of whatever subclass it holds. Any type whose introspection fails
+ * is sensitive too. Results are cached in a {@link ClassValue} that is
+ * replaced when the snapshot changes.
+ */
+public class SensitiveTypeClassifier {
+
+    private final ObjectMapper mapper;
+    private final MaskingProperties properties;
+
+    private volatile Cache cache;
+
+    /** Classifies against the snapshot each writer's own properties hold, without invalidation. */
+    public SensitiveTypeClassifier(ObjectMapper mapper) {
+        this(mapper, null);
+    }
+
+    public SensitiveTypeClassifier(ObjectMapper mapper, MaskingProperties properties) {
+        this.mapper = mapper;
+        this.properties = properties;
+        this.cache = new Cache(properties == null ? null : properties.snapshot());
+    }
+
+    public boolean canContainSensitiveData(Class<?> type) {
+        return current().get(type);
+    }
+
+    private Cache current() {
+        Cache current = cache;
+        if (properties != null && current.snapshot != properties.snapshot()) {
+            current = new Cache(properties.snapshot());
+            cache = current;
+        }
+        return current;
+    }
+
+    private boolean classify(Class<?> type, MaskingSnapshot snapshot) {
+        try {
+            return inspect(mapper.getSerializerProviderInstance(), mapper.constructType(type), snapshot,
+                    new HashSet<>(), true);
+        } catch (Exception | LinkageError e) {
+            return true;
+        }
+    }
+
+    private boolean inspect(SerializerProvider provider, JavaType type, MaskingSnapshot snapshot,
+                            Set<Class<?>> visiting, boolean runtimeType) throws Exception {
+        if (type.isContainerType() || type.isReferenceType()) {
+            JavaType content = type.getContentType();
+            return content == null || inspect(provider, content, snapshot, visiting, false);
+        }
+        Class<?> raw = type.getRawClass();
+        if (raw.isPrimitive() || raw.isEnum()) {
+            return false;
+        }
+        if (isOpenType(raw, runtimeType)) {
+            return true;
+        }
+        if (!visiting.add(raw)) {
+            return false;
+        }
+        JsonSerializer<Object> serializer = provider.findValueSerializer(type);
+        if (serializer instanceof GeneratedMaskingSerializer<?> generated) {
+            return inspectGenerated(provider, type, generated, snapshot, visiting);
+        }
+        if (!(serializer instanceof BeanSerializerBase beanSerializer)) {
+            return false;
+        }
+        Iterator<PropertyWriter> properties = beanSerializer.properties();
+        while (properties.hasNext()) {
+            PropertyWriter property = properties.next();
+            if (property instanceof MaskingPropertyWriter masking && masks(masking, snapshot)) {
+                return true;
+            }
+            if (property instanceof BeanPropertyWriter writer
+                    && inspect(provider, writer.getType(), snapshot, visiting, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A generated serializer has no property writers to look at; its own
+     * properties decide directly, and the types of the others come from
+     * introspection, which runs here once per class and never on the
+     * serialization path.
+     */
+    private boolean inspectGenerated(SerializerProvider provider, JavaType type,
+                                     GeneratedMaskingSerializer<?> generated, MaskingSnapshot snapshot,
+                                     Set<Class<?>> visiting) throws Exception {
+        if (snapshot == null ? generated.masks() : generated.masks(snapshot)) {
+            return true;
+        }
+        for (BeanPropertyDefinition property : provider.getConfig().introspect(type).findProperties()) {
+            if (property.couldSerialize()
+                    && inspect(provider, property.getPrimaryType(), snapshot, visiting, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean masks(MaskingPropertyWriter writer, MaskingSnapshot snapshot) {
+        return snapshot == null ? writer.getPlan() != null : writer.masks(snapshot);
+    }
+
+    /**
+     * Types whose runtime values cannot be known from the declaration:
+     * {@code Object}, interfaces and abstract classes, and for declared
+     * property types also non-final classes outside the JDK, except for the
+     * JDK's character, numeric and date/time abstractions. A runtime class is
+     * exactly what will be serialized, so it is open only when abstract.
+     */
+    private static boolean isOpenType(Class<?> raw, boolean runtimeType) {
+        if (raw == Object.class) {
+            return true;
+        }
+        int modifiers = raw.getModifiers();
+        if (!raw.isInterface() && !Modifier.isAbstract(modifiers)) {
+            return !runtimeType && !Modifier.isFinal(modifiers) && !raw.getName().startsWith("java.");
+        }
+        return !(CharSequence.class.isAssignableFrom(raw)
+                || Number.class.isAssignableFrom(raw)
+                || Temporal.class.isAssignableFrom(raw)
+                || TemporalAmount.class.isAssignableFrom(raw)
+                || Calendar.class.isAssignableFrom(raw));
+    }
+
+    /** Classification results for one snapshot. */
+    private final class Cache extends ClassValue<Boolean> {
+
+        private final MaskingSnapshot snapshot;
+
+        Cache(MaskingSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return classify(type, snapshot);
+        }
+    }
+}
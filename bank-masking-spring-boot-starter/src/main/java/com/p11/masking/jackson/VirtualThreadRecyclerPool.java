@@ -0,0 +1,59 @@
+package com.p11.masking.jackson;
+
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.core.util.RecyclerPool;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Jackson {@link BufferRecycler} pool for the masking mapper that suits both
+ * kinds of thread. Platform threads keep Jackson's default thread-local
+ * recycler. Virtual threads, which would each allocate a recycler of their own
+ * and use it for a single task, share a bounded pool instead; it is locked
+ * with a {@code ReentrantLock}, so waiting never pins a carrier.
+ * <p>
+ * Recycler pools exist from Jackson 2.16 on, so this class must only be
+ * loaded after checking for {@code RecyclerPool}.
+ */
+public final class VirtualThreadRecyclerPool implements RecyclerPool<BufferRecycler> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final RecyclerPool<BufferRecycler> platform = JsonRecyclerPools.threadLocalPool();
+    private final RecyclerPool<BufferRecycler> virtual;
+
+    public VirtualThreadRecyclerPool(int capacity) {
+        this.virtual = JsonRecyclerPools.newBoundedPool(capacity);
+    }
+
+    /** Installs a pool sized for this machine on {@code mapper}'s factory. */
+    public static void install(ObjectMapper mapper) {
+        mapper.getFactory().setRecyclerPool(new VirtualThreadRecyclerPool(
+                Runtime.getRuntime().availableProcessors() * 4));
+    }
+
+    @Override
+    public BufferRecycler acquirePooled() {
+        return pool().acquirePooled();
+    }
+
+    /** Delegates whole, since only the bounded pool links its recyclers back to itself. */
+    @Override
+    public BufferRecycler acquireAndLinkPooled() {
+        return pool().acquireAndLinkPooled();
+    }
+
+    @Override
+    public void releasePooled(BufferRecycler recycler) {
+        pool().releasePooled(recycler);
+    }
+
+    @Override
+    public int pooledCount() {
+        return virtual.pooledCount();
+    }
+
+    private RecyclerPool<BufferRecycler> pool() {
+        return Thread.currentThread().isVirtual() ? virtual : platform;
+    }
+}
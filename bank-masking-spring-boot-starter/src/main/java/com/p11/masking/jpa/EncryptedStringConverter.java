@@ -0,0 +1,45 @@
+package com.p11.masking.jpa;
+
+import com.p11.masking.core.FieldEncryptor;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a String attribute AES-GCM encrypted with the installed
+ * {@link FieldEncryptor}. Apply it next to {@code @Mask} on the entity fields
+ * that must be protected at rest:
+ * <pre>
+ * &#64;Mask
+ * &#64;Convert(converter = EncryptedStringConverter.class)
+ * &#64;Column(length = 1060)
+ * private String email;
+ * </pre>
+ * The stored value is Base64 of the UTF-8 bytes plus 28, so
+ * {@code 4 * ceil((bytes + 28) / 3)} characters. A char takes up to 3 bytes,
+ * so size the column for the worst case: 1060 for a 255-character value.
+ * Queries can only compare encrypted columns for null, since each encryption
+ * of the same value differs. Without an installed encryptor conversion fails
+ * rather than writing plaintext.
+ */
+@Converter
+public class EncryptedStringConverter implements AttributeConverter<String, String> {
+
+    @Override
+    public String convertToDatabaseColumn(String attribute) {
+        return encryptor().encrypt(attribute);
+    }
+
+    @Override
+    public String convertToEntityAttribute(String column) {
+        return encryptor().decrypt(column);
+    }
+
+    private static FieldEncryptor encryptor() {
+        FieldEncryptor encryptor = FieldEncryptor.installed();
+        if (encryptor == null) {
+            throw new IllegalStateException(
+                    "No FieldEncryptor installed; set p11.masking.encryption.key to use EncryptedStringConverter");
+        }
+        return encryptor;
+    }
+}
@@ -0,0 +1,394 @@
+package com.p11.masking.logback;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import com.p11.masking.core.MaskingService;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves masking and message formatting off the logging thread. The caller
+ * only captures the parts of the event that depend on the calling thread
+ * (thread name, MDC, caller data when enabled) and publishes the event to a
+ * {@link MaskingRingBuffer}; a single consumer thread formats the message,
+ * which resolves the {@link MaskedArgument}s created by
+ * {@link MaskingTurboFilter}, and hands the event to the attached appenders.
+ * <p>
+ * Logback copies the parameters of one- and two-argument logging calls into a
+ * fresh array after the turbo filters have run, so wrappers made by the filter
+ * only survive for varargs calls. When a {@link MaskingService} is set, the
+ * appender therefore wraps any remaining maskable parameters itself while
+ * capturing the event; the wrap is cheap and, except as described below,
+ * serialization still happens on the consumer thread.
+ * <p>
+ * Deferring serialization means a parameter is read on the consumer thread,
+ * after the logging call has returned. Two kinds of parameter are therefore
+ * serialized on the calling thread instead, within the call: collections,
+ * maps and arrays, which are commonly reused and refilled, and JPA entities,
+ * which may be managed by a persistence context that is only safe to use from
+ * its own thread and may be closed by the time the consumer gets to them.
+ * Other objects are still captured by reference, so a bean mutated after the
+ * call is logged in its new state; objects passed to the logger should not be
+ * changed afterwards if their logged form matters. When the buffer is full
+ * the configured {@link OverflowPolicy} applies.
+ * <p>
+ * An idle consumer parks until a producer hands it an event; producers only
+ * unpark it when it has actually gone to sleep, so a busy appender makes no
+ * extra system calls.
+ */
+public class AsyncMaskingAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    /** Empty polls the consumer spins through before it parks. */
+    private static final int IDLE_SPINS = 100;
+
+    /** Types whose masked form is taken on the calling thread; see the class comment. */
+    private static final ClassValue<Boolean> SERIALIZED_ON_CALLER = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return type.isArray()
+                    || Collection.class.isAssignableFrom(type)
+                    || Map.class.isAssignableFrom(type)
+                    || isEntity(type);
+        }
+    };
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong redacted = new AtomicLong();
+
+    private MaskingService maskingService;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private boolean includeCallerData;
+    private int maxFlushTime = 1000;
+
+    private volatile MaskingRingBuffer<ILoggingEvent> buffer;
+    private volatile boolean running;
+    /** Set by the consumer before it parks; producers that see it unpark the consumer. */
+    private volatile boolean consumerParked;
+    private volatile Thread worker;
+    private Logger wrappedLogger;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addWarn("No appenders attached to [" + name + "]; events will be discarded.");
+        }
+        buffer = new MaskingRingBuffer<>(bufferSize);
+        running = true;
+        worker = new Thread(this::drain, "masking-async-" + (name == null ? "appender" : name));
+        worker.setDaemon(true);
+        worker.start();
+        super.start();
+    }
+
+    /**
+     * Stops accepting events, lets the consumer flush what is queued for up to
+     * {@link #setMaxFlushTime(int) maxFlushTime} milliseconds and returns. The
+     * attached appenders are left running.
+     */
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        running = false;
+        Thread consumer = worker;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(maxFlushTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (consumer.isAlive()) {
+            addWarn("Consumer did not flush within " + maxFlushTime + " ms; "
+                    + buffer.size() + " queued events were discarded.");
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        event.getThreadName();
+        event.getMDCPropertyMap();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+        Object[] args = event.getArgumentArray();
+        if (args != null) {
+            if (maskingService != null && maskingService.isEnabled()) {
+                MaskedArgument.wrapMaskable(maskingService, args);
+            }
+            serializeUnsafeArguments(args);
+        }
+        MaskingRingBuffer<ILoggingEvent> ring = buffer;
+        if (ring.offer(event)) {
+            wakeConsumer();
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP -> dropped.incrementAndGet();
+            case REDACT -> appendRedacted(event);
+            case BLOCK -> {
+                while (!ring.offer(event)) {
+                    if (!running) {
+                        dropped.incrementAndGet();
+                        return;
+                    }
+                    LockSupport.parkNanos(FULL_PARK_NANOS);
+                }
+                wakeConsumer();
+            }
+        }
+    }
+
+    /**
+     * Resolves, on the calling thread, every {@link MaskedArgument} whose value
+     * is not safe to read later from the consumer thread.
+     */
+    private static void serializeUnsafeArguments(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MaskedArgument masked && masked.value() != null
+                    && SERIALIZED_ON_CALLER.get(masked.value().getClass())) {
+                masked.toString();
+            }
+        }
+    }
+
+    /** A JPA entity or a proxy of one; checked by name, as JPA is optional. */
+    private static boolean isEntity(Class<?> type) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Annotation annotation : c.getDeclaredAnnotations()) {
+                String name = annotation.annotationType().getName();
+                if (name.equals("jakarta.persistence.Entity") || name.equals("javax.persistence.Entity")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Unparks the consumer if it has gone to sleep. The ring's publish and
+     * {@link #consumerParked} are both volatile, so either the consumer sees
+     * the new event before it parks or this sees the flag.
+     */
+    private void wakeConsumer() {
+        if (consumerParked) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * Writes {@code event} on the calling thread with every unresolved
+     * {@link MaskedArgument} fixed to the redaction marker, so the event is not
+     * lost and no serialization runs on the caller. The event overtakes those
+     * still queued; see {@link OverflowPolicy#REDACT}.
+     */
+    private void appendRedacted(ILoggingEvent event) {
+        Object[] args = event.getArgumentArray();
+        if (args != null) {
+            for (Object arg : args) {
+                if (arg instanceof MaskedArgument masked) {
+                    masked.redact();
+                }
+            }
+        }
+        redacted.incrementAndGet();
+        appenders.appendLoopOnAppenders(event);
+    }
+
+    private void drain() {
+        MaskingRingBuffer<ILoggingEvent> ring = buffer;
+        int idle = 0;
+        while (true) {
+            ILoggingEvent event = ring.poll();
+            if (event == null) {
+                if (!running) {
+                    return;
+                }
+                if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                consumerParked = true;
+                if (ring.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                consumerParked = false;
+                idle = 0;
+                continue;
+            }
+            idle = 0;
+            try {
+                event.getFormattedMessage();
+                appenders.appendLoopOnAppenders(event);
+            } catch (RuntimeException e) {
+                addError("Failed to append event on the masking consumer thread", e);
+            }
+        }
+    }
+
+    /**
+     * Moves every appender currently attached to {@code logger} under this
+     * appender and attaches this appender in their place. The appender must be
+     * started afterwards.
+     */
+    public void wrapAppendersOf(Logger logger) {
+        List<Appender<ILoggingEvent>> existing = new ArrayList<>();
+        for (Iterator<Appender<ILoggingEvent>> it = logger.iteratorForAppenders(); it.hasNext(); ) {
+            Appender<ILoggingEvent> appender = it.next();
+            if (appender != this) {
+                existing.add(appender);
+            }
+        }
+        for (Appender<ILoggingEvent> appender : existing) {
+            logger.detachAppender(appender);
+            addAppender(appender);
+        }
+        logger.addAppender(this);
+        wrappedLogger = logger;
+    }
+
+    /**
+     * Reverses {@link #wrapAppendersOf(Logger)}: stops this appender, detaches
+     * it from the logger and re-attaches the wrapped appenders there. Only
+     * stops the appender if it never wrapped a logger.
+     */
+    public void unwrap() {
+        stop();
+        Logger logger = wrappedLogger;
+        if (logger == null) {
+            return;
+        }
+        wrappedLogger = null;
+        logger.detachAppender(this);
+        List<Appender<ILoggingEvent>> wrapped = new ArrayList<>();
+        appenders.iteratorForAppenders().forEachRemaining(wrapped::add);
+        for (Appender<ILoggingEvent> appender : wrapped) {
+            appenders.detachAppender(appender);
+            logger.addAppender(appender);
+        }
+    }
+
+    /** Events currently waiting for the consumer thread. */
+    public int getQueueDepth() {
+        MaskingRingBuffer<ILoggingEvent> ring = buffer;
+        return ring == null ? 0 : ring.size();
+    }
+
+    /** Actual ring capacity, available once the appender has started. */
+    public int getCapacity() {
+        MaskingRingBuffer<ILoggingEvent> ring = buffer;
+        return ring == null ? 0 : ring.capacity();
+    }
+
+    /** Events discarded because the buffer was full or the appender was stopping. */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /** Events written synchronously with redacted parameters under {@link OverflowPolicy#REDACT}. */
+    public long getRedactedCount() {
+        return redacted.get();
+    }
+
+    public MaskingService getMaskingService() {
+        return maskingService;
+    }
+
+    /** Service used to wrap parameters the turbo filter could not reach; optional. */
+    public void setMaskingService(MaskingService maskingService) {
+        this.maskingService = maskingService;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /** Ring capacity; rounded up to a power of two when the appender starts. */
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public boolean isIncludeCallerData() {
+        return includeCallerData;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    public int getMaxFlushTime() {
+        return maxFlushTime;
+    }
+
+    public void setMaxFlushTime(int maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    // AppenderAttachable
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
@@ -0,0 +1,92 @@
+package com.p11.masking.logback;
+
+import com.p11.masking.core.MaskingService;
+
+/**
+ * Log parameter placeholder that defers masked serialization until the
+ * message is actually formatted. {@link #toString()} runs
+ * {@link MaskingService#toMaskedJson(Object)} on first use and caches the
+ * result, so an event that is filtered out or never rendered costs only this
+ * wrapper, and one that is rendered several times is serialized once.
+ * <p>
+ * The masked form reflects the state of the wrapped object when the message is
+ * formatted, which for synchronous appenders is within the logging call.
+ */
+public final class MaskedArgument {
+
+    static final String REDACTED = "[REDACTED]";
+
+    private final MaskingService maskingService;
+    private final Object value;
+    private volatile String masked;
+
+    MaskedArgument(MaskingService maskingService, Object value) {
+        this.maskingService = maskingService;
+        this.value = value;
+    }
+
+    /**
+     * Replaces every parameter that may carry sensitive data with a
+     * {@link MaskedArgument}, in place. Strings, boxed primitives, throwables,
+     * existing wrappers and objects whose class cannot hold a sensitive property
+     * are left as they are, so they cost no serialization.
+     */
+    static void wrapMaskable(MaskingService maskingService, Object[] params) {
+        for (int i = 0; i < params.length; i++) {
+            Object param = params[i];
+            if (param != null && isMaskable(maskingService, param)) {
+                params[i] = new MaskedArgument(maskingService, param);
+            }
+        }
+    }
+
+    /**
+     * Whether {@code param} is an object that may carry sensitive data and so
+     * must be serialized through the masking mapper.
+     */
+    static boolean isMaskable(MaskingService maskingService, Object param) {
+        if (param instanceof String
+                || param instanceof Number
+                || param instanceof Boolean
+                || param instanceof Character) {
+            return false;
+        }
+
+        if (param instanceof Throwable || param instanceof MaskedArgument) {
+            return false;
+        }
+        return maskingService.canContainSensitiveData(param.getClass());
+    }
+
+    /** The wrapped log parameter. */
+    Object value() {
+        return value;
+    }
+
+    /**
+     * Whether the masked form has already been computed.
+     */
+    public boolean isResolved() {
+        return masked != null;
+    }
+
+    /**
+     * Fixes the rendered form to {@link #REDACTED} unless the masked form has
+     * already been computed. Used when there is no budget to serialize.
+     */
+    void redact() {
+        if (masked == null) {
+            masked = REDACTED;
+        }
+    }
+
+    @Override
+    public String toString() {
+        String result = masked;
+        if (result == null) {
+            result = maskingService.toMaskedJson(value);
+            masked = result;
+        }
+        return result;
+    }
+}
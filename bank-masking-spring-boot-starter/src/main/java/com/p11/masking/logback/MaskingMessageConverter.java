@@ -0,0 +1,34 @@
+package com.p11.masking.logback;
+
+import ch.qos.logback.classic.pattern.MessageConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.p11.masking.core.MaskingService;
+
+/**
+ * Drop-in replacement for Logback's {@code %msg} converter that runs the
+ * formatted message through {@link MaskingService#maskText(String)}, so card
+ * numbers, IBANs, email addresses and phone numbers concatenated into the
+ * message or passed as String arguments are masked. Register it in
+ * {@code logback-spring.xml}:
+ * <pre>
+ * &lt;conversionRule conversionWord="msg"
+ *                 converterClass="com.p11.masking.logback.MaskingMessageConverter"/&gt;
+ * </pre>
+ * The service is looked up in the logger context under {@link #SERVICE_KEY},
+ * where the auto-configuration publishes it; until then messages pass through
+ * unchanged.
+ */
+public class MaskingMessageConverter extends MessageConverter {
+
+    public static final String SERVICE_KEY = "p11.masking.service";
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        String message = event.getFormattedMessage();
+        Object service = getContext() == null ? null : getContext().getObject(SERVICE_KEY);
+        if (service instanceof MaskingService maskingService) {
+            return maskingService.maskText(message);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,352 @@
+package com.p11.masking.logback;
+
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.p11.masking.core.MaskingService;
+import com.p11.masking.core.ObjectPool;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link PatternLayoutEncoder} that masks while it encodes. The pattern is
+ * split around its {@code %msg} conversion; the parts before and after are
+ * rendered by ordinary pattern layouts, while the message is assembled by
+ * this encoder directly as UTF-8 into a reused byte buffer. Object
+ * arguments that can hold sensitive data are serialized by the masking
+ * {@code ObjectMapper} straight into that buffer, so the masked JSON is never
+ * materialised as a String, spliced into a formatted message and re-encoded.
+ * The rest of the message, the format string with the arguments that are not
+ * serialized as JSON, goes through the free-text scanner as one piece per
+ * stretch between JSON arguments.
+ * <pre>
+ * &lt;encoder class="com.p11.masking.logback.MaskingPatternLayoutEncoder"&gt;
+ *     &lt;pattern&gt;%d %-5level [%thread] %logger{36} - %msg%n&lt;/pattern&gt;
+ * &lt;/encoder&gt;
+ * </pre>
+ * The fast path needs a UTF-8 (or default) charset and a pattern with exactly
+ * one plain {@code %msg}/{@code %message}/{@code %m} outside any composite
+ * conversion. Otherwise, and until the auto-configuration has published the
+ * {@link MaskingService} in the logger context, the encoder behaves exactly
+ * like {@link PatternLayoutEncoder}.
+ */
+public class MaskingPatternLayoutEncoder extends PatternLayoutEncoder {
+
+    private static final Pattern MESSAGE_CONVERSION =
+            Pattern.compile("%([-.\\d]*)(?:msg|message|m)(?![A-Za-z])");
+
+    /** Buffers that grew beyond this are dropped after use rather than kept for reuse. */
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final ObjectPool<EncodeBuffer> BUFFERS =
+            new ObjectPool<>(EncodeBuffer::new, buffer -> buffer.capacity() <= MAX_RETAINED_BUFFER);
+
+    private PatternLayout prefixLayout;
+    private PatternLayout suffixLayout;
+    private boolean splitPattern;
+
+    @Override
+    public void start() {
+        super.start();
+        if (!isStarted()) {
+            return;
+        }
+        Charset charset = getCharset();
+        if (charset != null && !StandardCharsets.UTF_8.equals(charset)) {
+            addInfo("Charset " + charset + " is not UTF-8; masking falls back to the formatted message.");
+            return;
+        }
+        int at = findMessageConversion(getPattern());
+        if (at < 0) {
+            addInfo("Pattern [" + getPattern() + "] has no single plain %msg; masking falls back to the formatted message.");
+            return;
+        }
+        Matcher matcher = MESSAGE_CONVERSION.matcher(getPattern());
+        matcher.find(at);
+        String prefix = getPattern().substring(0, at);
+        String suffix = getPattern().substring(matcher.end());
+
+        if (!prefix.isEmpty()) {
+            prefixLayout = newLayout(prefix);
+            // The exception belongs after the message, never in the prefix.
+            prefixLayout.setPostCompileProcessor(null);
+            prefixLayout.start();
+        }
+        suffixLayout = newLayout(suffix.isEmpty() ? "%ex" : suffix);
+        suffixLayout.start();
+        splitPattern = (prefixLayout == null || prefixLayout.isStarted()) && suffixLayout.isStarted();
+    }
+
+    private PatternLayout newLayout(String pattern) {
+        PatternLayout layout = new PatternLayout();
+        layout.setContext(getContext());
+        layout.setPattern(pattern);
+        return layout;
+    }
+
+    /**
+     * Index of the only message conversion in {@code pattern}, or -1 when there
+     * is none, more than one, one with a format modifier or one nested inside
+     * a composite conversion such as {@code %replace(...)}.
+     */
+    static int findMessageConversion(String pattern) {
+        if (pattern == null) {
+            return -1;
+        }
+        Matcher matcher = MESSAGE_CONVERSION.matcher(pattern);
+        int found = -1;
+        while (matcher.find()) {
+            if (found >= 0 || !matcher.group(1).isEmpty() || isEscaped(pattern, matcher.start())
+                    || parenthesisDepth(pattern, matcher.start()) != 0) {
+                return -1;
+            }
+            found = matcher.start();
+        }
+        return found;
+    }
+
+    private static boolean isEscaped(String pattern, int index) {
+        return index > 0 && pattern.charAt(index - 1) == '\\';
+    }
+
+    private static int parenthesisDepth(String pattern, int end) {
+        int depth = 0;
+        for (int i = 0; i < end; i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * Renders {@code event} into a pooled buffer and returns an exact-length
+     * copy of it. The copy cannot be avoided: {@code Encoder.encode} has no
+     * length to go with the array, and {@code OutputStreamAppender} writes the
+     * whole array it gets back, after this method has returned and the
+     * buffer has gone back to the pool. The copy is therefore the one
+     * allocation per event that this path keeps.
+     */
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        MaskingService service = splitPattern ? lookupService() : null;
+        if (service == null || event.getMessage() == null) {
+            return super.encode(event);
+        }
+        EncodeBuffer buffer = BUFFERS.acquire();
+        try {
+            if (prefixLayout != null) {
+                buffer.writeUtf8(prefixLayout.doLayout(event));
+            }
+            writeMessage(event, service, buffer);
+            buffer.writeUtf8(suffixLayout.doLayout(event));
+            return buffer.toByteArray();
+        } finally {
+            buffer.reset();
+            BUFFERS.release(buffer);
+        }
+    }
+
+    private MaskingService lookupService() {
+        Object service = getContext() == null ? null : getContext().getObject(MaskingMessageConverter.SERVICE_KEY);
+        return service instanceof MaskingService maskingService ? maskingService : null;
+    }
+
+    /**
+     * Substitutes {@code {}} placeholders the way SLF4J's
+     * {@link MessageFormatter} does, including {@code \{}} and {@code \\{}}
+     * escapes. Masked JSON arguments are serialized straight into
+     * {@code buffer}; the text between them, the format string together with
+     * every other argument, is scanned as one piece, so personal data split
+     * between the format and an argument is still recognised.
+     */
+    private static void writeMessage(ILoggingEvent event, MaskingService service, EncodeBuffer buffer) {
+        String format = event.getMessage();
+        Object[] args = event.getArgumentArray();
+        boolean scanning = service.isScanEnabled();
+        if (args == null || args.length == 0) {
+            buffer.writeUtf8(scanning ? service.maskText(format) : format);
+            return;
+        }
+        buffer.scanTextWith(scanning ? service : null);
+        boolean masking = service.isEnabled();
+        int from = 0;
+        for (int arg = 0; arg < args.length; arg++) {
+            int at = format.indexOf("{}", from);
+            if (at < 0) {
+                break;
+            }
+            if (at > 0 && format.charAt(at - 1) == '\\') {
+                if (at > 1 && format.charAt(at - 2) == '\\') {
+                    buffer.appendText(format, from, at - 1);
+                    writeArgument(args[arg], service, masking, buffer);
+                    from = at + 2;
+                } else {
+                    arg--;
+                    buffer.appendText(format, from, at - 1);
+                    buffer.appendText("{");
+                    from = at + 1;
+                }
+            } else {
+                buffer.appendText(format, from, at);
+                writeArgument(args[arg], service, masking, buffer);
+                from = at + 2;
+            }
+        }
+        buffer.appendText(format, from, format.length());
+        buffer.flushText();
+    }
+
+    private static void writeArgument(Object arg, MaskingService service, boolean masking, EncodeBuffer buffer) {
+        if (arg instanceof MaskedArgument masked) {
+            if (masked.isResolved()) {
+                buffer.flushText();
+                buffer.writeUtf8(masked.toString());
+                return;
+            }
+            arg = masked.value();
+        }
+        if (!masking || arg == null || !MaskedArgument.isMaskable(service, arg)) {
+            writePlain(arg, buffer);
+            return;
+        }
+        buffer.flushText();
+        int mark = buffer.size();
+        if (!service.writeMaskedJson(arg, buffer)) {
+            buffer.truncate(mark);
+            buffer.appendText(String.valueOf(arg));
+        }
+    }
+
+    private static void writePlain(Object arg, EncodeBuffer buffer) {
+        if (arg != null && arg.getClass().isArray()) {
+            buffer.appendText(MessageFormatter.arrayFormat("{}", new Object[]{arg}).getMessage());
+        } else {
+            buffer.appendText(String.valueOf(arg));
+        }
+    }
+
+    /**
+     * Growable byte buffer with an allocation-free UTF-8 writer for char
+     * sequences. Taken from {@link ObjectPool} per event and reset after it.
+     * Message text goes through {@link #appendText}: without a scanner it is
+     * written straight away, with one it is held back and scanned as a whole
+     * by {@link #flushText()}.
+     */
+    static final class EncodeBuffer extends OutputStream {
+
+        private byte[] bytes = new byte[512];
+        private int size;
+        private final StringBuilder text = new StringBuilder(128);
+        private MaskingService scanner;
+
+        void scanTextWith(MaskingService scanner) {
+            this.scanner = scanner;
+        }
+
+        void appendText(String value) {
+            appendText(value, 0, value.length());
+        }
+
+        void appendText(String value, int from, int to) {
+            if (scanner == null) {
+                writeUtf8(value, from, to);
+            } else {
+                text.append(value, from, to);
+            }
+        }
+
+        void flushText() {
+            if (!text.isEmpty()) {
+                writeUtf8(scanner.maskText(text.toString()));
+                text.setLength(0);
+            }
+        }
+
+        void writeUtf8(String text) {
+            writeUtf8(text, 0, text.length());
+        }
+
+        void writeUtf8(CharSequence text, int from, int to) {
+            ensure(size + (to - from) * 3);
+            byte[] b = bytes;
+            int pos = size;
+            for (int i = from; i < to; i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    b[pos++] = (byte) c;
+                } else if (c < 0x800) {
+                    b[pos++] = (byte) (0xC0 | (c >> 6));
+                    b[pos++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < to
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, text.charAt(++i));
+                    b[pos++] = (byte) (0xF0 | (cp >> 18));
+                    b[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    b[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    b[pos++] = (byte) (0x80 | (cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    b[pos++] = '?';
+                } else {
+                    b[pos++] = (byte) (0xE0 | (c >> 12));
+                    b[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    b[pos++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            size = pos;
+        }
+
+        @Override
+        public void write(int b) {
+            ensure(size + 1);
+            bytes[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensure(size + len);
+            System.arraycopy(b, off, bytes, size, len);
+            size += len;
+        }
+
+        private void ensure(int capacity) {
+            if (capacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        int capacity() {
+            return Math.max(bytes.length, text.capacity());
+        }
+
+        void truncate(int newSize) {
+            size = newSize;
+        }
+
+        void reset() {
+            size = 0;
+            text.setLength(0);
+            scanner = null;
+        }
+
+        /** A copy of the written bytes; the backing array is reused and never handed out. */
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
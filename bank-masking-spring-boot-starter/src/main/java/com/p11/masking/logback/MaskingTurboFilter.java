@@ -4,9 +4,15 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.turbo.TurboFilter;
 import ch.qos.logback.core.spi.FilterReply;
+import com.p11.masking.core.MaskingMetrics;
 import com.p11.masking.core.MaskingService;
 import org.slf4j.Marker;
 
+/**
+ * Replaces object parameters of enabled log calls with {@link MaskedArgument}
+ * wrappers. The masked JSON is produced only if and when the message is
+ * formatted, so events dropped further down the pipeline cost no serialization.
+ */
 public class MaskingTurboFilter extends TurboFilter {
 
     private final MaskingService maskingService;
@@ -23,7 +29,7 @@ public class MaskingTurboFilter extends TurboFilter {
                                Object[] params,
                                Throwable t) {
 
-        if (!maskingService.getProperties().isEnabled() || params == null || params.length == 0) {
+        if (!maskingService.isEnabled() || params == null || params.length == 0) {
             return FilterReply.NEUTRAL;
         }
 
@@ -31,27 +37,13 @@ public class MaskingTurboFilter extends TurboFilter {
             return FilterReply.NEUTRAL;
         }
 
-        for (int i = 0; i < params.length; i++) {
-            Object param = params[i];
-            if (param != null && isMaskable(param)) {
-                params[i] = maskingService.toMaskedJson(param);
-            }
+        MaskingMetrics metrics = maskingService.getMetrics();
+        long start = metrics.isRecording() ? System.nanoTime() : 0L;
+        MaskedArgument.wrapMaskable(maskingService, params);
+        if (start != 0L) {
+            metrics.recordDecide(System.nanoTime() - start);
         }
 
         return FilterReply.NEUTRAL;
     }
-
-    private boolean isMaskable(Object param) {
-        if (param instanceof String
-                || param instanceof Number
-                || param instanceof Boolean
-                || param instanceof Character) {
-            return false;
-        }
-
-        if (param instanceof Throwable) {
-            return false;
-        }
-        return true;
-    }
 }
@@ -0,0 +1,21 @@
+package com.p11.masking.logback;
+
+/**
+ * What {@link AsyncMaskingAppender} does with an event when its ring buffer is full.
+ */
+public enum OverflowPolicy {
+
+    /** Wait on the logging thread until the consumer frees a slot. No event is lost. */
+    BLOCK,
+
+    /** Discard the event and count it. The logging thread never waits. */
+    DROP,
+
+    /**
+     * Write the event on the logging thread with every object parameter replaced
+     * by a redaction marker, so nothing is lost and no serialization runs on the
+     * caller. The event is written ahead of the events still queued, so the log
+     * is out of order around an overflow.
+     */
+    REDACT
+}
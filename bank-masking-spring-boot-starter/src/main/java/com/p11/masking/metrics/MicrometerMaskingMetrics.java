@@ -0,0 +1,94 @@
+package com.p11.masking.metrics;
+
+import com.p11.masking.core.MaskStyle;
+import com.p11.masking.core.MaskingMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link MaskingMetrics} backed by Micrometer. All meters are registered up
+ * front and kept as handles, so recording never looks up a meter or builds a
+ * tag list on the hot path.
+ */
+public class MicrometerMaskingMetrics implements MaskingMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer serializationTimer;
+    private final Counter serializationFailures;
+    private final Timer decideTimer;
+    private final Counter[] maskedFieldsByStyle;
+    /** Micrometer holds function-meter state weakly; keep the bound suppliers reachable. */
+    private final List<Object> boundState = new CopyOnWriteArrayList<>();
+
+    public MicrometerMaskingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.serializationTimer = Timer.builder("p11.masking.serialization")
+                .description("Time spent serialising objects to masked JSON")
+                .register(registry);
+        this.serializationFailures = Counter.builder("p11.masking.serialization.failures")
+                .description("Masked serialisations that failed and fell back to toString()")
+                .register(registry);
+        this.decideTimer = Timer.builder("p11.masking.turbofilter.decide")
+                .description("Time spent in MaskingTurboFilter for log calls with parameters")
+                .register(registry);
+        MaskStyle[] styles = MaskStyle.values();
+        this.maskedFieldsByStyle = new Counter[styles.length];
+        for (MaskStyle style : styles) {
+            maskedFieldsByStyle[style.ordinal()] = Counter.builder("p11.masking.fields.masked")
+                    .description("Property values written masked")
+                    .tag("style", style.name())
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public boolean isRecording() {
+        return true;
+    }
+
+    @Override
+    public void recordSerialization(long nanos) {
+        serializationTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordSerializationFailure() {
+        serializationFailures.increment();
+    }
+
+    @Override
+    public void recordDecide(long nanos) {
+        decideTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordMaskedField(MaskStyle style) {
+        maskedFieldsByStyle[style.ordinal()].increment();
+    }
+
+    @Override
+    public void bindAsyncQueue(IntSupplier depth, int capacity, LongSupplier dropped, LongSupplier redacted) {
+        boundState.addAll(List.of(depth, dropped, redacted));
+        Gauge.builder("p11.masking.async.queue.depth", depth, IntSupplier::getAsInt)
+                .description("Log events waiting for the masking consumer thread")
+                .register(registry);
+        Gauge.builder("p11.masking.async.queue.capacity", () -> capacity)
+                .description("Size of the asynchronous masking ring buffer")
+                .register(registry);
+        FunctionCounter.builder("p11.masking.async.dropped", dropped, LongSupplier::getAsLong)
+                .description("Log events discarded because the masking queue was full")
+                .register(registry);
+        FunctionCounter.builder("p11.masking.async.redacted", redacted, LongSupplier::getAsLong)
+                .description("Log events written with redacted parameters because the masking queue was full")
+                .register(registry);
+    }
+}
@@ -0,0 +1,134 @@
+package com.p11.masking.webflux;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * {@link Jackson2JsonEncoder} over the {@code maskingObjectMapper}, for
+ * reactive endpoints that must not expose sensitive fields.
+ * <p>
+ * Every element of a stream is serialized on its own, straight into a
+ * {@link DataBuffer} from the response's (usually pooled) buffer factory,
+ * rather than through an intermediate byte array. Elements are encoded one by
+ * one as they are requested, so backpressure reaches the source and a stream
+ * is never held in memory as a whole:
+ * <ul>
+ *   <li>a {@code Mono} becomes one buffer;</li>
+ *   <li>a {@code Flux} with a streaming media type ({@code application/x-ndjson},
+ *       {@code application/stream+json}) becomes one buffer per element,
+ *       each followed by the line separator;</li>
+ *   <li>any other {@code Flux} becomes a JSON array written incrementally,
+ *       one buffer per element plus the closing bracket;</li>
+ *   <li>server-sent events call {@link #encodeValue} once per event.</li>
+ * </ul>
+ * Masking is decided per element by the masking mapper, so a configuration
+ * reload in the middle of a stream applies from the next element on.
+ */
+public class MaskingJackson2JsonEncoder extends Jackson2JsonEncoder {
+
+    /** Starting capacity of an element's buffer; it grows as needed. */
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static final byte[] OPEN = "[".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] COMMA = ",".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CLOSE = "]".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EMPTY_ARRAY = "[]".getBytes(StandardCharsets.US_ASCII);
+
+    public MaskingJackson2JsonEncoder(ObjectMapper maskingObjectMapper) {
+        super(maskingObjectMapper);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        if (inputStream instanceof Mono<?> mono) {
+            return mono.map(value -> write(value, bufferFactory, elementType, mimeType, hints, null, null))
+                    .flux();
+        }
+        byte[] separator = getStreamingMediaTypeSeparator(mimeType);
+        if (separator != null) {
+            return Flux.from(inputStream)
+                    .map(value -> write(value, bufferFactory, elementType, mimeType, hints, null, separator))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        }
+        return Flux.defer(() -> {
+            boolean[] started = new boolean[1];
+            Flux<DataBuffer> elements = Flux.from(inputStream).map(value -> {
+                byte[] prefix = started[0] ? COMMA : OPEN;
+                started[0] = true;
+                return write(value, bufferFactory, elementType, mimeType, hints, prefix, null);
+            });
+            return elements.concatWith(Mono.fromSupplier(() ->
+                    bufferFactory.allocateBuffer(2).write(started[0] ? CLOSE : EMPTY_ARRAY)));
+        }).doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  MimeType mimeType, Map<String, Object> hints) {
+        return write(value, bufferFactory, valueType, mimeType, hints, null, null);
+    }
+
+    private DataBuffer write(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                             MimeType mimeType, Map<String, Object> hints, byte[] prefix, byte[] suffix) {
+        ObjectWriter writer = writer(valueType, mimeType, hints);
+        DataBuffer buffer = bufferFactory.allocateBuffer(INITIAL_CAPACITY);
+        boolean release = true;
+        try {
+            if (prefix != null) {
+                buffer.write(prefix);
+            }
+            try (OutputStream out = buffer.asOutputStream();
+                 JsonGenerator generator = getObjectMapper().getFactory()
+                         .createGenerator(out, getJsonEncoding(mimeType))) {
+                writer.writeValue(generator, value);
+            }
+            if (suffix != null) {
+                buffer.write(suffix);
+            }
+            release = false;
+            return buffer;
+        } catch (InvalidDefinitionException ex) {
+            throw new CodecException("Type definition error: " + ex.getType(), ex);
+        } catch (JsonProcessingException ex) {
+            throw new EncodingException("JSON encoding error: " + ex.getOriginalMessage(), ex);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unexpected I/O error while writing to a data buffer", ex);
+        } finally {
+            if (release) {
+                DataBufferUtils.release(buffer);
+            }
+        }
+    }
+
+    private ObjectWriter writer(ResolvableType valueType, MimeType mimeType, Map<String, Object> hints) {
+        Class<?> jsonView = hints != null ? (Class<?>) hints.get(JSON_VIEW_HINT) : null;
+        ObjectWriter writer = jsonView != null
+                ? getObjectMapper().writerWithView(jsonView) : getObjectMapper().writer();
+        JavaType javaType = getJavaType(valueType.getType(), null);
+        if (javaType.isContainerType()) {
+            writer = writer.forType(javaType);
+        }
+        return customizeWriter(writer, mimeType, valueType, hints);
+    }
+}
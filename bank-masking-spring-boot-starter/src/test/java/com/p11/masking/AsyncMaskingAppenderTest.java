@@ -0,0 +1,353 @@
+package com.p11.masking;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.core.MaskingService;
+import com.p11.masking.jackson.MaskingBeanSerializerModifier;
+import com.p11.masking.logback.AsyncMaskingAppender;
+import com.p11.masking.logback.MaskingRingBuffer;
+import com.p11.masking.logback.MaskingTurboFilter;
+import com.p11.masking.logback.OverflowPolicy;
+import jakarta.persistence.Entity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncMaskingAppenderTest {
+
+    @Nested
+    @DisplayName("MaskingRingBuffer")
+    class RingBuffer {
+
+        @Test
+        void roundsCapacityUpToAPowerOfTwo() {
+            assertThat(new MaskingRingBuffer<String>(5).capacity()).isEqualTo(8);
+            assertThat(new MaskingRingBuffer<String>(8).capacity()).isEqualTo(8);
+        }
+
+        @Test
+        void isFifoAndRejectsWhenFull() {
+            MaskingRingBuffer<Integer> ring = new MaskingRingBuffer<>(4);
+            for (int i = 0; i < 4; i++) {
+                assertThat(ring.offer(i)).isTrue();
+            }
+            assertThat(ring.offer(4)).isFalse();
+            assertThat(ring.size()).isEqualTo(4);
+
+            assertThat(ring.poll()).isZero();
+            assertThat(ring.offer(4)).isTrue();
+            assertThat(List.of(ring.poll(), ring.poll(), ring.poll(), ring.poll())).containsExactly(1, 2, 3, 4);
+            assertThat(ring.poll()).isNull();
+            assertThat(ring.isEmpty()).isTrue();
+        }
+
+        @Test
+        void deliversEveryElementFromConcurrentProducers() throws Exception {
+            MaskingRingBuffer<Integer> ring = new MaskingRingBuffer<>(64);
+            int producers = 4;
+            int perProducer = 2_000;
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!ring.offer(base + i)) {
+                            Thread.yield();
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+
+            Set<Integer> seen = new HashSet<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (seen.size() < producers * perProducer && System.nanoTime() < deadline) {
+                Integer value = ring.poll();
+                if (value != null) {
+                    assertThat(seen.add(value)).isTrue();
+                }
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertThat(seen).hasSize(producers * perProducer);
+        }
+    }
+
+    @Nested
+    @DisplayName("AsyncMaskingAppender")
+    class Appender {
+
+        private LoggerContext context;
+        private Logger logger;
+        private ListAppender<ILoggingEvent> sink;
+        private AsyncMaskingAppender async;
+        private final List<String> consumerThreads = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @BeforeEach
+        void setUp() {
+            MaskingProperties properties = new MaskingProperties();
+            properties.setFields(List.of("email"));
+            SimpleModule module = new SimpleModule();
+            module.setSerializerModifier(new MaskingBeanSerializerModifier(properties));
+            MaskingService service = new MaskingService(properties, new ObjectMapper().registerModule(module)) {
+                @Override
+                public String toMaskedJson(Object object) {
+                    consumerThreads.add(Thread.currentThread().getName());
+                    return super.toMaskedJson(object);
+                }
+            };
+
+            context = new LoggerContext();
+            context.setMDCAdapter(MDC.getMDCAdapter());
+            MaskingTurboFilter filter = new MaskingTurboFilter(service);
+            filter.start();
+            context.addTurboFilter(filter);
+
+            logger = context.getLogger("test");
+            logger.setLevel(Level.INFO);
+            logger.setAdditive(false);
+            sink = new ListAppender<>();
+            sink.setContext(context);
+            sink.start();
+            logger.addAppender(sink);
+
+            async = new AsyncMaskingAppender();
+            async.setContext(context);
+            async.setMaskingService(service);
+            async.setName("async");
+        }
+
+        @AfterEach
+        void tearDown() {
+            release.countDown();
+            async.unwrap();
+        }
+
+        @Test
+        void masksAndFormatsOnTheConsumerThread() throws Exception {
+            async.wrapAppendersOf(logger);
+            async.start();
+
+            MDC.put("requestId", "r-1");
+            try {
+                logger.info("Contact: {}", new Contact("john@example.com"));
+            } finally {
+                MDC.remove("requestId");
+            }
+            awaitEvents(1);
+
+            ILoggingEvent event = sink.list.get(0);
+            assertThat(event.getFormattedMessage()).isEqualTo("Contact: {\"email\":\"john************\"}");
+            assertThat(event.getThreadName()).isEqualTo(Thread.currentThread().getName());
+            assertThat(event.getMDCPropertyMap()).containsEntry("requestId", "r-1");
+            assertThat(consumerThreads).containsExactly("masking-async-async");
+        }
+
+        @Test
+        void unwrapRestoresTheOriginalAppenders() {
+            async.wrapAppendersOf(logger);
+            async.start();
+            assertThat(logger.getAppender("async")).isSameAs(async);
+            assertThat(async.isAttached(sink)).isTrue();
+
+            async.unwrap();
+
+            assertThat(async.isStarted()).isFalse();
+            assertThat(logger.getAppender("async")).isNull();
+            assertThat(logger.isAttached(sink)).isTrue();
+        }
+
+        @Test
+        void dropPolicyDiscardsAndCountsOverflow() throws Exception {
+            async.setBufferSize(2);
+            async.setOverflowPolicy(OverflowPolicy.DROP);
+            holdConsumer();
+
+            for (int i = 1; i < 10; i++) {
+                logger.info("event {}", i);
+            }
+            release.countDown();
+            awaitEvents(3);
+
+            assertThat(async.getDroppedCount()).isEqualTo(7);
+            assertThat(sink.list).extracting(ILoggingEvent::getFormattedMessage)
+                    .containsExactly("event 0", "event 1", "event 2");
+        }
+
+        @Test
+        void redactPolicyWritesSynchronouslyWithoutSerialising() throws Exception {
+            async.setBufferSize(2);
+            async.setOverflowPolicy(OverflowPolicy.REDACT);
+            holdConsumer();
+
+            for (int i = 1; i < 5; i++) {
+                logger.info("Contact: {}", new Contact("john@example.com"));
+            }
+            List<String> callerRendered = sink.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+            release.countDown();
+            awaitEvents(5);
+
+            assertThat(async.getRedactedCount()).isEqualTo(2);
+            assertThat(callerRendered).containsExactly("Contact: [REDACTED]", "Contact: [REDACTED]");
+            assertThat(async.getDroppedCount()).isZero();
+            assertThat(consumerThreads).allMatch("masking-async-async"::equals);
+        }
+
+        @Test
+        void blockPolicyLosesNothing() throws Exception {
+            async.setBufferSize(2);
+            async.setOverflowPolicy(OverflowPolicy.BLOCK);
+            async.wrapAppendersOf(logger);
+            async.start();
+
+            for (int i = 0; i < 500; i++) {
+                logger.info("event {}", i);
+            }
+            awaitEvents(500);
+
+            assertThat(async.getDroppedCount()).isZero();
+            assertThat(sink.list.get(499).getFormattedMessage()).isEqualTo("event 499");
+        }
+
+        @Test
+        void idleConsumerParksUntilAnEventArrives() throws Exception {
+            async.wrapAppendersOf(logger);
+            async.start();
+
+            Thread consumer = awaitParkedConsumer();
+            assertThat(consumer.getState()).isEqualTo(Thread.State.WAITING);
+
+            logger.info("event {}", 1);
+            awaitEvents(1);
+            assertThat(sink.list.get(0).getFormattedMessage()).isEqualTo("event 1");
+        }
+
+        @Test
+        void serializesCollectionsOnTheCallingThread() throws Exception {
+            async.wrapAppendersOf(logger);
+            async.start();
+            List<Contact> contacts = new ArrayList<>(List.of(new Contact("john@example.com")));
+
+            logger.info("Contacts: {}", contacts);
+            contacts.set(0, new Contact("jane@example.com"));
+            awaitEvents(1);
+
+            assertThat(sink.list.get(0).getFormattedMessage())
+                    .isEqualTo("Contacts: [{\"email\":\"john************\"}]");
+            assertThat(consumerThreads).containsExactly(Thread.currentThread().getName());
+        }
+
+        @Test
+        void serializesEntitiesAndTheirProxiesOnTheCallingThread() throws Exception {
+            async.wrapAppendersOf(logger);
+            async.start();
+
+            logger.info("Account: {}", new AccountProxy("john@example.com"));
+            awaitEvents(1);
+
+            assertThat(sink.list.get(0).getFormattedMessage()).isEqualTo("Account: {\"email\":\"john************\"}");
+            assertThat(consumerThreads).containsExactly(Thread.currentThread().getName());
+        }
+
+        private Thread awaitParkedConsumer() throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (System.nanoTime() < deadline) {
+                for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                    if (thread.getName().equals("masking-async-async") && thread.getState() == Thread.State.WAITING) {
+                        return thread;
+                    }
+                }
+                Thread.sleep(5);
+            }
+            throw new AssertionError("Consumer did not park");
+        }
+
+        /**
+         * Starts the appender behind a gate that parks the consumer thread on
+         * its first event until {@link #release} is counted down, logs that
+         * first event and waits until the consumer is parked, leaving the ring
+         * empty.
+         */
+        private void holdConsumer() throws InterruptedException {
+            CountDownLatch entered = new CountDownLatch(1);
+            UnsynchronizedAppenderBase<ILoggingEvent> gate = new UnsynchronizedAppenderBase<>() {
+                @Override
+                protected void append(ILoggingEvent event) {
+                    if (!Thread.currentThread().getName().startsWith("masking-async")) {
+                        return;
+                    }
+                    entered.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+            gate.setContext(context);
+            gate.setName("gate");
+            gate.start();
+            logger.detachAppender(sink);
+            logger.addAppender(gate);
+            logger.addAppender(sink);
+            async.wrapAppendersOf(logger);
+            async.start();
+
+            logger.info("event 0");
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        private void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sink.list.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(sink.list).hasSize(count);
+        }
+    }
+
+    public record Contact(String email) {}
+
+    @Entity
+    public static class Account {
+        private final String email;
+
+        Account(String email) {
+            this.email = email;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+    }
+
+    /** Stands in for a persistence provider's subclass proxy, which carries no annotation itself. */
+    public static class AccountProxy extends Account {
+        AccountProxy(String email) {
+            super(email);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.p11.masking;
+
+import com.p11.masking.config.MaskingAutoConfiguration;
+import com.p11.masking.core.FieldEncryptor;
+import com.p11.masking.jpa.EncryptedStringConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FieldEncryptorTest {
+
+    private static final byte[] KEY = new byte[32];
+
+    static {
+        Arrays.fill(KEY, (byte) 7);
+    }
+
+    @AfterEach
+    void uninstall() {
+        FieldEncryptor.install(null);
+    }
+
+    @Nested
+    @DisplayName("Encryption")
+    class Encryption {
+
+        private final FieldEncryptor encryptor = new FieldEncryptor(KEY);
+
+        @Test
+        void roundTripsValuesOfAnyLength() {
+            for (String value : List.of("", "john@example.com", "Ngũgĩ wa Thiong'o ✓", "x".repeat(40_000))) {
+                assertThat(encryptor.decrypt(encryptor.encrypt(value))).isEqualTo(value);
+            }
+            assertThat(encryptor.encrypt(null)).isNull();
+            assertThat(encryptor.decrypt(null)).isNull();
+        }
+
+        @Test
+        void usesAFreshNonceForEveryValue() {
+            String first = encryptor.encrypt("john@example.com");
+            String second = encryptor.encrypt("john@example.com");
+
+            assertThat(first).isNotEqualTo(second).doesNotContain("john");
+            assertThat(Base64.getDecoder().decode(first)).hasSize(12 + 16 + 16);
+            assertThat(Arrays.copyOf(Base64.getDecoder().decode(first), 12))
+                    .isNotEqualTo(Arrays.copyOf(Base64.getDecoder().decode(second), 12));
+        }
+
+        @Test
+        void rejectsAlteredValuesAndOtherKeys() {
+            byte[] bytes = Base64.getDecoder().decode(encryptor.encrypt("john@example.com"));
+            bytes[20] ^= 1;
+            String altered = Base64.getEncoder().encodeToString(bytes);
+            String otherKey = new FieldEncryptor(new byte[16]).encrypt("john@example.com");
+
+            assertThatThrownBy(() -> encryptor.decrypt(altered)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> encryptor.decrypt(otherKey)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> encryptor.decrypt("john@example.com"))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> encryptor.decrypt("c2hvcnQ="))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThat(encryptor.decrypt(encryptor.encrypt("still usable"))).isEqualTo("still usable");
+        }
+
+        @Test
+        void acceptsOnlyAesKeyLengths() {
+            assertThatThrownBy(() -> new FieldEncryptor(new byte[15])).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> new FieldEncryptor(null)).isInstanceOf(IllegalArgumentException.class);
+            assertThat(new FieldEncryptor(new byte[24]).encrypt("a")).isNotEmpty();
+        }
+
+        @Test
+        void decryptsInBulk() {
+            List<String> values = new ArrayList<>();
+            values.add(encryptor.encrypt("a@example.com"));
+            values.add(null);
+            values.add(encryptor.encrypt("+254712345678"));
+
+            encryptor.decryptAll(values);
+
+            assertThat(values).containsExactly("a@example.com", null, "+254712345678");
+        }
+
+        @Test
+        void isSafeAcrossVirtualThreads() throws Exception {
+            List<Future<Boolean>> results = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 1_000; i++) {
+                    String value = "user" + i + "@example.com";
+                    results.add(executor.submit(() -> encryptor.decrypt(encryptor.encrypt(value)).equals(value)));
+                }
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("EncryptedStringConverter")
+    class Converter {
+
+        private final EncryptedStringConverter converter = new EncryptedStringConverter();
+
+        @Test
+        void encryptsWithTheInstalledEncryptor() {
+            FieldEncryptor.install(new FieldEncryptor(KEY));
+
+            String column = converter.convertToDatabaseColumn("john@example.com");
+
+            assertThat(column).doesNotContain("john");
+            assertThat(converter.convertToEntityAttribute(column)).isEqualTo("john@example.com");
+            assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        }
+
+        @Test
+        void refusesToStorePlaintextWithoutAnEncryptor() {
+            assertThatThrownBy(() -> converter.convertToDatabaseColumn("john@example.com"))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("p11.masking.encryption.key");
+        }
+    }
+
+    @Nested
+    @DisplayName("Auto-configuration")
+    class AutoConfiguration {
+
+        private final ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(MaskingAutoConfiguration.class));
+
+        @Test
+        void installsAnEncryptorWhenAKeyIsSet() {
+            runner.withPropertyValues("p11.masking.encryption.key=" + Base64.getEncoder().encodeToString(KEY))
+                    .run(context -> {
+                        assertThat(context).hasSingleBean(FieldEncryptor.class);
+                        assertThat(FieldEncryptor.installed()).isSameAs(context.getBean(FieldEncryptor.class));
+                    });
+            assertThat(FieldEncryptor.installed()).isNull();
+        }
+
+        @Test
+        void installsAnEncryptorTheApplicationDefines() {
+            FieldEncryptor own = new FieldEncryptor(KEY);
+
+            runner.withBean(FieldEncryptor.class, () -> own)
+                    .run(context -> assertThat(FieldEncryptor.installed()).isSameAs(own));
+            assertThat(FieldEncryptor.installed()).isNull();
+        }
+
+        @Test
+        void staysOffWithoutAKey() {
+            runner.run(context -> assertThat(context).doesNotHaveBean(FieldEncryptor.class));
+        }
+
+        @Test
+        void failsOnAKeyThatIsNotBase64() {
+            runner.withPropertyValues("p11.masking.encryption.key=not base64!")
+                    .run(context -> assertThat(context).hasFailed());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.p11.masking;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.p11.masking.annotation.Mask;
+import com.p11.masking.config.MaskingAutoConfiguration;
+import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.core.MaskStyle;
+import com.p11.masking.core.MaskingMetrics;
+import com.p11.masking.core.MaskingService;
+import com.p11.masking.jackson.GeneratedMaskingSerializer;
+import com.p11.masking.jackson.MaskingBeanSerializerModifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The serializers bank-masking-processor generates for the fixtures below,
+ * checked against the runtime introspection path they replace.
+ */
+class GeneratedMaskingSerializerTest {
+
+    private MaskingProperties properties;
+    private ObjectMapper reflective;
+    private ObjectMapper generated;
+
+    @BeforeEach
+    void setUp() {
+        properties = new MaskingProperties();
+        properties.setFields(List.of("iban", "email"));
+
+        SimpleModule reflectiveModule = new SimpleModule();
+        reflectiveModule.setSerializerModifier(new MaskingBeanSerializerModifier(properties));
+        reflective = new ObjectMapper().registerModule(reflectiveModule);
+
+        SimpleModule generatedModule = new SimpleModule();
+        generatedModule.setSerializerModifier(new MaskingBeanSerializerModifier(properties));
+        GeneratedMaskingSerializer.registerAll(generatedModule, properties, MaskingMetrics.NOOP,
+                getClass().getClassLoader());
+        generated = new ObjectMapper().registerModule(generatedModule);
+    }
+
+    private static Payment payment() {
+        Payment payment = new Payment();
+        payment.reference = "PAY-001";
+        payment.card = "4111111111111111";
+        payment.pin = 4321;
+        payment.grade = 'A';
+        payment.settled = true;
+        payment.amount = 12.5;
+        payment.createdAt = 1_700_000_000_000L;
+        payment.iban = "GB29NWBK60161331926819";
+        payment.tags = List.of("a", "b");
+        payment.payee = new Payee();
+        payment.payee.email = "john@example.com";
+        payment.payee.phone = "+254712345678";
+        return payment;
+    }
+
+    @Test
+    void areGeneratedForSupportedClassesOnly() throws Exception {
+        assertThat(generated.getSerializerProviderInstance().findValueSerializer(Payment.class))
+                .isInstanceOf(GeneratedMaskingSerializer.class);
+        assertThat(generated.getSerializerProviderInstance().findValueSerializer(Payee.class))
+                .isInstanceOf(GeneratedMaskingSerializer.class);
+        assertThatThrownBy(() -> Class.forName(getClass().getName() + "_Renamed_MaskingSerializer"))
+                .isInstanceOf(ClassNotFoundException.class);
+    }
+
+    @Test
+    void writeExactlyWhatTheReflectivePathWrites() throws Exception {
+        Payment payment = payment();
+
+        String json = generated.writeValueAsString(payment);
+
+        assertThat(json).isEqualTo(reflective.writeValueAsString(payment));
+        assertThat(json).contains("\"card\":\"************1111\"", "\"pin\":\"####\"", "\"grade\":\"A\"",
+                "\"settled\":true", "\"iban\":\"GB", "\"email\":\"john************\"",
+                "\"phone\":\"+25**********\"", "\"tags\":[\"a\",\"b\"]");
+        assertThat(json).doesNotContain("4111111111111111", "4321", "GB29NWBK60161331926819");
+    }
+
+    @Test
+    void writeNullsAndUnannotatedPropertiesLikeJackson() throws Exception {
+        Payment empty = new Payment();
+
+        assertThat(generated.writeValueAsString(empty)).isEqualTo(reflective.writeValueAsString(empty));
+        assertThat(generated.writeValueAsString(List.of(empty, payment())))
+                .isEqualTo(reflective.writeValueAsString(List.of(empty, payment())));
+    }
+
+    @Test
+    void followConfigurationChanges() throws Exception {
+        MaskingProperties next = new MaskingProperties();
+        next.setFields(List.of("reference"));
+        next.setMaskStyle(MaskStyle.FULL);
+        properties.apply(next);
+
+        String json = generated.writeValueAsString(payment());
+
+        assertThat(json).isEqualTo(reflective.writeValueAsString(payment()));
+        assertThat(json).contains("\"reference\":\"*******\"", "\"iban\":\"GB29NWBK60161331926819\"");
+
+        properties.setEnabled(false);
+        assertThat(generated.writeValueAsString(payment())).contains("4111111111111111");
+    }
+
+    @Test
+    void areRegisteredOnTheMaskingObjectMapperAndClassified() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(MaskingAutoConfiguration.class))
+                .run(context -> {
+                    ObjectMapper mapper = context.getBean("maskingObjectMapper", ObjectMapper.class);
+                    MaskingService service = context.getBean(MaskingService.class);
+
+                    assertThat(mapper.getSerializerProviderInstance().findValueSerializer(Payment.class))
+                            .isInstanceOf(GeneratedMaskingSerializer.class);
+                    assertThat(service.canContainSensitiveData(Payment.class)).isTrue();
+                    assertThat(service.canContainSensitiveData(Holder.class)).isTrue();
+                    assertThat(service.toMaskedJson(payment())).contains("\"card\":\"************1111\"");
+                });
+    }
+
+    public static class Payment {
+        private String reference;
+        @Mask(style = MaskStyle.SHOW_LAST)
+        private String card;
+        @Mask(style = MaskStyle.FULL, maskChar = '#')
+        private int pin;
+        private char grade;
+        private boolean settled;
+        private double amount;
+        private long createdAt;
+        private String iban;
+        private List<String> tags;
+        private Payee payee;
+        private String internalNote;
+
+        public String getReference() { return reference; }
+        public String getCard() { return card; }
+        public int getPin() { return pin; }
+        public char getGrade() { return grade; }
+        public boolean isSettled() { return settled; }
+        public double getAmount() { return amount; }
+        public long getCreatedAt() { return createdAt; }
+        public String getIban() { return iban; }
+        public List<String> getTags() { return tags; }
+        public Payee getPayee() { return payee; }
+    }
+
+    public static class Payee {
+        public String email;
+        @Mask
+        public String phone;
+        public Integer visits;
+    }
+
+    /** Not annotated itself, but reaches a generated type with a masked property. */
+    public static class Holder {
+        public Payee payee;
+    }
+
+    /** Jackson annotations change the output, so this one keeps the runtime path. */
+    public static class Renamed {
+        @JsonProperty("secret")
+        @Mask
+        public String value;
+    }
+}
@@ -0,0 +1,54 @@
+package com.p11.masking;
+
+import com.p11.masking.annotation.Mask;
+import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.core.MaskPlan;
+import com.p11.masking.core.MaskStyle;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MaskPlanTest {
+
+    @Mask(style = MaskStyle.SHOW_LAST)
+    private String defaultChar;
+
+    @Mask(style = MaskStyle.FULL, maskChar = '#')
+    private String customChar;
+
+    @Test
+    void usesGlobalSettingsWithoutAnnotation() {
+        MaskingProperties props = new MaskingProperties();
+        props.setMaskStyle(MaskStyle.FULL);
+        props.setMaskCharacter('x');
+
+        MaskPlan plan = MaskPlan.resolve(null, props);
+
+        assertThat(plan.getStyle()).isEqualTo(MaskStyle.FULL);
+        assertThat(plan.getMaskChar()).isEqualTo('x');
+        assertThat(plan.apply("secret")).isEqualTo("xxxxxx");
+    }
+
+    @Test
+    void annotationWithoutMaskCharFallsBackToConfiguredChar() throws Exception {
+        MaskingProperties props = new MaskingProperties();
+        props.setMaskCharacter('~');
+
+        MaskPlan plan = MaskPlan.resolve(annotation("defaultChar"), props);
+
+        assertThat(plan.getStyle()).isEqualTo(MaskStyle.SHOW_LAST);
+        assertThat(plan.apply("4111111111111111")).isEqualTo("~~~~~~~~~~~~1111");
+    }
+
+    @Test
+    void annotationMaskCharWins() throws Exception {
+        MaskPlan plan = MaskPlan.resolve(annotation("customChar"), new MaskingProperties());
+
+        assertThat(plan.getMaskChar()).isEqualTo('#');
+        assertThat(plan.apply("abc")).isEqualTo("###");
+    }
+
+    private static Mask annotation(String field) throws NoSuchFieldException {
+        return MaskPlanTest.class.getDeclaredField(field).getAnnotation(Mask.class);
+    }
+}
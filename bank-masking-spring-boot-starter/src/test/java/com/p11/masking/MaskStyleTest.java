@@ -5,8 +5,11 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.NullAndEmptySource;
 
+import java.io.StringWriter;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DisplayName("MaskStyle")
@@ -81,4 +84,81 @@ class MaskStyleTest {
             assertThat(MaskStyle.SHOW_LAST.apply(input, '*')).isEqualTo(input);
         }
     }
+
+    @Nested
+    @DisplayName("buffer API")
+    class BufferApi {
+
+        @ParameterizedTest
+        @EnumSource(MaskStyle.class)
+        void maskIntoMatchesApply(MaskStyle style) {
+            String value = "4111111111111111";
+            char[] dest = new char[20];
+            int written = style.maskInto("xx" + value + "yy", 2, value.length(), '#', dest, 3);
+
+            assertThat(new String(dest, 3, written)).isEqualTo(style.apply(value, '#'));
+        }
+
+        @ParameterizedTest
+        @EnumSource(MaskStyle.class)
+        void maskInPlaceMatchesApply(MaskStyle style) {
+            char[] buf = "--secret123--".toCharArray();
+            int written = style.maskInPlace(buf, 2, 9, '*');
+
+            assertThat(new String(buf, 2, written)).isEqualTo(style.apply("secret123", '*'));
+            assertThat(new String(buf, 0, 2)).isEqualTo("--");
+            assertThat(new String(buf, 11, 2)).isEqualTo("--");
+        }
+
+        @ParameterizedTest
+        @EnumSource(MaskStyle.class)
+        void appendToBuilderAndWriterMatchApply(MaskStyle style) throws Exception {
+            String value = "email@example.com";
+            StringBuilder sb = new StringBuilder("> ");
+            StringWriter writer = new StringWriter();
+
+            style.appendTo(value, 0, value.length(), '*', sb);
+            style.appendTo(value, 0, value.length(), '*', writer);
+
+            assertThat(sb).hasToString("> " + style.apply(value, '*'));
+            assertThat(writer).hasToString(style.apply(value, '*'));
+        }
+
+        @Test
+        void fullyVisibleValueIsReturnedAsIs() {
+            String value = "abc";
+            assertThat(MaskStyle.SHOW_LAST.apply(value, '*')).isSameAs(value);
+        }
+    }
+
+    @Nested
+    @DisplayName("large values")
+    class LargeValues {
+
+        private String scratchPath(MaskStyle style, String value, char maskChar) {
+            char[] dest = new char[style.maskedLength(value.length())];
+            return new String(dest, 0, style.maskInto(value, 0, value.length(), maskChar, dest, 0));
+        }
+
+        @ParameterizedTest
+        @EnumSource(MaskStyle.class)
+        void matchTheScratchArrayPathAroundTheThreshold(MaskStyle style) {
+            for (int length : new int[] {255, 256, 257, 4096}) {
+                String value = "0123456789".repeat(length / 10 + 1).substring(0, length);
+
+                assertThat(style.apply(value, '*'))
+                        .as("%s at %d chars", style, length)
+                        .isEqualTo(scratchPath(style, value, '*'));
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(MaskStyle.class)
+        void handleNonLatin1TextAndMaskCharacters(MaskStyle style) {
+            String value = "Zahlung über 100 € an Jürgen ".repeat(20);
+
+            assertThat(style.apply(value, '*')).isEqualTo(scratchPath(style, value, '*'));
+            assertThat(style.apply(value, '•')).isEqualTo(scratchPath(style, value, '•'));
+        }
+    }
 }
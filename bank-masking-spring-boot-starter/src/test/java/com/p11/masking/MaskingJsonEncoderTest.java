@@ -0,0 +1,218 @@
+package com.p11.masking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p11.masking.annotation.Mask;
+import com.p11.masking.config.MaskingAutoConfiguration;
+import com.p11.masking.config.MaskingWebFluxAutoConfiguration;
+import com.p11.masking.core.MaskStyle;
+import com.p11.masking.webflux.MaskingJackson2JsonEncoder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.http.codec.CodecsAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("MaskingJackson2JsonEncoder")
+class MaskingJsonEncoderTest {
+
+    private static final ResolvableType PAYMENT = ResolvableType.forClass(Payment.class);
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(MaskingAutoConfiguration.class))
+            .withPropertyValues("p11.masking.fields=email");
+
+    private static Payment payment(int i) {
+        Payment payment = new Payment();
+        payment.id = i;
+        payment.cardNumber = "411111111111" + (1000 + i);
+        payment.email = "user" + i + "@example.com";
+        return payment;
+    }
+
+    private static List<String> encode(MaskingJackson2JsonEncoder encoder, Flux<?> input, MediaType mediaType) {
+        return encoder.encode(input, DefaultDataBufferFactory.sharedInstance, PAYMENT, mediaType,
+                        Collections.emptyMap())
+                .map(buffer -> {
+                    String text = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return text;
+                })
+                .collectList()
+                .block();
+    }
+
+    @Nested
+    @DisplayName("encoding")
+    class Encoding {
+
+        @Test
+        void writesOneMaskedLinePerElementForNdjson() {
+            runner.run(context -> {
+                MaskingJackson2JsonEncoder encoder = encoder(context);
+
+                List<String> chunks = encode(encoder, Flux.range(1, 3).map(MaskingJsonEncoderTest::payment),
+                        MediaType.APPLICATION_NDJSON);
+
+                assertThat(chunks).hasSize(3).allSatisfy(chunk -> assertThat(chunk)
+                        .endsWith("}\n")
+                        .doesNotContain("@example.com", "4111111111"));
+                assertThat(chunks.get(0)).isEqualTo("{\"id\":1,\"cardNumber\":\"************1001\","
+                        + "\"email\":\"user*************\"}\n");
+            });
+        }
+
+        @Test
+        void writesAJsonArrayIncrementallyForApplicationJson() throws Exception {
+            runner.run(context -> {
+                MaskingJackson2JsonEncoder encoder = encoder(context);
+
+                List<String> chunks = encode(encoder, Flux.range(1, 3).map(MaskingJsonEncoderTest::payment),
+                        MediaType.APPLICATION_JSON);
+
+                assertThat(chunks).hasSize(4);
+                assertThat(chunks.get(0)).startsWith("[{");
+                assertThat(chunks.get(1)).startsWith(",{");
+                assertThat(chunks.get(3)).isEqualTo("]");
+                Payment[] decoded = new ObjectMapper().readValue(String.join("", chunks), Payment[].class);
+                assertThat(decoded).extracting(p -> p.cardNumber)
+                        .containsExactly("************1001", "************1002", "************1003");
+            });
+        }
+
+        @Test
+        void writesAnEmptyArrayForAnEmptyFlux() {
+            runner.run(context -> assertThat(encode(encoder(context), Flux.empty(), MediaType.APPLICATION_JSON))
+                    .containsExactly("[]"));
+        }
+
+        @Test
+        void writesASingleValueForAMono() {
+            runner.run(context -> {
+                List<String> chunks = encoder(context)
+                        .encode(Mono.just(payment(7)), DefaultDataBufferFactory.sharedInstance, PAYMENT,
+                                MediaType.APPLICATION_JSON, Collections.emptyMap())
+                        .map(buffer -> buffer.toString(StandardCharsets.UTF_8))
+                        .collectList()
+                        .block();
+
+                assertThat(chunks).singleElement().asString()
+                        .startsWith("{\"id\":7,")
+                        .contains("\"cardNumber\":\"************1007\"");
+            });
+        }
+
+        @Test
+        void encodesSingleValuesLikeServerSentEventsDo() {
+            runner.run(context -> {
+                DataBuffer buffer = encoder(context).encodeValue(payment(2), DefaultDataBufferFactory.sharedInstance,
+                        PAYMENT, MediaType.TEXT_EVENT_STREAM, Collections.emptyMap());
+
+                assertThat(buffer.toString(StandardCharsets.UTF_8))
+                        .contains("\"email\":\"user*************\"");
+            });
+        }
+
+        @Test
+        void requestsElementsOnlyAsTheyAreConsumed() {
+            runner.run(context -> {
+                AtomicLong requested = new AtomicLong();
+                Flux<Payment> unbounded = Flux.range(1, Integer.MAX_VALUE)
+                        .doOnRequest(n -> requested.addAndGet(Math.min(n, Integer.MAX_VALUE)))
+                        .map(MaskingJsonEncoderTest::payment);
+
+                List<String> chunks = new ArrayList<>();
+                encoder(context).encode(unbounded, DefaultDataBufferFactory.sharedInstance, PAYMENT,
+                                MediaType.APPLICATION_NDJSON, Collections.emptyMap())
+                        .limitRate(4)
+                        .take(10)
+                        .doOnNext(buffer -> {
+                            chunks.add(buffer.toString(StandardCharsets.UTF_8));
+                            DataBufferUtils.release(buffer);
+                        })
+                        .blockLast();
+
+                assertThat(chunks).hasSize(10);
+                assertThat(requested.get()).isLessThan(20);
+            });
+        }
+    }
+
+    @Nested
+    @DisplayName("auto-configuration")
+    class AutoConfig {
+
+        private final ReactiveWebApplicationContextRunner webRunner = new ReactiveWebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class,
+                        CodecsAutoConfiguration.class,
+                        MaskingAutoConfiguration.class, MaskingWebFluxAutoConfiguration.class))
+                .withPropertyValues("p11.masking.fields=email");
+
+        @Test
+        void providesTheEncoderButKeepsTheDefaultResponseEncoder() {
+            webRunner.run(context -> {
+                assertThat(context).hasSingleBean(MaskingJackson2JsonEncoder.class);
+                assertThat(jsonEncoder(context)).isNotInstanceOf(MaskingJackson2JsonEncoder.class);
+            });
+        }
+
+        @Test
+        void masksResponsesWhenEnabled() {
+            webRunner.withPropertyValues("p11.masking.webflux.mask-responses=true").run(context ->
+                    assertThat(jsonEncoder(context)).isSameAs(context.getBean(MaskingJackson2JsonEncoder.class)));
+        }
+
+        @Test
+        void backsOffOutsideReactiveApplications() {
+            runner.withConfiguration(AutoConfigurations.of(MaskingWebFluxAutoConfiguration.class))
+                    .run(context -> assertThat(context).doesNotHaveBean(MaskingJackson2JsonEncoder.class));
+        }
+
+        /** The server's JSON encoder, after the customizers have run as {@code WebFluxAutoConfiguration} runs them. */
+        private Encoder<?> jsonEncoder(ApplicationContext context) {
+            ServerCodecConfigurer configurer = ServerCodecConfigurer.create();
+            context.getBeanProvider(CodecCustomizer.class).orderedStream()
+                    .forEach(customizer -> customizer.customize(configurer));
+            return configurer.getWriters().stream()
+                    .filter(EncoderHttpMessageWriter.class::isInstance)
+                    .map(writer -> ((EncoderHttpMessageWriter<?>) writer).getEncoder())
+                    .filter(Jackson2JsonEncoder.class::isInstance)
+                    .findFirst()
+                    .orElseThrow();
+        }
+    }
+
+    private static MaskingJackson2JsonEncoder encoder(ApplicationContext context) {
+        return new MaskingJackson2JsonEncoder(context.getBean("maskingObjectMapper", ObjectMapper.class));
+    }
+
+    public static class Payment {
+        public int id;
+        @Mask(style = MaskStyle.SHOW_LAST)
+        public String cardNumber;
+        public String email;
+    }
+}
@@ -0,0 +1,114 @@
+package com.p11.masking;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.p11.masking.annotation.Mask;
+import com.p11.masking.config.MaskingAutoConfiguration;
+import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.core.MaskStyle;
+import com.p11.masking.core.MaskingMetrics;
+import com.p11.masking.core.MaskingService;
+import com.p11.masking.jackson.MaskingBeanSerializerModifier;
+import com.p11.masking.logback.AsyncMaskingAppender;
+import com.p11.masking.logback.MaskingTurboFilter;
+import com.p11.masking.metrics.MicrometerMaskingMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MaskingMetricsTest {
+
+    private MeterRegistry registry;
+    private MaskingService maskingService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        MaskingMetrics metrics = new MicrometerMaskingMetrics(registry);
+
+        MaskingProperties properties = new MaskingProperties();
+        properties.setFields(List.of("email"));
+        SimpleModule module = new SimpleModule();
+        module.setSerializerModifier(new MaskingBeanSerializerModifier(properties, metrics));
+        maskingService = new MaskingService(properties, new ObjectMapper().registerModule(module), metrics);
+    }
+
+    @Test
+    void recordsSerialisationTimeAndMaskedFieldsPerStyle() {
+        maskingService.toMaskedJson(new Contact("john@example.com", "4111111111111111"));
+        maskingService.toMaskedJson(new Contact("jane@example.com", null));
+
+        assertThat(registry.get("p11.masking.serialization").timer().count()).isEqualTo(2);
+        assertThat(registry.get("p11.masking.fields.masked").tag("style", "PARTIAL").counter().count())
+                .isEqualTo(2);
+        assertThat(registry.get("p11.masking.fields.masked").tag("style", "SHOW_LAST").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void countsSerialisationFailures() {
+        maskingService.toMaskedJson(new Object());
+
+        assertThat(registry.get("p11.masking.serialization.failures").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void timesTurboFilterDecideOnlyWhenThereAreParams() {
+        MaskingTurboFilter filter = new MaskingTurboFilter(maskingService);
+        Logger logger = new LoggerContext().getLogger("test");
+        logger.setLevel(Level.INFO);
+
+        filter.decide(null, logger, Level.INFO, "no params", null, null);
+        filter.decide(null, logger, Level.INFO, "{}", new Object[]{new Contact("a@b.com", null)}, null);
+
+        assertThat(registry.get("p11.masking.turbofilter.decide").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void metricsBeanIsRegisteredOnlyWithAMeterRegistry() {
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(MaskingAutoConfiguration.class));
+
+        runner.run(context -> assertThat(context).doesNotHaveBean(MaskingMetrics.class));
+        runner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .run(context -> assertThat(context).hasSingleBean(MicrometerMaskingMetrics.class));
+    }
+
+    static class Contact {
+        public final String email;
+        @Mask(style = MaskStyle.SHOW_LAST)
+        public final String card;
+
+        Contact(String email, String card) {
+            this.email = email;
+            this.card = card;
+        }
+    }
+
+    @Test
+    void asyncAppenderExposesQueueGaugesWhenEnabled() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(MaskingAutoConfiguration.class))
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withPropertyValues("p11.masking.async.enabled=true", "p11.masking.async.buffer-size=100")
+                .run(context -> {
+                    AsyncMaskingAppender appender = context.getBean(AsyncMaskingAppender.class);
+                    MeterRegistry meters = context.getBean(MeterRegistry.class);
+
+                    assertThat(appender.isStarted()).isTrue();
+                    assertThat(meters.get("p11.masking.async.queue.capacity").gauge().value()).isEqualTo(128);
+                    assertThat(meters.get("p11.masking.async.queue.depth").gauge().value()).isZero();
+                    assertThat(meters.get("p11.masking.async.dropped").functionCounter().count()).isZero();
+                });
+    }
+}
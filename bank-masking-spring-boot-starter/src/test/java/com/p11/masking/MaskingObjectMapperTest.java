@@ -0,0 +1,178 @@
+package com.p11.masking;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.p11.masking.annotation.Mask;
+import com.p11.masking.config.MaskingAutoConfiguration;
+import com.p11.masking.core.MaskStyle;
+import com.p11.masking.core.MaskingService;
+import com.p11.masking.jackson.GeneratedMaskingSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("maskingObjectMapper")
+class MaskingObjectMapperTest {
+
+    // User configuration first, as in an application context.
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class, MaskingAutoConfiguration.class))
+            .withPropertyValues("p11.masking.fields=email");
+
+    private static Statement statement() {
+        Statement statement = new Statement();
+        statement.accountNumber = "4111111111111111";
+        statement.email = "john@example.com";
+        statement.issuedOn = LocalDate.of(2024, 3, 1);
+        return statement;
+    }
+
+    @Nested
+    @DisplayName("standalone (default)")
+    class Standalone {
+
+        @Test
+        void leavesBootsPrimaryMapperInPlaceAndUnmasked() {
+            runner.run(context -> {
+                ObjectMapper primary = context.getBean(ObjectMapper.class);
+                ObjectMapper masking = context.getBean("maskingObjectMapper", ObjectMapper.class);
+
+                assertThat(context).hasBean("jacksonObjectMapper");
+                assertThat(primary).isNotSameAs(masking);
+                assertThat(primary.writeValueAsString(statement())).contains("\"email\":\"john@example.com\"");
+                assertThat(masking.writeValueAsString(statement())).contains("\"email\":\"john************\"");
+            });
+        }
+
+        @Test
+        void ignoresTheApplicationsJacksonSettings() {
+            runner.withPropertyValues("spring.jackson.property-naming-strategy=SNAKE_CASE")
+                    .run(context -> {
+                        ObjectMapper masking = context.getBean("maskingObjectMapper", ObjectMapper.class);
+
+                        assertThat(masking.writeValueAsString(statement()))
+                                .contains("\"accountNumber\":\"************1111\"");
+                    });
+        }
+    }
+
+    @Nested
+    @DisplayName("derived")
+    class Derived {
+
+        private final ApplicationContextRunner derived = runner.withPropertyValues("p11.masking.mapper-mode=derived");
+
+        @Test
+        void copiesTheApplicationMapperAndSharesItsTypeFactory() {
+            derived.run(context -> {
+                ObjectMapper primary = context.getBean(ObjectMapper.class);
+                ObjectMapper masking = context.getBean("maskingObjectMapper", ObjectMapper.class);
+
+                assertThat(masking).isNotSameAs(primary);
+                assertThat(masking.getTypeFactory()).isSameAs(primary.getTypeFactory());
+                assertThat(masking.writeValueAsString(statement()))
+                        .contains("\"email\":\"john************\"", "\"accountNumber\":\"************1111\"")
+                        // Boot writes dates as ISO strings; the standalone mapper writes arrays.
+                        .contains("\"issuedOn\":\"2024-03-01\"");
+                assertThat(primary.writeValueAsString(statement())).contains("\"email\":\"john@example.com\"");
+            });
+        }
+
+        @Test
+        void followsTheApplicationsNamingWithoutGeneratedSerializers() {
+            derived.withPropertyValues("spring.jackson.property-naming-strategy=SNAKE_CASE")
+                    .run(context -> {
+                        ObjectMapper masking = context.getBean("maskingObjectMapper", ObjectMapper.class);
+
+                        assertThat(masking.getSerializerProviderInstance().findValueSerializer(Statement.class))
+                                .isNotInstanceOf(GeneratedMaskingSerializer.class);
+                        assertThat(masking.writeValueAsString(statement()))
+                                .contains("\"account_number\":\"************1111\"",
+                                        "\"email\":\"john************\"");
+                    });
+        }
+
+        @Test
+        void leavesGeneratedSerializersOutSoTheApplicationsModifiersApply() {
+            derived.withUserConfiguration(DropIssuedOn.class).run(context -> {
+                ObjectMapper masking = context.getBean("maskingObjectMapper", ObjectMapper.class);
+
+                assertThat(masking.getSerializerProviderInstance().findValueSerializer(Statement.class))
+                        .isNotInstanceOf(GeneratedMaskingSerializer.class);
+                assertThat(masking.writeValueAsString(statement()))
+                        .contains("\"accountNumber\":\"************1111\"")
+                        .doesNotContain("issuedOn");
+            });
+        }
+
+        @Test
+        void fallsBackToStandaloneWithoutAnApplicationMapper() {
+            new ApplicationContextRunner()
+                    .withConfiguration(AutoConfigurations.of(MaskingAutoConfiguration.class))
+                    .withPropertyValues("p11.masking.mapper-mode=derived", "p11.masking.fields=email")
+                    .run(context -> {
+                        assertThat(context).hasSingleBean(ObjectMapper.class);
+                        assertThat(context.getBean(MaskingService.class).toMaskedJson(statement()))
+                                .contains("\"email\":\"john************\"");
+                    });
+        }
+
+        @Test
+        void backsOffForAUserDefinedMaskingMapper() {
+            derived.withUserConfiguration(CustomMaskingMapper.class).run(context ->
+                    assertThat(context.getBean("maskingObjectMapper"))
+                            .isSameAs(context.getBean(CustomMaskingMapper.class).mapper));
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class CustomMaskingMapper {
+
+        final ObjectMapper mapper = new ObjectMapper();
+
+        @Bean
+        ObjectMapper maskingObjectMapper() {
+            return mapper;
+        }
+    }
+
+    /** An application module whose modifier drops a property. */
+    @Configuration(proxyBeanMethods = false)
+    static class DropIssuedOn {
+
+        @Bean
+        Module dropIssuedOn() {
+            return new SimpleModule("DropIssuedOn").setSerializerModifier(new BeanSerializerModifier() {
+                @Override
+                public List<BeanPropertyWriter> changeProperties(SerializationConfig config,
+                                                                 BeanDescription description,
+                                                                 List<BeanPropertyWriter> properties) {
+                    properties.removeIf(writer -> writer.getName().equals("issuedOn"));
+                    return properties;
+                }
+            });
+        }
+    }
+
+    public static class Statement {
+        @Mask(style = MaskStyle.SHOW_LAST)
+        public String accountNumber;
+        public String email;
+        public LocalDate issuedOn;
+    }
+}
@@ -0,0 +1,172 @@
+package com.p11.masking;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.core.MaskingService;
+import com.p11.masking.jackson.MaskingBeanSerializerModifier;
+import com.p11.masking.logback.MaskedArgument;
+import com.p11.masking.logback.MaskingMessageConverter;
+import com.p11.masking.logback.MaskingPatternLayoutEncoder;
+import com.p11.masking.logback.MaskingTurboFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MaskingPatternLayoutEncoderTest {
+
+    private LoggerContext context;
+    private MaskingProperties properties;
+    private MaskingService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new MaskingProperties();
+        properties.setFields(List.of("email"));
+        SimpleModule module = new SimpleModule();
+        module.setSerializerModifier(new MaskingBeanSerializerModifier(properties));
+        service = new MaskingService(properties, new ObjectMapper().registerModule(module));
+        context = new LoggerContext();
+        context.putObject(MaskingMessageConverter.SERVICE_KEY, service);
+    }
+
+    @Test
+    void writesMaskedJsonInPlaceOfTheArgument() {
+        MaskingPatternLayoutEncoder encoder = encoder("%level [%logger] %msg%n");
+
+        String line = encode(encoder, "Saved {} for {}", new Contact("john@example.com"), "jane@example.com");
+
+        assertThat(line).isEqualTo("INFO [test] Saved {\"email\":\"john************\"} for jane************\n");
+    }
+
+    @Test
+    void scansPersonalDataSplitBetweenTheFormatAndAnArgument() {
+        MaskingPatternLayoutEncoder encoder = encoder("%msg");
+
+        assertThat(encode(encoder, "to DE89 {}.", "3704 0044 0532 0130 00"))
+                .isEqualTo("to DE89 3*********************.");
+        assertThat(encode(encoder, "Saved {} for {}@example.com", new Contact("john@example.com"), "jane"))
+                .isEqualTo("Saved {\"email\":\"john************\"} for jane************");
+    }
+
+    @Test
+    void writesWrappedArgumentsPlainWhenMaskingIsDisabled() {
+        MaskingPatternLayoutEncoder encoder = encoder("%msg");
+        Object[] params = {new Contact("john@example.com")};
+        new MaskingTurboFilter(service).decide(null, context.getLogger("test"), Level.INFO, "{}", params, null);
+        assertThat(params[0]).isInstanceOf(MaskedArgument.class);
+        properties.setEnabled(false);
+
+        assertThat(encode(encoder, "Saved {}", params)).isEqualTo("Saved Contact[email=john@example.com]");
+    }
+
+    @Test
+    void matchesSlf4jPlaceholderSemantics() {
+        MaskingPatternLayoutEncoder encoder = encoder("%msg");
+
+        assertThat(encode(encoder, "a \\{} b {} c", 1)).isEqualTo("a {} b 1 c");
+        assertThat(encode(encoder, "a \\\\{} b", 1)).isEqualTo("a \\1 b");
+        assertThat(encode(encoder, "{} {} {}", 1, null)).isEqualTo("1 null {}");
+        assertThat(encode(encoder, "no args {}", new Object[0])).isEqualTo("no args {}");
+        assertThat(encode(encoder, "array {}", (Object) new int[]{1, 2})).isEqualTo("array [1, 2]");
+        assertThat(encode(encoder, "ünïcødé € {}", "𝄞")).isEqualTo("ünïcødé € 𝄞");
+    }
+
+    @Test
+    void producesTheSameBytesAsTheStandardEncoderForCleanEvents() {
+        String pattern = "%-5level %logger{10} - %msg%n";
+        MaskingPatternLayoutEncoder masking = encoder(pattern);
+        PatternLayoutEncoder standard = new PatternLayoutEncoder();
+        standard.setContext(context);
+        standard.setPattern(pattern);
+        standard.start();
+
+        LoggingEvent event = event("Order {} shipped to {}", 42, "Nairobi");
+        event.setThrowableProxy(new ch.qos.logback.classic.spi.ThrowableProxy(new IllegalStateException("boom")));
+
+        assertThat(masking.encode(event)).isEqualTo(standard.encode(event));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"%-20msg%n", "%replace(%msg){'x','y'}%n", "%msg %msg", "%level only", "\\%msg"})
+    void fallsBackToTheFormattedMessageForPatternsItCannotSplit(String pattern) {
+        MaskingPatternLayoutEncoder encoder = encoder(pattern);
+
+        assertThat(encoder.isStarted()).isTrue();
+        assertThat(encode(encoder, "Saved {}", new Contact("john@example.com")))
+                .doesNotContain("john************");
+    }
+
+    @Test
+    void encodesAnEventLoggedWhileAnArgumentIsSerialised() {
+        MaskingPatternLayoutEncoder encoder = encoder("%msg|");
+        List<String> nested = new ArrayList<>();
+        Audited audited = new Audited("john@example.com",
+                () -> nested.add(encode(encoder, "read {}", new Contact("jane@example.com"))));
+
+        String line = encode(encoder, "Saved {} for {}", audited, "ops@example.com");
+
+        assertThat(nested).containsExactly("read {\"email\":\"jane************\"}|");
+        assertThat(line).isEqualTo("Saved {\"email\":\"john************\"} for ops************|");
+    }
+
+    @Test
+    void fallsBackUntilTheServiceIsPublished() {
+        LoggerContext bare = new LoggerContext();
+        MaskingPatternLayoutEncoder encoder = new MaskingPatternLayoutEncoder();
+        encoder.setContext(bare);
+        encoder.setPattern("%msg");
+        encoder.start();
+
+        String line = new String(encoder.encode(new LoggingEvent("fqcn", bare.getLogger("test"), Level.INFO,
+                "card {}", null, new Object[]{"4111111111111111"})), StandardCharsets.UTF_8);
+
+        assertThat(line).isEqualTo("card 4111111111111111");
+    }
+
+    private MaskingPatternLayoutEncoder encoder(String pattern) {
+        MaskingPatternLayoutEncoder encoder = new MaskingPatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(pattern);
+        encoder.start();
+        return encoder;
+    }
+
+    private String encode(MaskingPatternLayoutEncoder encoder, String format, Object... args) {
+        return new String(encoder.encode(event(format, args)), StandardCharsets.UTF_8);
+    }
+
+    private LoggingEvent event(String format, Object... args) {
+        return new LoggingEvent("fqcn", context.getLogger("test"), Level.INFO, format, null, args);
+    }
+
+    public record Contact(String email) {}
+
+    /** Logs from its getter, as an entity with an auditing accessor might. */
+    public static final class Audited {
+
+        private final String email;
+        private final Runnable onRead;
+
+        Audited(String email, Runnable onRead) {
+            this.email = email;
+            this.onRead = onRead;
+        }
+
+        public String getEmail() {
+            onRead.run();
+            return email;
+        }
+    }
+}
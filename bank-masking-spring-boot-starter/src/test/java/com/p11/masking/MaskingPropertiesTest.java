@@ -1,12 +1,15 @@
 package com.p11.masking;
 
 import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.config.SensitiveFieldIndex;
 import com.p11.masking.core.MaskStyle;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class MaskingPropertiesTest {
 
@@ -38,4 +41,37 @@ class MaskingPropertiesTest {
         props.setFields(List.of("ssn", "creditCardNumber"));
         assertThat(props.getFields()).containsExactlyInAnyOrder("ssn", "creditCardNumber");
     }
+
+    @Test
+    void fieldIndexIsRebuiltWhenFieldsBind() {
+        MaskingProperties props = new MaskingProperties();
+        assertThat(props.getFieldIndex().isEmpty()).isTrue();
+
+        props.setFields(List.of("iban", "IBAN", "pin"));
+
+        assertThat(props.getFieldIndex().size()).isEqualTo(2);
+        assertThat(props.getFieldIndex().contains("Iban")).isTrue();
+        assertThat(props.getFieldIndex().contains("pin")).isTrue();
+        assertThat(props.getFieldIndex().contains("pins")).isFalse();
+    }
+
+    @Test
+    void fieldsCannotBeMutatedBehindTheIndex() {
+        MaskingProperties props = new MaskingProperties();
+        props.setFields(List.of("ssn"));
+
+        assertThatThrownBy(() -> props.getFields().add("email"))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void fieldIndexHandlesManyNames() {
+        List<String> names = IntStream.range(0, 500).mapToObj(i -> "field" + i).toList();
+        SensitiveFieldIndex index = SensitiveFieldIndex.of(names);
+
+        assertThat(index.size()).isEqualTo(500);
+        assertThat(names).allMatch(n -> index.contains(n.toUpperCase()));
+        assertThat(index.contains("field500")).isFalse();
+        assertThat(index.contains("")).isFalse();
+    }
 }
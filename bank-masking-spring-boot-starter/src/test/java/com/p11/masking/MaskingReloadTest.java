@@ -0,0 +1,318 @@
+package com.p11.masking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+import com.p11.masking.annotation.Mask;
+import com.p11.masking.config.MaskingAutoConfiguration;
+import com.p11.masking.config.MaskingConfigReloader;
+import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.config.MaskingSnapshot;
+import com.p11.masking.core.MaskStyle;
+import com.p11.masking.core.MaskingService;
+import com.p11.masking.core.MaskingMetrics;
+import com.p11.masking.jackson.MaskingBeanSerializerModifier;
+import com.p11.masking.jackson.MaskingPropertyWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Configuration reload")
+class MaskingReloadTest {
+
+    private MaskingProperties properties;
+    private ObjectMapper mapper;
+    private MaskingService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new MaskingProperties();
+        properties.setFields(List.of("email"));
+        SimpleModule module = new SimpleModule();
+        module.setSerializerModifier(new MaskingBeanSerializerModifier(properties));
+        mapper = new ObjectMapper().registerModule(module);
+        service = new MaskingService(properties, mapper);
+    }
+
+    private static MaskingProperties reloaded(MaskStyle style, String... fields) {
+        MaskingProperties next = new MaskingProperties();
+        next.setMaskStyle(style);
+        next.setFields(List.of(fields));
+        return next;
+    }
+
+    @Nested
+    @DisplayName("cached serializers")
+    class CachedSerializers {
+
+        @Test
+        void pickUpANewStyleAndFieldListWithoutRebuilding() throws Exception {
+            Customer customer = new Customer("john@example.com", "Nairobi", "4111111111111111");
+            assertThat(mapper.writeValueAsString(customer))
+                    .contains("\"email\":\"john************\"", "\"city\":\"Nairobi\"");
+
+            properties.apply(reloaded(MaskStyle.FULL, "email", "city"));
+
+            assertThat(mapper.writeValueAsString(customer))
+                    .contains("\"email\":\"****************\"", "\"city\":\"*******\"",
+                            "\"card\":\"************1111\"");
+        }
+
+        @Test
+        void writeUnmaskedWhileDisabledAndMaskAgainWhenReEnabled() throws Exception {
+            Customer customer = new Customer("john@example.com", "Nairobi", "4111111111111111");
+            MaskingProperties disabled = reloaded(MaskStyle.PARTIAL, "email");
+            disabled.setEnabled(false);
+
+            properties.apply(disabled);
+            assertThat(mapper.writeValueAsString(customer)).contains("john@example.com", "4111111111111111");
+
+            properties.apply(reloaded(MaskStyle.PARTIAL, "email"));
+            assertThat(mapper.writeValueAsString(customer)).doesNotContain("john@example.com");
+        }
+
+        @Test
+        void reclassifyTypesForTheLogFilter() {
+            assertThat(service.canContainSensitiveData(Address.class)).isFalse();
+
+            properties.apply(reloaded(MaskStyle.PARTIAL, "email", "city"));
+
+            assertThat(service.canContainSensitiveData(Address.class)).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("snapshots")
+    class Snapshots {
+
+        @Test
+        void areReplacedByEverySetter() {
+            MaskingSnapshot before = properties.snapshot();
+
+            properties.setMaskCharacter('#');
+
+            assertThat(properties.snapshot()).isNotSameAs(before);
+            assertThat(properties.snapshot().getMaskCharacter()).isEqualTo('#');
+            assertThat(before.getMaskCharacter()).isEqualTo('*');
+        }
+
+        @Test
+        void areHeldBackWhileTheBeanIsRebound() {
+            MaskingSnapshot before = properties.snapshot();
+
+            properties.destroy();
+            properties.setMaskStyle(MaskStyle.FULL);
+            properties.setFields(List.of("city"));
+            assertThat(properties.snapshot()).isSameAs(before);
+
+            properties.afterPropertiesSet();
+            assertThat(properties.snapshot().getMaskStyle()).isEqualTo(MaskStyle.FULL);
+            assertThat(properties.snapshot().isSensitiveField("city")).isTrue();
+            assertThat(properties.snapshot().isSensitiveField("email")).isFalse();
+        }
+
+        @Test
+        void arePublishedOnceWhenTheContextRebindsTheProperties() {
+            new ApplicationContextRunner()
+                    .withConfiguration(AutoConfigurations.of(MaskingAutoConfiguration.class))
+                    .withPropertyValues("p11.masking.fields=email", "p11.masking.reload.enabled=true")
+                    .run(context -> {
+                        MaskingProperties bound = context.getBean(MaskingProperties.class);
+                        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("changed",
+                                Map.of("p11.masking.mask-style", "FULL", "p11.masking.fields", "email,city")));
+
+                        // What Spring Cloud's ConfigurationPropertiesRebinder does on an EnvironmentChangeEvent.
+                        AutowireCapableBeanFactory factory = context.getAutowireCapableBeanFactory();
+                        String name = context.getBeanNamesForType(MaskingProperties.class)[0];
+                        factory.destroyBean(bound);
+                        factory.initializeBean(bound, name);
+
+                        ObjectMapper maskingMapper = context.getBean("maskingObjectMapper", ObjectMapper.class);
+                        assertThat(maskingMapper.writeValueAsString(new Address("Nairobi")))
+                                .isEqualTo("{\"city\":\"*******\"}");
+                    });
+        }
+    }
+
+    @Nested
+    @DisplayName("failed rebinds")
+    class FailedRebinds {
+
+        @Test
+        void keepTheSnapshotAndLetSettersPublishAgain() {
+            new ApplicationContextRunner()
+                    .withConfiguration(AutoConfigurations.of(MaskingAutoConfiguration.class))
+                    .withPropertyValues("p11.masking.fields=email")
+                    .run(context -> {
+                        MaskingProperties bound = context.getBean(MaskingProperties.class);
+                        MaskingSnapshot before = bound.snapshot();
+                        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("broken",
+                                Map.of("p11.masking.mask-style", "NO_SUCH_STYLE")));
+
+                        AutowireCapableBeanFactory factory = context.getAutowireCapableBeanFactory();
+                        String name = context.getBeanNamesForType(MaskingProperties.class)[0];
+                        factory.destroyBean(bound);
+                        assertThatThrownBy(() -> factory.initializeBean(bound, name)).isInstanceOf(Exception.class);
+
+                        assertThat(bound.snapshot()).isSameAs(before);
+                        bound.setMaskCharacter('#');
+                        assertThat(bound.snapshot().getMaskCharacter()).isEqualTo('#');
+                    });
+        }
+    }
+
+    @Nested
+    @DisplayName("fixed settings")
+    class FixedSettings {
+
+        @Test
+        void leaveNonSensitivePropertiesOnJacksonsWriter() throws Exception {
+            SimpleModule module = new SimpleModule();
+            module.setSerializerModifier(new MaskingBeanSerializerModifier(properties, MaskingMetrics.NOOP, false));
+            ObjectMapper fixed = new ObjectMapper().registerModule(module);
+
+            BeanSerializerBase serializer = (BeanSerializerBase) fixed.getSerializerProviderInstance()
+                    .findValueSerializer(Customer.class);
+            List<String> wrapped = new ArrayList<>();
+            serializer.properties().forEachRemaining(property -> {
+                if (property instanceof MaskingPropertyWriter) {
+                    wrapped.add(property.getName());
+                }
+            });
+
+            assertThat(wrapped).containsExactlyInAnyOrder("email", "card");
+            assertThat(fixed.writeValueAsString(new Customer("john@example.com", "Nairobi", "4111111111111111")))
+                    .contains("\"email\":\"john************\"", "\"city\":\"Nairobi\"",
+                            "\"card\":\"************1111\"");
+        }
+
+        @Test
+        void areTheDefaultWithoutAReloadSource() {
+            new ApplicationContextRunner()
+                    .withConfiguration(AutoConfigurations.of(MaskingAutoConfiguration.class))
+                    .withPropertyValues("p11.masking.fields=email")
+                    .run(context -> {
+                        ObjectMapper maskingMapper = context.getBean("maskingObjectMapper", ObjectMapper.class);
+                        assertThat(maskingMapper.getSerializerProviderInstance().findValueSerializer(Address.class))
+                                .satisfies(serializer -> ((BeanSerializerBase) serializer).properties()
+                                        .forEachRemaining(property ->
+                                                assertThat(property).isNotInstanceOf(MaskingPropertyWriter.class)));
+                    });
+        }
+    }
+
+    @Nested
+    @DisplayName("MaskingConfigReloader")
+    class Reloader {
+
+        @TempDir
+        Path dir;
+
+        @Test
+        void appliesTheFileOnStartAndOnEveryChange() throws Exception {
+            Path file = dir.resolve("masking.properties");
+            Files.writeString(file, "p11.masking.fields=email\np11.masking.mask-style=SHOW_LAST\n");
+            MaskingConfigReloader reloader = new MaskingConfigReloader(new StandardEnvironment(), properties, file);
+            try {
+                reloader.start();
+                assertThat(properties.snapshot().getMaskStyle()).isEqualTo(MaskStyle.SHOW_LAST);
+
+                Files.writeString(file, "p11.masking.fields=email,city\np11.masking.mask-style=FULL\n");
+                long deadline = System.nanoTime() + 20_000_000_000L;
+                while (properties.snapshot().getMaskStyle() != MaskStyle.FULL && System.nanoTime() < deadline) {
+                    Thread.sleep(50);
+                }
+
+                assertThat(properties.snapshot().getMaskStyle()).isEqualTo(MaskStyle.FULL);
+                assertThat(mapper.writeValueAsString(new Address("Nairobi"))).isEqualTo("{\"city\":\"*******\"}");
+            } finally {
+                reloader.stop();
+            }
+        }
+
+        @Test
+        void layersTheFileOverTheEnvironmentWithoutChangingIt() throws Exception {
+            Path file = dir.resolve("masking.properties");
+            Files.writeString(file, "p11.masking.fields=email\np11.masking.mask-style=${masking.style}\n");
+            StandardEnvironment environment = new StandardEnvironment();
+            environment.getPropertySources().addFirst(new MapPropertySource("application", Map.of(
+                    "p11.masking.mask-character", "#", "p11.masking.mask-style", "PARTIAL",
+                    "masking.style", "FULL")));
+            List<String> before = names(environment);
+            MaskingConfigReloader reloader = new MaskingConfigReloader(environment, properties, file);
+            try {
+                reloader.start();
+
+                assertThat(properties.snapshot().getMaskStyle()).isEqualTo(MaskStyle.FULL);
+                assertThat(properties.snapshot().getMaskCharacter()).isEqualTo('#');
+                assertThat(names(environment)).isEqualTo(before);
+                assertThat(environment.getProperty("p11.masking.fields")).isNull();
+            } finally {
+                reloader.stop();
+            }
+            assertThat(names(environment)).isEqualTo(before);
+        }
+
+        private List<String> names(StandardEnvironment environment) {
+            List<String> names = new ArrayList<>();
+            environment.getPropertySources().forEach(source -> names.add(source.getName()));
+            return names;
+        }
+
+        @Test
+        void readsYamlAndKeepsTheCurrentSettingsWhenTheFileIsBroken() throws Exception {
+            Path file = dir.resolve("masking.yml");
+            Files.writeString(file, "p11:\n  masking:\n    mask-character: '#'\n    fields: [email]\n");
+            MaskingConfigReloader reloader = new MaskingConfigReloader(new StandardEnvironment(), properties, file);
+
+            reloader.reload();
+            MaskingSnapshot applied = properties.snapshot();
+            assertThat(applied.getMaskCharacter()).isEqualTo('#');
+
+            Files.writeString(file, "p11:\n  masking: [unclosed\n");
+            try {
+                reloader.reload();
+            } catch (RuntimeException expected) {
+                // the watcher logs this and carries on
+            }
+            assertThat(properties.snapshot()).isSameAs(applied);
+        }
+    }
+
+    static class Customer {
+        public final String email;
+        public final String city;
+        @Mask(style = MaskStyle.SHOW_LAST)
+        public final String card;
+
+        Customer(String email, String city, String card) {
+            this.email = email;
+            this.city = city;
+            this.card = card;
+        }
+    }
+
+    static class Address {
+        public final String city;
+
+        Address(String city) {
+            this.city = city;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.p11.masking;
+
+import com.p11.masking.annotation.Mask;
+import com.p11.masking.aot.MaskedTypesAotProcessor;
+import com.p11.masking.aot.MaskingRuntimeHints;
+import com.p11.masking.core.MaskStyle;
+import com.p11.masking.logback.AsyncMaskingAppender;
+import com.p11.masking.logback.MaskingMessageConverter;
+import com.p11.masking.logback.MaskingPatternLayoutEncoder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.generate.ClassNameGenerator;
+import org.springframework.aot.generate.DefaultGenerationContext;
+import org.springframework.aot.generate.GenerationContext;
+import org.springframework.aot.generate.InMemoryGeneratedFiles;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationCode;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+import org.springframework.javapoet.ClassName;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("Native-image hints")
+class MaskingRuntimeHintsTest {
+
+    @Nested
+    @DisplayName("starter hints")
+    class StarterHints {
+
+        private final RuntimeHints hints = new RuntimeHints();
+
+        StarterHints() {
+            new MaskingRuntimeHints().registerHints(hints, getClass().getClassLoader());
+        }
+
+        @Test
+        void letJoranCreateAndConfigureTheLogbackComponents() {
+            for (Class<?> component : new Class<?>[] {MaskingMessageConverter.class,
+                    MaskingPatternLayoutEncoder.class, AsyncMaskingAppender.class}) {
+                assertThat(RuntimeHintsPredicates.reflection().onType(component)
+                        .withMemberCategories(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                                MemberCategory.INVOKE_PUBLIC_METHODS))
+                        .accepts(hints);
+            }
+        }
+
+        @Test
+        void includeTheServiceFileAndTheGeneratedSerializersItLists() {
+            assertThat(RuntimeHintsPredicates.resource().forResource(
+                    "META-INF/services/com.p11.masking.jackson.GeneratedMaskingSerializer"))
+                    .accepts(hints);
+            assertThat(RuntimeHintsPredicates.reflection()
+                    .onType(TypeReference.of("com.p11.masking.GeneratedMaskingSerializerTest_Payment_MaskingSerializer"))
+                    .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS))
+                    .accepts(hints);
+        }
+    }
+
+    @Nested
+    @DisplayName("@Mask types")
+    class MaskedTypes {
+
+        private final GenerationContext generationContext = new DefaultGenerationContext(
+                new ClassNameGenerator(ClassName.get(MaskingRuntimeHintsTest.class)), new InMemoryGeneratedFiles());
+
+        private RuntimeHints process(String... packages) {
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            if (packages.length > 0) {
+                AutoConfigurationPackages.register(beanFactory, packages);
+            }
+            BeanFactoryInitializationAotContribution contribution =
+                    new MaskedTypesAotProcessor().processAheadOfTime(beanFactory);
+            if (contribution != null) {
+                contribution.applyTo(generationContext, mock(BeanFactoryInitializationCode.class));
+            }
+            return generationContext.getRuntimeHints();
+        }
+
+        @Test
+        void getBindingHintsForDeclaredAndInheritedMaskFields() {
+            RuntimeHints hints = process("com.p11.masking");
+
+            assertThat(RuntimeHintsPredicates.reflection().onType(Account.class)).accepts(hints);
+            assertThat(RuntimeHintsPredicates.reflection().onMethod(Account.class, "getIban")).accepts(hints);
+            assertThat(RuntimeHintsPredicates.reflection().onType(SavingsAccount.class)).accepts(hints);
+            assertThat(RuntimeHintsPredicates.reflection().onType(Mask.class)).accepts(hints);
+            assertThat(RuntimeHintsPredicates.reflection().onType(Branch.class)).rejects(hints);
+        }
+
+        @Test
+        void areOnlyLookedForInTheApplicationPackages() {
+            assertThat(RuntimeHintsPredicates.reflection().onType(Account.class)).rejects(process("com.example"));
+            assertThat(RuntimeHintsPredicates.reflection().onType(Account.class)).rejects(process());
+        }
+
+        @Test
+        void areProcessedThroughAotFactories() {
+            assertThat(SpringFactoriesLoader.forResourceLocation("META-INF/spring/aot.factories")
+                    .load(BeanFactoryInitializationAotProcessor.class))
+                    .hasAtLeastOneElementOfType(MaskedTypesAotProcessor.class);
+        }
+    }
+
+    public static class Account {
+        @Mask(style = MaskStyle.SHOW_LAST)
+        private String iban;
+
+        public String getIban() {
+            return iban;
+        }
+    }
+
+    public static class SavingsAccount extends Account {
+        private int rate;
+
+        public int getRate() {
+            return rate;
+        }
+    }
+
+    public static class Branch {
+        private String code;
+
+        public String getCode() {
+            return code;
+        }
+    }
+}
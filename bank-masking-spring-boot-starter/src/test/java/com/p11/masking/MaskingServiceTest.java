@@ -2,6 +2,7 @@ package com.p11.masking;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.p11.masking.annotation.Mask;
 import com.p11.masking.config.MaskingProperties;
 import com.p11.masking.core.MaskStyle;
 import com.p11.masking.core.MaskingService;
@@ -11,6 +12,13 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -93,6 +101,31 @@ class MaskingServiceTest {
             assertThat(json).contains("parent");
         }
 
+        @Test
+        void masksNumericAndCharacterValuesWithoutLosingDigits() {
+            AccountDto dto = new AccountDto(4111111111111111L, -1234567, "ab12345678".toCharArray(),
+                    new StringBuilder("secret-note"), Long.MIN_VALUE);
+            String json = maskingService.toMaskedJson(dto);
+
+            assertThat(json)
+                    .contains("\"accountNumber\":\"************1111\"")
+                    .contains("\"balance\":\"****4567\"")
+                    .contains("\"pin\":\"**********\"")
+                    .contains("\"note\":\"se*********\"")
+                    .contains("\"reference\":\"-9223***************\"");
+        }
+
+        @Test
+        void reusesOneBufferAcrossManyMaskedValues() {
+            List<TestDto> dtos = List.of(
+                    new TestDto("a".repeat(200) + "@example.com", "0700000000", "One"),
+                    new TestDto("b@example.com", "0711111111", "Two"));
+            String json = maskingService.toMaskedJson(dtos);
+
+            assertThat(json).doesNotContain("@example.com");
+            assertThat(json).contains("\"email\":\"b@e**********\"");
+        }
+
         @Test
         void handlesNullFieldsGracefully() throws Exception {
             TestDto dto = new TestDto(null, null, "Author");
@@ -101,6 +134,111 @@ class MaskingServiceTest {
         }
     }
 
+    // maskJson streaming tests
+
+    @Nested
+    @DisplayName("maskJson(InputStream, OutputStream)")
+    class MaskJson {
+
+        @Test
+        void masksSensitiveFieldsAndKeepsTheRest() throws Exception {
+            String json = "{\"name\":\"John Doe\",\"EMAIL\":\"john@example.com\",\"age\":42}";
+
+            String masked = maskStream(json);
+
+            assertThat(masked).doesNotContain("john@example.com");
+            assertThat(masked).contains("\"name\":\"John Doe\"", "\"age\":42", "\"EMAIL\":\"johnffffffffffff\"");
+        }
+
+        @Test
+        void masksEveryScalarUnderASensitiveContainer() throws Exception {
+            String json = "{\"ssn\":{\"value\":\"123456789\",\"parts\":[123,45]},\"after\":\"kept\"}";
+
+            String masked = maskStream(json);
+
+            assertThat(masked).doesNotContain("123456789", "123,45");
+            assertThat(masked).contains("\"after\":\"kept\"");
+        }
+
+        @Test
+        void masksNumbersAndKeepsNulls() throws Exception {
+            String masked = maskStream("[{\"phoneNumber\":254712345678,\"email\":null}]");
+
+            assertThat(masked).isEqualTo("[{\"phoneNumber\":\"254fffffffff\",\"email\":null}]");
+        }
+
+        @Test
+        void copiesUnchangedWhenDisabled() throws Exception {
+            properties.setEnabled(false);
+            String json = "{\"email\":\"john@example.com\"}";
+
+            assertThat(maskStream(json)).isEqualTo(json);
+        }
+
+        @Test
+        void readerWriterVariantLeavesWriterOpen() throws Exception {
+            StringWriter out = new StringWriter();
+            maskingService.maskJson(new StringReader("{\"ssn\":\"123-45-6789\"}"), out);
+            out.write('!');
+
+            assertThat(out.toString()).isEqualTo("{\"ssn\":\"12*********\"}!");
+        }
+
+        @Test
+        void streamsLargeDocumentsWithoutMaterialisingThem() throws Exception {
+            int records = 50_000;
+            CountingOutputStream out = new CountingOutputStream();
+
+            maskingService.maskJson(generatedArray(records), out);
+
+            assertThat(out.count).isGreaterThan(records * 40L);
+        }
+
+        private String maskStream(String json) throws Exception {
+            properties.setMaskCharacter('f');
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            maskingService.maskJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), out);
+            return out.toString(StandardCharsets.UTF_8);
+        }
+
+        private InputStream generatedArray(int records) {
+            return new InputStream() {
+                private int record = -1;
+                private byte[] chunk = "[".getBytes(StandardCharsets.UTF_8);
+                private int pos;
+
+                @Override
+                public int read() {
+                    if (pos == chunk.length) {
+                        if (++record > records) {
+                            return -1;
+                        }
+                        String next = record == records ? "]"
+                                : (record == 0 ? "" : ",") + "{\"id\":" + record
+                                + ",\"email\":\"user" + record + "@example.com\"}";
+                        chunk = next.getBytes(StandardCharsets.UTF_8);
+                        pos = 0;
+                    }
+                    return chunk[pos++];
+                }
+            };
+        }
+    }
+
+    static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
     // Helper DTOs
 
     static class TestDto {
@@ -115,6 +253,27 @@ class MaskingServiceTest {
         }
     }
 
+    static class AccountDto {
+        @Mask(style = MaskStyle.SHOW_LAST)
+        public final Long accountNumber;
+        @Mask(style = MaskStyle.SHOW_LAST)
+        public final int balance;
+        @Mask(style = MaskStyle.FULL)
+        public final char[] pin;
+        @Mask
+        public final StringBuilder note;
+        @Mask
+        public final long reference;
+
+        AccountDto(Long accountNumber, int balance, char[] pin, StringBuilder note, long reference) {
+            this.accountNumber = accountNumber;
+            this.balance = balance;
+            this.pin = pin;
+            this.note = note;
+            this.reference = reference;
+        }
+    }
+
     static class NestedDto {
         public final String label;
         public final TestDto inner;
@@ -0,0 +1,128 @@
+package com.p11.masking;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.core.MaskingService;
+import com.p11.masking.jackson.MaskingBeanSerializerModifier;
+import com.p11.masking.logback.MaskedArgument;
+import com.p11.masking.logback.MaskingTurboFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MaskingTurboFilterTest {
+
+    private final AtomicInteger serialisations = new AtomicInteger();
+
+    private MaskingTurboFilter filter;
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        MaskingProperties properties = new MaskingProperties();
+        properties.setFields(List.of("email"));
+        SimpleModule module = new SimpleModule();
+        module.setSerializerModifier(new MaskingBeanSerializerModifier(properties));
+        MaskingService service = new MaskingService(properties, new ObjectMapper().registerModule(module)) {
+            @Override
+            public String toMaskedJson(Object object) {
+                serialisations.incrementAndGet();
+                return super.toMaskedJson(object);
+            }
+        };
+        filter = new MaskingTurboFilter(service);
+        logger = new LoggerContext().getLogger("test");
+        logger.setLevel(Level.INFO);
+    }
+
+    @Test
+    void wrapsObjectParamsWithoutSerialising() {
+        Object[] params = {new Contact("john@example.com"), "plain", 42};
+
+        filter.decide(null, logger, Level.INFO, "{} {} {}", params, null);
+
+        assertThat(params[0]).isInstanceOf(MaskedArgument.class);
+        assertThat(params[1]).isEqualTo("plain");
+        assertThat(params[2]).isEqualTo(42);
+        assertThat(serialisations).hasValue(0);
+    }
+
+    @Test
+    void serialisesOnceWhenTheMessageIsFormatted() {
+        Object[] params = {new Contact("john@example.com")};
+        filter.decide(null, logger, Level.INFO, "Contact: {}", params, null);
+
+        LoggingEvent event = new LoggingEvent("fqcn", logger, Level.INFO, "Contact: {}", null, params);
+        String first = event.getFormattedMessage();
+        String second = params[0].toString();
+
+        assertThat(first).isEqualTo("Contact: {\"email\":\"john************\"}");
+        assertThat(second).isEqualTo("{\"email\":\"john************\"}");
+        assertThat(serialisations).hasValue(1);
+    }
+
+    @Test
+    void leavesObjectsWithoutSensitiveDataUntouched() {
+        UUID id = UUID.randomUUID();
+        Object[] params = {id, LocalDate.of(2024, 1, 1), new Label("clean")};
+
+        filter.decide(null, logger, Level.INFO, "{} {} {}", params, null);
+
+        assertThat(params).containsExactly(id, LocalDate.of(2024, 1, 1), params[2]);
+        assertThat(params[2]).isInstanceOf(Label.class);
+        assertThat(serialisations).hasValue(0);
+    }
+
+    @Test
+    void wrapsObjectsWhosePropertiesMayHoldASensitiveSubclass() {
+        Object[] params = {new LabelHolder(new Label("clean"))};
+
+        filter.decide(null, logger, Level.INFO, "{}", params, null);
+
+        assertThat(params[0]).isInstanceOf(MaskedArgument.class);
+    }
+
+    @Test
+    void leavesParamsUntouchedForDisabledLevels() {
+        Object[] params = {new Contact("john@example.com")};
+
+        filter.decide(null, logger, Level.DEBUG, "{}", params, null);
+
+        assertThat(params[0]).isInstanceOf(Contact.class);
+    }
+
+    static class Label {
+        public final String text;
+
+        Label(String text) {
+            this.text = text;
+        }
+    }
+
+    static final class LabelHolder {
+        public final Label label;
+
+        LabelHolder(Label label) {
+            this.label = label;
+        }
+    }
+
+    static class Contact {
+        public final String email;
+
+        Contact(String email) {
+            this.email = email;
+        }
+    }
+}
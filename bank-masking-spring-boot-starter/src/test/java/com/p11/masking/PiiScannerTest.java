@@ -0,0 +1,145 @@
+package com.p11.masking;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.core.MaskPlan;
+import com.p11.masking.core.MaskStyle;
+import com.p11.masking.core.MaskingService;
+import com.p11.masking.core.PiiScanner;
+import com.p11.masking.core.PiiType;
+import com.p11.masking.logback.MaskingMessageConverter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PiiScannerTest {
+
+    private final PiiScanner scanner = new PiiScanner(MaskPlan.of(MaskStyle.FULL, '*'), EnumSet.allOf(PiiType.class));
+
+    @Nested
+    @DisplayName("Card numbers")
+    class CardNumbers {
+
+        @Test
+        void masksLuhnValidNumbers() {
+            assertThat(scanner.mask("paid with 4111111111111111, thanks"))
+                    .isEqualTo("paid with ****************, thanks");
+        }
+
+        @Test
+        void masksGroupedNumbersIncludingSeparators() {
+            assertThat(scanner.mask("card 4111 1111 1111 1111 ok")).isEqualTo("card ******************* ok");
+            assertThat(scanner.mask("card 5500-0000-0000-0004")).isEqualTo("card *******************");
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "order 4111111111111112 shipped",
+                "id 12345678901234567890123",
+                "ref A4111111111111111",
+                "at 2024-01-15 10:30:00"
+        })
+        void ignoresNumbersThatAreNotCards(String text) {
+            assertThat(scanner.mask(text)).isSameAs(text);
+        }
+    }
+
+    @Nested
+    @DisplayName("IBANs")
+    class Ibans {
+
+        @Test
+        void masksContiguousAndPrintedForms() {
+            assertThat(scanner.mask("to DE89370400440532013000."))
+                    .isEqualTo("to **********************.");
+            assertThat(scanner.mask("to GB29 NWBK 6016 1331 9268 19 today"))
+                    .isEqualTo("to *************************** today");
+        }
+
+        @Test
+        void ignoresBadChecksumsAndShoutedWords() {
+            String text = "to DE89370400440532013001 ERROR AB12";
+            assertThat(scanner.mask(text)).isSameAs(text);
+        }
+    }
+
+    @Nested
+    @DisplayName("Emails and phone numbers")
+    class EmailsAndPhones {
+
+        @Test
+        void masksEmailAddressesButNotATrailingDot() {
+            assertThat(scanner.mask("mail john.doe+x@example.co.ke."))
+                    .isEqualTo("mail ************************.");
+        }
+
+        @Test
+        void ignoresAtSignsThatAreNotAddresses() {
+            String text = "@here user@localhost 3@4.5";
+            assertThat(scanner.mask(text)).isSameAs(text);
+        }
+
+        @Test
+        void masksInternationalPhoneNumbers() {
+            assertThat(scanner.mask("call +254712345678 or +1 (555) 123-4567"))
+                    .isEqualTo("call ************* or *****************");
+        }
+
+        @Test
+        void ignoresShortOrEmbeddedPlusNumbers() {
+            String text = "x+12345678 and +123 and 5+12345678";
+            assertThat(scanner.mask(text)).isSameAs(text);
+        }
+    }
+
+    @Test
+    void appliesTheConfiguredStyleToEachSpan() {
+        PiiScanner partial = new PiiScanner(MaskPlan.of(MaskStyle.SHOW_LAST, '#'), EnumSet.allOf(PiiType.class));
+
+        assertThat(partial.mask("card 4111111111111111 and ngugi@example.com"))
+                .isEqualTo("card ############1111 and #############.com");
+    }
+
+    @Test
+    void onlyLooksForConfiguredTypes() {
+        PiiScanner emailsOnly = new PiiScanner(MaskPlan.of(MaskStyle.FULL, '*'), EnumSet.of(PiiType.EMAIL));
+
+        assertThat(emailsOnly.mask("4111111111111111 a@b.io")).isEqualTo("4111111111111111 ******");
+    }
+
+    @Test
+    void treatsNullTypesAsNone() {
+        MaskingProperties properties = new MaskingProperties();
+
+        properties.getScan().setTypes(null);
+
+        assertThat(properties.getScan().getTypes()).isEmpty();
+    }
+
+    @Test
+    void converterMasksTheFormattedMessage() {
+        MaskingProperties properties = new MaskingProperties();
+        properties.setFields(List.of("email"));
+        MaskingService service = new MaskingService(properties, new ObjectMapper());
+        LoggerContext context = new LoggerContext();
+        context.putObject(MaskingMessageConverter.SERVICE_KEY, service);
+        MaskingMessageConverter converter = new MaskingMessageConverter();
+        converter.setContext(context);
+        converter.start();
+
+        LoggingEvent event = new LoggingEvent("fqcn", context.getLogger("test"), Level.INFO,
+                "Charging card {} for {}", null, new Object[]{"4111111111111111", "jane@example.com"});
+
+        assertThat(converter.convert(event)).isEqualTo("Charging card 4111************ for jane************");
+    }
+}
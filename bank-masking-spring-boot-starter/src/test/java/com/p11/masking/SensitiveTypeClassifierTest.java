@@ -0,0 +1,130 @@
+package com.p11.masking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.p11.masking.annotation.Mask;
+import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.jackson.MaskingBeanSerializerModifier;
+import com.p11.masking.jackson.SensitiveTypeClassifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SensitiveTypeClassifierTest {
+
+    private SensitiveTypeClassifier classifier;
+
+    @BeforeEach
+    void setUp() {
+        classifier = new SensitiveTypeClassifier(maskingMapper());
+    }
+
+    private static ObjectMapper maskingMapper() {
+        MaskingProperties properties = new MaskingProperties();
+        properties.setFields(List.of("email"));
+        SimpleModule module = new SimpleModule();
+        module.setSerializerModifier(new MaskingBeanSerializerModifier(properties));
+        return new ObjectMapper().registerModule(new JavaTimeModule()).registerModule(module);
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {UUID.class, LocalDate.class, TimeUnit.class, BigDecimal.class,
+            CleanDto.class, CleanHolder.class, Node.class})
+    void typesWithoutSensitivePropertiesAreClean(Class<?> type) {
+        assertThat(classifier.canContainSensitiveData(type)).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {ConfiguredDto.class, AnnotatedDto.class, Wrapper.class, ListHolder.class,
+            MapHolder.class, OpenHolder.class, ArrayList.class})
+    void typesThatCanReachASensitivePropertyAreSensitive(Class<?> type) {
+        assertThat(classifier.canContainSensitiveData(type)).isTrue();
+    }
+
+    @Test
+    void propertiesOfNonFinalTypesMayHoldASensitiveSubclass() throws Exception {
+        ObjectMapper mapper = maskingMapper();
+        ContactHolder holder = new ContactHolder();
+        holder.contact = new EmailContact();
+        holder.contact.name = "John";
+        ((EmailContact) holder.contact).email = "john@example.com";
+
+        assertThat(classifier.canContainSensitiveData(Contact.class)).isFalse();
+        assertThat(classifier.canContainSensitiveData(EmailContact.class)).isTrue();
+        assertThat(classifier.canContainSensitiveData(ContactHolder.class)).isTrue();
+        assertThat(mapper.writeValueAsString(holder)).doesNotContain("john@example.com");
+    }
+
+    @Test
+    void resultIsStableAcrossCalls() {
+        assertThat(classifier.canContainSensitiveData(ConfiguredDto.class)).isTrue();
+        assertThat(classifier.canContainSensitiveData(ConfiguredDto.class)).isTrue();
+        assertThat(classifier.canContainSensitiveData(CleanDto.class)).isFalse();
+    }
+
+    public static final class CleanDto {
+        public String title;
+        public LocalDate published;
+        public List<String> tags;
+    }
+
+    public static class CleanHolder {
+        public CleanDto dto;
+        public Map<String, Integer> counts;
+    }
+
+    public static final class Node {
+        public String label;
+        public Node next;
+    }
+
+    public static class ConfiguredDto {
+        public String email;
+    }
+
+    public static class AnnotatedDto {
+        @Mask
+        public String iban;
+    }
+
+    public static class Wrapper {
+        public String label;
+        public AnnotatedDto inner;
+    }
+
+    public static class ListHolder {
+        public List<ConfiguredDto> items;
+    }
+
+    public static class MapHolder {
+        public Map<String, AnnotatedDto> byKey;
+    }
+
+    public static class OpenHolder {
+        public Object payload;
+    }
+
+    public static class Contact {
+        public String name;
+    }
+
+    public static class EmailContact extends Contact {
+        public String email;
+    }
+
+    public static final class ContactHolder {
+        public Contact contact;
+    }
+}
@@ -0,0 +1,297 @@
+package com.p11.masking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.p11.masking.annotation.Mask;
+import com.p11.masking.config.MaskingAutoConfiguration;
+import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.core.MaskPlan;
+import com.p11.masking.core.MaskStyle;
+import com.p11.masking.core.MaskingService;
+import com.p11.masking.core.TokenCache;
+import com.p11.masking.core.Tokenizer;
+import com.p11.masking.jackson.MaskingBeanSerializerModifier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenizerTest {
+
+    private static final byte[] KEY = "test-key-0123456789".getBytes(StandardCharsets.UTF_8);
+
+    private static Tokenizer tokenizer(boolean formatPreserving) {
+        return new Tokenizer(KEY, 16, formatPreserving, "tok_", new TokenCache(100, Duration.ofMinutes(1)));
+    }
+
+    @Nested
+    @DisplayName("Tokens")
+    class Tokens {
+
+        @Test
+        void areDeterministicPerKeyAndDistinctPerValue() {
+            Tokenizer first = tokenizer(false);
+            Tokenizer second = tokenizer(false);
+            Tokenizer otherKey = new Tokenizer("other-key-0123456789".getBytes(StandardCharsets.UTF_8), 16, false, "tok_",
+                    new TokenCache(0, Duration.ofMinutes(1)));
+
+            String token = first.tokenize("ACC-0012345");
+
+            assertThat(token).matches("tok_[0-9a-f]{16}");
+            assertThat(second.tokenize("ACC-0012345")).isEqualTo(token);
+            assertThat(first.tokenize("ACC-0012346")).isNotEqualTo(token);
+            assertThat(otherKey.tokenize("ACC-0012345")).isNotEqualTo(token);
+        }
+
+        @Test
+        void honourOddLengthsAndSubSequences() {
+            Tokenizer odd = new Tokenizer(KEY, 5, false, "", new TokenCache(10, Duration.ofMinutes(1)));
+
+            assertThat(odd.tokenize("value")).matches("[0-9a-f]{5}");
+            assertThat(odd.tokenize(new StringBuilder("xxvaluexx"), 2, 5)).isEqualTo(odd.tokenize("value"));
+        }
+
+        @Test
+        void preserveFormatWhenAsked() {
+            Tokenizer tokenizer = tokenizer(true);
+
+            String token = tokenizer.tokenize("Ab-12 34@x.io");
+
+            assertThat(token).hasSize(13).matches("[A-Z][a-z]-\\d\\d \\d\\d@[a-z]\\.[a-z]{2}");
+            assertThat(token).isNotEqualTo("Ab-12 34@x.io");
+            assertThat(tokenizer(true).tokenize("1".repeat(100))).matches("\\d{100}").isNotEqualTo("1".repeat(100));
+        }
+
+        @Test
+        void preserveFormatWithoutFavouringAnyDigit() {
+            Tokenizer tokenizer = new Tokenizer(KEY, 16, true, "", new TokenCache(0, Duration.ofMinutes(1)));
+            int[] counts = new int[10];
+
+            for (int i = 0; i < 20_000; i++) {
+                for (char c : tokenizer.tokenize(String.format("%010d", i)).toCharArray()) {
+                    counts[c - '0']++;
+                }
+            }
+
+            // A byte taken % 10 makes 0-5 about 4% likelier than 6-9: some 780 more per digit over 200,000.
+            double low = IntStream.of(counts).limit(6).average().orElseThrow();
+            double high = IntStream.of(counts).skip(6).average().orElseThrow();
+            assertThat(low - high).isBetween(-300.0, 300.0);
+        }
+
+        @Test
+        void rejectInvalidSettings() {
+            TokenCache cache = new TokenCache(1, Duration.ofMinutes(1));
+            assertThatThrownBy(() -> new Tokenizer(new byte[0], 16, false, "", cache))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> new Tokenizer(new byte[Tokenizer.MIN_KEY_LENGTH - 1], 16, false, "", cache))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("at least 16 bytes");
+            assertThatThrownBy(() -> new Tokenizer(KEY, 65, false, "", cache))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> new Tokenizer(KEY, 16, false, "x".repeat(17), cache))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("TokenCache")
+    class Cache {
+
+        @Test
+        void evictsLeastRecentlyUsedBeyondItsBound() {
+            TokenCache cache = new TokenCache(16, Duration.ofMinutes(1));
+            for (int i = 0; i < 1000; i++) {
+                cache.put("value-" + i, "token-" + i);
+            }
+
+            assertThat(cache.size()).isLessThanOrEqualTo(16);
+            assertThat(cache.get("value-999")).isEqualTo("token-999");
+            assertThat(cache.get("value-0")).isNull();
+        }
+
+        @Test
+        void expiresEntriesAfterTheTtl() {
+            AtomicLong now = new AtomicLong();
+            TokenCache cache = new TokenCache(10, Duration.ofSeconds(5), now::get);
+            cache.put("value", "token");
+
+            now.set(Duration.ofSeconds(4).toNanos());
+            assertThat(cache.get("value")).isEqualTo("token");
+            now.set(Duration.ofSeconds(5).toNanos());
+            assertThat(cache.get("value")).isNull();
+            assertThat(cache.size()).isZero();
+        }
+
+        @Test
+        void servesRepeatedValuesFromTheCache() {
+            TokenCache cache = new TokenCache(10, Duration.ofMinutes(1));
+            Tokenizer tokenizer = new Tokenizer(KEY, 16, false, "tok_", cache);
+
+            String token = tokenizer.tokenize("4111111111111111");
+            cache.put("4111111111111111", "cached");
+
+            assertThat(token).startsWith("tok_");
+            assertThat(tokenizer.tokenize("4111111111111111")).isEqualTo("cached");
+        }
+    }
+
+    @Nested
+    @DisplayName("MaskStyle.TOKENIZE")
+    class Style {
+
+        @Test
+        void masksFullyWithoutATokenizer() {
+            assertThat(MaskStyle.TOKENIZE.apply("secret", '*')).isEqualTo("******");
+            assertThat(MaskPlan.of(MaskStyle.TOKENIZE, '*').apply("secret")).isEqualTo("******");
+        }
+
+        @Test
+        void usesThePlansTokenizerOnEveryPath() {
+            Tokenizer tokenizer = tokenizer(false);
+            MaskPlan plan = MaskPlan.of(MaskStyle.TOKENIZE, '*', tokenizer);
+            String expected = tokenizer.tokenize("john@example.com");
+
+            char[] dest = new char[plan.maskedLength(16)];
+            int written = plan.maskInto("john@example.com", 0, 16, dest, 0);
+            char[] inPlace = java.util.Arrays.copyOf("john@example.com".toCharArray(), plan.maskedLength(16));
+            int inPlaceLength = plan.maskInPlace(inPlace, 0, 16);
+            StringBuilder appended = new StringBuilder();
+            plan.appendTo("<john@example.com>", 1, 16, appended);
+
+            assertThat(plan.apply("john@example.com")).isEqualTo(expected);
+            assertThat(new String(dest, 0, written)).isEqualTo(expected);
+            assertThat(new String(inPlace, 0, inPlaceLength)).isEqualTo(expected);
+            assertThat(appended.toString()).isEqualTo(expected);
+            assertThat(MaskPlan.of(MaskStyle.FULL, '*', tokenizer).apply("secret")).isEqualTo("******");
+        }
+
+        @Test
+        void tokenizesAnnotatedPropertiesDuringSerialisation() throws Exception {
+            Tokenizer tokenizer = tokenizer(false);
+            MaskingProperties properties = new MaskingProperties();
+            properties.useTokenizer(tokenizer);
+            ObjectMapper mapper = mapper(properties);
+
+            String first = mapper.writeValueAsString(new Account("ACC-0012345", 1));
+            String second = mapper.writeValueAsString(new Account("ACC-0012345", 2));
+
+            String token = tokenizer.tokenize("ACC-0012345");
+            assertThat(first).isEqualTo("{\"number\":\"" + token + "\",\"line\":1}");
+            assertThat(second).contains(token);
+        }
+
+        @Test
+        void keepsEachConfigurationsTokenizerApart() throws Exception {
+            MaskingProperties first = new MaskingProperties();
+            first.useTokenizer(tokenizer(false));
+            MaskingProperties second = new MaskingProperties();
+            second.useTokenizer(new Tokenizer("other-key-0123456789".getBytes(StandardCharsets.UTF_8), 16, false,
+                    "tok_", new TokenCache(10, Duration.ofMinutes(1))));
+            MaskingProperties none = new MaskingProperties();
+
+            String fromFirst = mapper(first).writeValueAsString(new Account("ACC-0012345", 1));
+            String fromSecond = mapper(second).writeValueAsString(new Account("ACC-0012345", 1));
+
+            assertThat(fromFirst).contains(first.tokenizer().tokenize("ACC-0012345"));
+            assertThat(fromSecond).contains(second.tokenizer().tokenize("ACC-0012345"));
+            assertThat(fromFirst).isNotEqualTo(fromSecond);
+            assertThat(mapper(none).writeValueAsString(new Account("ACC-0012345", 1)))
+                    .isEqualTo("{\"number\":\"***********\",\"line\":1}");
+        }
+
+        @Test
+        void autoConfigurationUsesATokenizerOnlyWithAKey() {
+            ApplicationContextRunner runner = new ApplicationContextRunner()
+                    .withConfiguration(AutoConfigurations.of(MaskingAutoConfiguration.class));
+
+            runner.run(context -> {
+                assertThat(context).doesNotHaveBean(Tokenizer.class);
+                assertThat(context.getBean(MaskingProperties.class).snapshot().getTokenizer()).isNull();
+            });
+            runner.withPropertyValues("p11.masking.tokenization.key=s3cret-0123456789",
+                            "p11.masking.tokenization.format-preserving=true")
+                    .run(context -> {
+                        Tokenizer tokenizer = context.getBean(MaskingProperties.class).snapshot().getTokenizer();
+                        assertThat(tokenizer).isSameAs(context.getBean(Tokenizer.class));
+                        assertThat(tokenizer.isFormatPreserving()).isTrue();
+                    });
+        }
+
+        @Test
+        void autoConfigurationRejectsAShortKey() {
+            new ApplicationContextRunner()
+                    .withConfiguration(AutoConfigurations.of(MaskingAutoConfiguration.class))
+                    .withPropertyValues("p11.masking.tokenization.key=s3cret")
+                    .run(context -> assertThat(context).hasFailed()
+                            .getFailure().rootCause().hasMessageContaining("at least 16 bytes"));
+        }
+
+        @Test
+        void autoConfigurationUsesTheTokenizerAlongsideAnApplicationMapper() {
+            new ApplicationContextRunner()
+                    .withConfiguration(AutoConfigurations.of(MaskingAutoConfiguration.class))
+                    .withPropertyValues("p11.masking.tokenization.key=s3cret-0123456789")
+                    .withBean("maskingObjectMapper", ObjectMapper.class, ObjectMapper::new)
+                    .run(context -> assertThat(context.getBean(MaskingProperties.class).tokenizer())
+                            .isSameAs(context.getBean(Tokenizer.class)));
+        }
+
+        @Test
+        void autoConfigurationUsesAnApplicationTokenizerBeforeTheServiceExists() {
+            Tokenizer own = tokenizer(false);
+
+            new ApplicationContextRunner()
+                    .withConfiguration(AutoConfigurations.of(MaskingAutoConfiguration.class))
+                    .withBean(Tokenizer.class, () -> own)
+                    .run(context -> {
+                        assertThat(context.getBean(MaskingProperties.class).tokenizer()).isSameAs(own);
+                        assertThat(context.getBeanFactory().getBeanDefinition("maskingService").getDependsOn())
+                                .contains(context.getBeanNamesForType(Tokenizer.class));
+                    });
+        }
+
+        @Test
+        void contextsInOneJvmTokenizeWithTheirOwnKeys() {
+            ApplicationContextRunner runner = new ApplicationContextRunner()
+                    .withConfiguration(AutoConfigurations.of(MaskingAutoConfiguration.class));
+
+            runner.withPropertyValues("p11.masking.tokenization.key=first-key-0123456789").run(first ->
+                    runner.withPropertyValues("p11.masking.tokenization.key=second-key-0123456789").run(second -> {
+                        Tokenizer own = first.getBean(MaskingProperties.class).tokenizer();
+                        assertThat(own).isSameAs(first.getBean(Tokenizer.class));
+                        assertThat(second.getBean(MaskingProperties.class).tokenizer())
+                                .isSameAs(second.getBean(Tokenizer.class)).isNotSameAs(own);
+                        assertThat(first.getBean(MaskingService.class).mask("ACC-0012345", MaskStyle.TOKENIZE, '*'))
+                                .isNotEqualTo(second.getBean(MaskingService.class)
+                                        .mask("ACC-0012345", MaskStyle.TOKENIZE, '*'));
+                    }));
+        }
+    }
+
+    private static ObjectMapper mapper(MaskingProperties properties) {
+        SimpleModule module = new SimpleModule();
+        module.setSerializerModifier(new MaskingBeanSerializerModifier(properties));
+        return new ObjectMapper().registerModule(module);
+    }
+
+    static class Account {
+        @Mask(style = MaskStyle.TOKENIZE)
+        public String number;
+        public int line;
+
+        Account(String number, int line) {
+            this.number = number;
+            this.line = line;
+        }
+    }
+}
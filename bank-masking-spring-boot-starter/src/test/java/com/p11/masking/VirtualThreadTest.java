@@ -0,0 +1,316 @@
+package com.p11.masking;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.PackageVersion;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.p11.masking.annotation.Mask;
+import com.p11.masking.config.MaskingAutoConfiguration;
+import com.p11.masking.config.MaskingProperties;
+import com.p11.masking.core.MaskStyle;
+import com.p11.masking.core.MaskingService;
+import com.p11.masking.core.ObjectPool;
+import com.p11.masking.core.TokenCache;
+import com.p11.masking.core.Tokenizer;
+import com.p11.masking.jackson.MaskingBeanSerializerModifier;
+import com.p11.masking.jackson.VirtualThreadRecyclerPool;
+import com.p11.masking.logback.AsyncMaskingAppender;
+import com.p11.masking.logback.MaskingMessageConverter;
+import com.p11.masking.logback.MaskingPatternLayoutEncoder;
+import com.p11.masking.logback.MaskingTurboFilter;
+import com.p11.masking.logback.OverflowPolicy;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadTest {
+
+    private static final byte[] KEY = "test-key-0123456789".getBytes(StandardCharsets.UTF_8);
+
+    /** Recycler pools need Jackson 2.16+; the boot-jackson test run uses the 2.15 Boot 3.2 manages. */
+    private static final boolean RECYCLER_POOLS =
+            PackageVersion.VERSION.compareTo(new Version(2, 16, 0, null,
+                    PackageVersion.VERSION.getGroupId(), PackageVersion.VERSION.getArtifactId())) >= 0;
+
+    @Nested
+    @DisplayName("ObjectPool")
+    class Pool {
+
+        @Test
+        void platformThreadKeepsItsOwnInstance() {
+            ObjectPool<StringBuilder> pool = new ObjectPool<>(StringBuilder::new, b -> true);
+
+            StringBuilder first = pool.acquire();
+            pool.release(first);
+
+            assertThat(pool.acquire()).isSameAs(first);
+            assertThat(pool.pooled()).isZero();
+        }
+
+        @Test
+        void nestedAcquireOnAPlatformThreadGetsAnotherInstance() {
+            ObjectPool<StringBuilder> pool = new ObjectPool<>(StringBuilder::new, b -> true);
+
+            StringBuilder outer = pool.acquire();
+            StringBuilder inner = pool.acquire();
+            pool.release(inner);
+            pool.release(outer);
+
+            assertThat(inner).isNotSameAs(outer);
+            assertThat(pool.acquire()).isSameAs(inner);
+        }
+
+        @Test
+        void platformThreadReplacesAnInstanceThatIsNotReusable() {
+            ObjectPool<StringBuilder> pool = new ObjectPool<>(StringBuilder::new, b -> b.capacity() <= 64);
+
+            StringBuilder first = pool.acquire();
+            first.ensureCapacity(1024);
+            pool.release(first);
+
+            assertThat(pool.acquire()).isNotSameAs(first);
+        }
+
+        @Test
+        void virtualThreadsShareThePool() throws Exception {
+            ObjectPool<StringBuilder> pool = new ObjectPool<>(StringBuilder::new, b -> true, 4);
+
+            StringBuilder first = onVirtualThread(() -> {
+                StringBuilder b = pool.acquire();
+                pool.release(b);
+                return b;
+            });
+            StringBuilder second = onVirtualThread(() -> {
+                StringBuilder b = pool.acquire();
+                pool.release(b);
+                return b;
+            });
+
+            assertThat(second).isSameAs(first);
+            assertThat(pool.pooled()).isOne();
+        }
+
+        @Test
+        void virtualThreadsDropInstancesThatAreNotReusable() throws Exception {
+            ObjectPool<StringBuilder> pool = new ObjectPool<>(StringBuilder::new, b -> b.capacity() <= 64, 4);
+
+            onVirtualThread(() -> {
+                StringBuilder b = pool.acquire();
+                b.ensureCapacity(1024);
+                pool.release(b);
+                return b;
+            });
+
+            assertThat(pool.pooled()).isZero();
+        }
+
+        @Test
+        void neverHandsOneInstanceToTwoVirtualThreads() throws Exception {
+            ObjectPool<AtomicInteger> pool = new ObjectPool<>(AtomicInteger::new, b -> true, 4);
+            Set<AtomicInteger> seen = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+            AtomicInteger shared = new AtomicInteger();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 2_000; i++) {
+                    executor.submit(() -> {
+                        AtomicInteger owned = pool.acquire();
+                        seen.add(owned);
+                        if (owned.incrementAndGet() != 1) {
+                            shared.incrementAndGet();
+                        }
+                        Thread.yield();
+                        owned.decrementAndGet();
+                        pool.release(owned);
+                    });
+                }
+            }
+
+            assertThat(shared).hasValue(0);
+            assertThat(pool.pooled()).isBetween(1, 4);
+            assertThat(seen.size()).isLessThan(2_000);
+        }
+    }
+
+    @Nested
+    @DisplayName("Masking on virtual threads")
+    class Masking {
+
+        @Test
+        void masksAndLogsWithoutPinningACarrier() throws Exception {
+            MaskingProperties properties = new MaskingProperties();
+            properties.setFields(List.of("email"));
+            properties.useTokenizer(new Tokenizer(KEY, 16, false, "tok_", new TokenCache(16, Duration.ofMinutes(1))));
+            SimpleModule module = new SimpleModule();
+            module.setSerializerModifier(new MaskingBeanSerializerModifier(properties));
+            ObjectMapper mapper = new ObjectMapper().registerModule(module);
+            if (RECYCLER_POOLS) {
+                VirtualThreadRecyclerPool.install(mapper);
+            }
+            MaskingService service = new MaskingService(properties, mapper);
+
+            LoggerContext context = new LoggerContext();
+            context.setMDCAdapter(MDC.getMDCAdapter());
+            context.putObject(MaskingMessageConverter.SERVICE_KEY, service);
+            MaskingTurboFilter filter = new MaskingTurboFilter(service);
+            filter.start();
+            context.addTurboFilter(filter);
+            Logger logger = context.getLogger("test");
+            logger.setLevel(Level.INFO);
+            logger.setAdditive(false);
+            ListAppender<ILoggingEvent> sink = new ListAppender<>();
+            sink.setContext(context);
+            sink.start();
+            logger.addAppender(sink);
+            AsyncMaskingAppender async = new AsyncMaskingAppender();
+            async.setContext(context);
+            async.setMaskingService(service);
+            async.setName("async");
+            async.setBufferSize(8);
+            async.setOverflowPolicy(OverflowPolicy.BLOCK);
+            async.wrapAppendersOf(logger);
+            async.start();
+
+            MaskingPatternLayoutEncoder encoder = new MaskingPatternLayoutEncoder();
+            encoder.setContext(context);
+            encoder.setPattern("%msg");
+            encoder.start();
+
+            int tasks = 2_000;
+            List<String> pinned = Collections.synchronizedList(new ArrayList<>());
+            List<Future<String>> results = new ArrayList<>();
+            try (RecordingStream recording = new RecordingStream()) {
+                recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+                recording.onEvent("jdk.VirtualThreadPinned", event -> pinned.add(String.valueOf(event.getStackTrace())));
+                recording.startAsync();
+
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                    for (int i = 0; i < tasks; i++) {
+                        Account account = new Account("user" + i + "@example.com", "ACC-" + (i % 64));
+                        results.add(executor.submit(() -> {
+                            logger.info("Opened {}", account);
+                            String line = new String(encoder.encode(new LoggingEvent("fqcn", logger, Level.INFO,
+                                    "Saved {}", null, new Object[] {account})), StandardCharsets.UTF_8);
+                            return line + "|" + service.toMaskedJson(account);
+                        }));
+                    }
+                }
+                async.stop();
+                recording.stop();
+            } finally {
+                async.unwrap();
+            }
+
+            String expected = "Saved " + service.toMaskedJson(new Account("user0@example.com", "ACC-0"));
+            assertThat(results.get(0).get()).startsWith(expected + "|");
+            for (Future<String> result : results) {
+                assertThat(result.get()).doesNotContain("@example.com").contains("\"number\":\"tok_");
+            }
+            assertThat(sink.list).hasSize(tasks);
+            assertThat(async.getDroppedCount()).isZero();
+            assertThat(pinned).isEmpty();
+        }
+
+        @Test
+        void pinningIsDetectedWhenItHappens() throws Exception {
+            Object monitor = new Object();
+            List<String> pinned = Collections.synchronizedList(new ArrayList<>());
+            try (RecordingStream recording = new RecordingStream()) {
+                recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO);
+                recording.onEvent("jdk.VirtualThreadPinned", event -> pinned.add(event.getEventType().getName()));
+                recording.startAsync();
+
+                Thread.ofVirtual().start(() -> {
+                    synchronized (monitor) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+                    }
+                }).join();
+                recording.stop();
+            }
+
+            assertThat(pinned).isNotEmpty();
+        }
+
+        @Test
+        void serializationOnVirtualThreadsReusesPooledRecyclers() throws Exception {
+            assumeTrue(RECYCLER_POOLS);
+            ObjectMapper mapper = new ObjectMapper();
+            VirtualThreadRecyclerPool.install(mapper);
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 500; i++) {
+                    executor.submit(() -> mapper.writeValueAsString(new Account("a@example.com", "ACC-1")));
+                }
+            }
+
+            assertThat(mapper.getFactory()._getRecyclerPool().pooledCount()).isPositive();
+        }
+
+        @Test
+        void autoConfiguredMapperUsesTheRecyclerPool() {
+            assumeTrue(RECYCLER_POOLS);
+            new ApplicationContextRunner()
+                    .withConfiguration(AutoConfigurations.of(MaskingAutoConfiguration.class))
+                    .run(context -> assertThat(context.getBean("maskingObjectMapper", ObjectMapper.class)
+                            .getFactory()._getRecyclerPool()).isInstanceOf(VirtualThreadRecyclerPool.class));
+        }
+
+        @Test
+        void autoConfiguredMapperMasksOnVirtualThreadsWithoutRecyclerPools() throws Exception {
+            assumeFalse(RECYCLER_POOLS);
+            new ApplicationContextRunner()
+                    .withConfiguration(AutoConfigurations.of(MaskingAutoConfiguration.class))
+                    .withPropertyValues("p11.masking.fields=email")
+                    .run(context -> {
+                        MaskingService service = context.getBean(MaskingService.class);
+                        assertThat(onVirtualThread(() -> service.toMaskedJson(new Account("a@example.com", "ACC-1"))))
+                                .contains("\"email\":").doesNotContain("a@example.com");
+                    });
+        }
+    }
+
+    private static <T> T onVirtualThread(Callable<T> task) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            return executor.submit(task).get();
+        }
+    }
+
+    static class Account {
+        public String email;
+        @Mask(style = MaskStyle.TOKENIZE)
+        public String number;
+
+        Account(String email, String number) {
+            this.email = email;
+            this.number = number;
+        }
+    }
+}